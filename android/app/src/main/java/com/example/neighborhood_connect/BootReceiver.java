@@ -8,9 +8,9 @@ public class BootReceiver extends BroadcastReceiver {
     @Override
     public void onReceive(Context context, Intent intent) {
         if (Intent.ACTION_BOOT_COMPLETED.equals(intent.getAction())) {
-            // Start the service using an Intent
-            Intent serviceIntent = new Intent(context, ScreenMonitorService.class);
-            context.startForegroundService(serviceIntent);
+            // Nothing to monitor; the host starts with the app instead
+            if (!ScreenMonitorService.isSOSMonitoringEnabled(context)) return;
+            StartupOrchestrator.startServiceHost(context);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.example.neighborhood_connect;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * One-time pass over a user's unread {@code notifications} that gives documents written
+ * before the {@code delivered} flag existed a value, since the listener's
+ * {@code delivered == false} query never matches a missing field.
+ *
+ * Documents older than the listener's resume point were already surfaced by the old
+ * {@code read == false} listener or fall outside its look-back, so they are marked
+ * delivered; newer ones get {@code delivered: false} and reach the listener like any
+ * other. The pass pages through the unread set in {@link BatchPlanner#MAX_BATCH_OPS}
+ * documents and is recorded as done in {@link NotificationListenerState} only once it
+ * has finished, so a failure retries it on the next start.
+ */
+final class DeliveredBackfill {
+    private static final String TAG = "DeliveredBackfill";
+
+    private DeliveredBackfill() {
+    }
+
+    static void runOnce(FirebaseFirestore firestore, String userId, NotificationListenerState state,
+                        long cutoffMs, Executor executor) {
+        if (state.isDeliveredBackfilled()) return;
+        Query unread = firestore.collection("notifications")
+                .whereEqualTo("userId", userId)
+                .whereEqualTo("read", false)
+                .orderBy(FieldPath.documentId())
+                .limit(BatchPlanner.MAX_BATCH_OPS);
+        page(firestore, unread, null, state, cutoffMs, executor, 0);
+    }
+
+    private static void page(FirebaseFirestore firestore, Query unread, DocumentSnapshot after,
+                             NotificationListenerState state, long cutoffMs, Executor executor, int updated) {
+        (after != null ? unread.startAfter(after) : unread).get().addOnCompleteListener(executor, read -> {
+            if (!read.isSuccessful()) {
+                Log.w(TAG, "Backfill read failed, retrying on next start", read.getException());
+                return;
+            }
+            List<DocumentSnapshot> documents = read.getResult().getDocuments();
+            WriteBatch batch = firestore.batch();
+            int count = 0;
+            for (DocumentSnapshot document : documents) {
+                if (document.contains("delivered")) continue;
+                Timestamp timestamp = document.getTimestamp("timestamp");
+                boolean surfaced = timestamp == null || timestamp.toDate().getTime() < cutoffMs;
+                batch.update(document.getReference(), "delivered", surfaced);
+                count++;
+            }
+            int total = updated + count;
+            Task<Void> commit = count > 0 ? batch.commit() : Tasks.forResult(null);
+            commit.addOnCompleteListener(executor, written -> {
+                if (!written.isSuccessful()) {
+                    Log.w(TAG, "Backfill write failed, retrying on next start", written.getException());
+                    return;
+                }
+                if (documents.size() == BatchPlanner.MAX_BATCH_OPS) {
+                    page(firestore, unread, documents.get(documents.size() - 1), state, cutoffMs, executor, total);
+                    return;
+                }
+                state.markDeliveredBackfilled();
+                Log.d(TAG, "Backfilled delivered on " + total + " notifications");
+            });
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.neighborhood_connect;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks surfaced {@code notifications} documents as delivered, so the listener's
+ * {@code delivered == false} result set stays small instead of growing with every
+ * unread notification.
+ *
+ * Acks are debounced into WriteBatch commits: a flush runs {@link #FLUSH_DELAY_MS}
+ * after the first pending ack, or straight away once {@link #MAX_PENDING} are queued.
+ * A failed commit puts its ids back in the queue. The timer runs on a scheduler shared
+ * with the rest of the service host.
+ */
+public class DeliveryAcker {
+    private static final String TAG = "DeliveryAcker";
+    static final long FLUSH_DELAY_MS = 3000;
+    static final int MAX_PENDING = 100;
+
+    private final CollectionReference notifications;
+    private final FirebaseFirestore firestore;
+    private final ScheduledExecutorService scheduler;
+    private final List<String> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean stopped;
+
+    public DeliveryAcker(FirebaseFirestore firestore, ScheduledExecutorService scheduler) {
+        this.firestore = firestore;
+        this.scheduler = scheduler;
+        this.notifications = firestore.collection("notifications");
+    }
+
+    public synchronized void ack(String documentId) {
+        pending.add(documentId);
+        if (pending.size() >= MAX_PENDING || stopped) {
+            flush();
+        } else if (scheduledFlush == null) {
+            scheduledFlush = scheduler.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void flush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (pending.isEmpty()) return;
+        List<String> ids = new ArrayList<>(pending);
+        pending.clear();
+
+        WriteBatch batch = firestore.batch();
+        for (String id : ids) {
+            batch.update(notifications.document(id),
+                    "delivered", true,
+                    "deliveredAt", FieldValue.serverTimestamp());
+        }
+        // The listener only touches the queue, so it can run on Firestore's own thread
+        batch.commit().addOnCompleteListener(Runnable::run, task -> {
+            if (task.isSuccessful()) {
+                Log.d(TAG, "Acknowledged " + ids.size() + " notifications");
+                return;
+            }
+            Exception error = task.getException();
+            if (error instanceof FirebaseFirestoreException && ((FirebaseFirestoreException) error).getCode()
+                    == FirebaseFirestoreException.Code.NOT_FOUND) {
+                // A document deleted in the meantime fails the whole batch; ack the rest
+                // one by one and let the missing ones go
+                for (String id : ids) {
+                    notifications.document(id).update("delivered", true,
+                            "deliveredAt", FieldValue.serverTimestamp());
+                }
+                return;
+            }
+            Log.w(TAG, "Delivery ack of " + ids.size() + " notifications failed", error);
+            synchronized (this) {
+                pending.addAll(ids);
+                if (scheduledFlush == null && !stopped && !scheduler.isShutdown()) {
+                    scheduledFlush = scheduler.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+    }
+
+    /**
+     * Commits whatever is queued; later acks are committed straight away. The shared
+     * scheduler is left running.
+     */
+    public synchronized void shutdown() {
+        stopped = true;
+        flush();
+    }
+}
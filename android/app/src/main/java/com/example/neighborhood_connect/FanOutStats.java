@@ -0,0 +1,63 @@
+package com.example.neighborhood_connect;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+/**
+ * Running counters for comparing the two fan-out models: documents written and commit
+ * latency on the sender, end-to-end delivery latency on the recipient. Counters are
+ * keyed by model ("copies" or "event"). Nearby-responder lookups are counted under
+ * "nearby", recipient resolution under "resolve".
+ */
+public final class FanOutStats {
+    private static final String TAG = "FanOutStats";
+    private static final String PREFS_NAME = "sos_fan_out_stats";
+
+    private FanOutStats() {
+    }
+
+    public static synchronized void recordWrite(Context context, String model, FanOutResult result, long commitMs) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        preferences.edit()
+                .putLong(model + ".sos_count", preferences.getLong(model + ".sos_count", 0) + 1)
+                .putLong(model + ".recipients", preferences.getLong(model + ".recipients", 0) + result.recipients)
+                .putLong(model + ".documents", preferences.getLong(model + ".documents", 0) + result.documents)
+                .putLong(model + ".commit_ms", preferences.getLong(model + ".commit_ms", 0) + commitMs)
+                .apply();
+        Log.d(TAG, "[" + model + "] " + result + " committed in " + commitMs + " ms");
+    }
+
+    public static synchronized void recordNearby(Context context, NearbyResponders.Result result) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        preferences.edit()
+                .putLong("nearby.sos_count", preferences.getLong("nearby.sos_count", 0) + 1)
+                .putLong("nearby.queries", preferences.getLong("nearby.queries", 0) + result.queries)
+                .putLong("nearby.responders", preferences.getLong("nearby.responders", 0) + result.userIds.size())
+                .putLong("nearby.query_ms", preferences.getLong("nearby.query_ms", 0) + result.latencyMs)
+                .apply();
+        Log.d(TAG, "[nearby] " + result);
+    }
+
+    public static synchronized void recordResolution(Context context, RecipientResolver.Resolution resolution) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        preferences.edit()
+                .putLong("resolve.sos_count", preferences.getLong("resolve.sos_count", 0) + 1)
+                .putLong("resolve.requested", preferences.getLong("resolve.requested", 0) + resolution.requested)
+                .putLong("resolve.saved_writes", preferences.getLong("resolve.saved_writes", 0) + resolution.savedWrites())
+                .putLong("resolve.queries", preferences.getLong("resolve.queries", 0) + resolution.queries)
+                .putLong("resolve.cache_hits", preferences.getLong("resolve.cache_hits", 0) + resolution.cacheHits)
+                .putLong("resolve.query_ms", preferences.getLong("resolve.query_ms", 0) + resolution.latencyMs)
+                .apply();
+        Log.d(TAG, "[resolve] " + resolution);
+    }
+
+    public static synchronized void recordDelivery(Context context, String model, long latencyMs) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        preferences.edit()
+                .putLong(model + ".delivered", preferences.getLong(model + ".delivered", 0) + 1)
+                .putLong(model + ".delivery_ms", preferences.getLong(model + ".delivery_ms", 0) + latencyMs)
+                .apply();
+        Log.d(TAG, "[" + model + "] delivered after " + latencyMs + " ms");
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.neighborhood_connect;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contacts and recipients of an SOS from Firestore: {@code phone_numbers/{uid}} and
+ * {@code app_notify/{uid}} through the on-device {@link SosContactCache}, and nearby
+ * neighbours through the {@link LocationIndex}, and account activity from
+ * {@code users/{uid}}. Results are delivered on {@code executor}.
+ */
+@SuppressWarnings("unchecked")
+public class FirestoreContactSource implements ContactSource, RecipientSource {
+    private static final String TAG = "FirestoreContactSource";
+
+    private final FirebaseFirestore firestore;
+    private final Executor executor;
+    private final SosContactCache contactCache;
+
+    public FirestoreContactSource(FirebaseFirestore firestore, Executor executor, SosContactCache contactCache) {
+        this.firestore = firestore;
+        this.executor = executor;
+        this.contactCache = contactCache;
+    }
+
+    @Override
+    public Stage<List<String>> fetchContacts(String userId) {
+        List<String> cachedNumbers = contactCache.getPhoneNumbers(userId);
+        if (cachedNumbers != null) {
+            Log.d(TAG, "Using " + cachedNumbers.size() + " cached phone numbers");
+            return Stage.completed(cachedNumbers);
+        }
+
+        Log.d(TAG, "Contact cache cold, fetching phone numbers for user ID: " + userId);
+        Stage<List<String>> stage = new Stage<>();
+        firestore.collection("phone_numbers")
+                .document(userId)
+                .get()
+                .addOnSuccessListener(executor, documentSnapshot -> {
+                    contactCache.updatePhoneNumbers(userId, documentSnapshot);
+                    stage.complete(PhoneNumbers.normalizeAll(documentSnapshot.exists()
+                            ? (List<Object>) documentSnapshot.get("numbers") : null));
+                })
+                .addOnFailureListener(executor, stage::fail);
+        return stage;
+    }
+
+    @Override
+    public Stage<List<String>> fetchRecipients(String userId) {
+        List<String> cachedRecipients = contactCache.getRecipientIds(userId);
+        if (cachedRecipients != null) {
+            return Stage.completed(cachedRecipients);
+        }
+
+        Stage<List<String>> stage = new Stage<>();
+        firestore.collection("app_notify")
+                .document(userId)
+                .get()
+                .addOnSuccessListener(executor, documentSnapshot -> {
+                    contactCache.updateRecipientIds(userId, documentSnapshot);
+                    stage.complete(PhoneNumbers.dedupeIds(documentSnapshot.exists()
+                            ? (List<Object>) documentSnapshot.get("user_ids") : null));
+                })
+                .addOnFailureListener(executor, stage::fail);
+        return stage;
+    }
+
+    /**
+     * Reads the location index in the cells covering {@link NearbyResponders#RADIUS_M}
+     * around the fix, all queries in parallel. Cells that fail to load are skipped;
+     * the stage fails only if every query does.
+     */
+    @Override
+    public Stage<NearbyResponders.Result> findNearby(String userId, SosFix fix) {
+        long startedAt = SystemClock.elapsedRealtime();
+        List<String> cells = GeoHash.coveringCells(fix.latitude, fix.longitude, NearbyResponders.RADIUS_M);
+        List<NearbyResponders.Candidate> candidates = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failed = new AtomicInteger();
+        Stage<?>[] queries = new Stage<?>[cells.size()];
+        for (int i = 0; i < cells.size(); i++) {
+            Stage<Void> query = new Stage<>();
+            LocationIndex.cellQuery(firestore, cells.get(i)).get()
+                    .addOnSuccessListener(executor, snapshot -> {
+                        for (DocumentSnapshot document : snapshot.getDocuments()) {
+                            NearbyResponders.Candidate candidate = LocationIndex.toCandidate(document);
+                            if (candidate != null) candidates.add(candidate);
+                        }
+                        query.complete(null);
+                    })
+                    .addOnFailureListener(executor, e -> {
+                        failed.incrementAndGet();
+                        query.fail(e);
+                    });
+            queries[i] = query;
+        }
+        Stage<NearbyResponders.Result> stage = new Stage<>();
+        Stage.whenAll(queries).addListener(done -> {
+            if (failed.get() == queries.length) {
+                stage.fail(queries[0].getError());
+                return;
+            }
+            List<String> nearby;
+            synchronized (candidates) {
+                nearby = NearbyResponders.select(candidates, fix.latitude, fix.longitude,
+                        userId, System.currentTimeMillis());
+            }
+            stage.complete(new NearbyResponders.Result(nearby, queries.length,
+                    candidates.size(), SystemClock.elapsedRealtime() - startedAt));
+        });
+        return stage;
+    }
+
+    /**
+     * One {@code whereIn} read on document ids. Activity comes from {@code lastActive},
+     * kept fresh by the recipient's own listener, or {@code createdAt} for accounts
+     * that have not run it since; see {@link AccountActivity}.
+     */
+    @Override
+    public Stage<Map<String, Boolean>> lookupStatus(List<String> userIds) {
+        Stage<Map<String, Boolean>> stage = new Stage<>();
+        firestore.collection("users")
+                .whereIn(FieldPath.documentId(), userIds)
+                .get()
+                .addOnSuccessListener(executor, snapshot -> {
+                    Map<String, Boolean> statuses = new HashMap<>();
+                    long now = System.currentTimeMillis();
+                    for (DocumentSnapshot document : snapshot.getDocuments()) {
+                        Timestamp lastSeen = document.getTimestamp("lastActive");
+                        if (lastSeen == null) lastSeen = document.getTimestamp("createdAt");
+                        statuses.put(document.getId(), AccountActivity.isActive(
+                                lastSeen != null ? lastSeen.toDate().getTime() : 0, now));
+                    }
+                    stage.complete(statuses);
+                })
+                .addOnFailureListener(executor, stage::fail);
+        return stage;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.neighborhood_connect;
+
+import android.content.Context;
+import android.os.SystemClock;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Writes SOS notifications to Firestore with whichever document model the
+ * {@link ScreenMonitorService#isEventFanOutEnabled} flag selects at the time of the
+ * write, and records each write in {@link FanOutStats}.
+ */
+public class FirestoreNotificationSink implements SosNotificationWriter {
+    private final Context context;
+    private final FirebaseFirestore firestore;
+    private final Executor executor;
+
+    public FirestoreNotificationSink(Context context, FirebaseFirestore firestore, Executor executor) {
+        this.context = context;
+        this.firestore = firestore;
+        this.executor = executor;
+    }
+
+    @Override
+    public Stage<FanOutResult> write(String senderId, List<String> recipientIds, String locationUrl, SosTrace trace) {
+        boolean eventModel = ScreenMonitorService.isEventFanOutEnabled(context);
+        SosNotificationWriter writer = eventModel
+                ? new SosEventWriter(firestore, executor)
+                : new NotificationFanOut(firestore, executor);
+        long startedAt = SystemClock.elapsedRealtime();
+        return writer.write(senderId, recipientIds, locationUrl, trace)
+                .addListener(fanOut -> FanOutStats.recordWrite(context, eventModel ? "event" : "copies",
+                        fanOut.getValue(), SystemClock.elapsedRealtime() - startedAt));
+    }
+}
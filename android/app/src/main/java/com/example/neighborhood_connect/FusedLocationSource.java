@@ -0,0 +1,197 @@
+package com.example.neighborhood_connect;
+
+import android.content.Context;
+import android.location.Location;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+/**
+ * SOS locations from the fused location provider. Each SOS gets a
+ * {@link LocationSession} with its own location callback, so overlapping runs (a
+ * trigger and a journal replay) never remove each other's updates. Sessions run on
+ * {@code workerHandler}'s thread.
+ */
+@SuppressWarnings("deprecation")
+public class FusedLocationSource implements LocationSource {
+    private static final String TAG = "FusedLocationSource";
+
+    private final Context context;
+    private final FusedLocationProviderClient fusedLocationClient;
+    private final Handler workerHandler;
+    // Sessions with location updates requested; stop() may run on another thread
+    private final Set<LocationSession> activeSessions = Collections.synchronizedSet(new HashSet<>());
+
+    public FusedLocationSource(Context context, FusedLocationProviderClient fusedLocationClient,
+                               Handler workerHandler) {
+        this.context = context;
+        this.fusedLocationClient = fusedLocationClient;
+        this.workerHandler = workerHandler;
+    }
+
+    @Override
+    public void acquireLocation(Stage<SosFix> firstFix, Stage<SosFix> refinedFix) {
+        LocationSession session = new LocationSession(firstFix, refinedFix);
+        // Session state is confined to the worker thread
+        fusedLocationClient.getLastLocation()
+                .addOnCompleteListener(workerHandler::post, task -> {
+                    if (task.isSuccessful()) {
+                        session.onLastKnownLocation(task.getResult());
+                    }
+                    session.requestFreshFix();
+                });
+    }
+
+    /**
+     * Removes the pending location updates of every session.
+     */
+    public void stop() {
+        List<LocationSession> sessions;
+        synchronized (activeSessions) {
+            sessions = new ArrayList<>(activeSessions);
+            activeSessions.clear();
+        }
+        for (LocationSession session : sessions) {
+            fusedLocationClient.removeLocationUpdates(session.locationCallback);
+        }
+    }
+
+    /**
+     * Progressive location for a single SOS: completes {@code firstFix} straight away
+     * from a recent last-known fix (labeled with its accuracy and age), then keeps
+     * requesting high-accuracy updates and completes {@code refinedFix} once a fix meets
+     * {@link LocationFixPolicy#TARGET_ACCURACY_M}. After
+     * {@link LocationFixPolicy#REFINE_TIMEOUT_MS} it gives up, falling back to an SOS
+     * without location if nothing has been sent yet.
+     */
+    private class LocationSession {
+        private final Stage<SosFix> firstFix;
+        private final Stage<SosFix> refinedFix;
+        private final LocationFixRecord record = new LocationFixRecord();
+        private final long startedAt = SystemClock.elapsedRealtime();
+        private final Runnable timeout = this::onTimeout;
+        private final LocationCallback locationCallback = new LocationCallback() {
+            @Override
+            public void onLocationResult(LocationResult locationResult) {
+                if (locationResult != null) {
+                    onFreshLocation(locationResult.getLastLocation());
+                }
+            }
+        };
+        private boolean finished;
+
+        LocationSession(Stage<SosFix> firstFix, Stage<SosFix> refinedFix) {
+            this.firstFix = firstFix;
+            this.refinedFix = refinedFix;
+            record.triggeredAtMs = System.currentTimeMillis();
+        }
+
+        void onLastKnownLocation(Location location) {
+            if (location == null) return;
+            long ageMs = (SystemClock.elapsedRealtimeNanos() - location.getElapsedRealtimeNanos()) / 1_000_000;
+            float accuracy = location.hasAccuracy() ? location.getAccuracy() : -1;
+            record.lastKnownAgeMs = ageMs;
+            record.lastKnownAccuracyM = accuracy;
+            if (!LocationFixPolicy.isUsableLastKnown(ageMs, accuracy)) {
+                Log.d(TAG, "Last known location too old or inaccurate: " + ageMs + " ms, " + accuracy + " m");
+                return;
+            }
+            String locationUrl = SosMessages.locationUrl(location.getLatitude(), location.getLongitude());
+            Log.d(TAG, "Using last known location: " + locationUrl);
+            if (LocationFixPolicy.isRefined(accuracy) && ageMs <= LocationFixPolicy.REFINE_TIMEOUT_MS) {
+                // Already as good as a fresh fix would be, so no follow-up is needed
+                completeFirst(new SosFix(locationUrl, SosMessages.sosMessage(locationUrl),
+                        location.getLatitude(), location.getLongitude()));
+                finishRefined(null, accuracy);
+            } else {
+                completeFirst(new SosFix(locationUrl,
+                        SosMessages.approximateSosMessage(locationUrl, accuracy, ageMs),
+                        location.getLatitude(), location.getLongitude()));
+            }
+        }
+
+        void requestFreshFix() {
+            if (finished) return;
+            LocationRequest locationRequest = LocationRequest.create();
+            locationRequest.setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY);
+            locationRequest.setInterval(2000);
+            locationRequest.setFastestInterval(1000);
+
+            activeSessions.add(this);
+            fusedLocationClient.requestLocationUpdates(locationRequest, locationCallback, workerHandler.getLooper());
+            workerHandler.postDelayed(timeout, LocationFixPolicy.REFINE_TIMEOUT_MS);
+        }
+
+        private void onFreshLocation(Location location) {
+            ThreadChecks.checkNotMainThread("SOS location callback");
+            if (finished || location == null) return;
+            float accuracy = location.hasAccuracy() ? location.getAccuracy() : -1;
+            String locationUrl = SosMessages.locationUrl(location.getLatitude(), location.getLongitude());
+            Log.d(TAG, "Location received: " + locationUrl + " (" + accuracy + " m)");
+
+            if (!firstFix.isDone()) {
+                completeFirst(new SosFix(locationUrl, SosMessages.sosMessage(locationUrl),
+                        location.getLatitude(), location.getLongitude()));
+                if (LocationFixPolicy.isRefined(accuracy)) {
+                    finishRefined(null, accuracy);
+                }
+            } else if (LocationFixPolicy.isRefined(accuracy)) {
+                finishRefined(new SosFix(locationUrl,
+                        SosMessages.refinedLocationMessage(locationUrl, accuracy),
+                        location.getLatitude(), location.getLongitude()), accuracy);
+            }
+        }
+
+        private void onTimeout() {
+            if (finished) return;
+            Log.d(TAG, "No accurate location within " + LocationFixPolicy.REFINE_TIMEOUT_MS + " ms.");
+            record.timedOut = true;
+            if (!firstFix.isDone()) {
+                completeFirst(SosFix.NO_LOCATION);
+            }
+            refinedFix.fail(new CancellationException("no accurate fix"));
+            finish();
+        }
+
+        private void completeFirst(SosFix fix) {
+            record.timeToFirstFixMs = SystemClock.elapsedRealtime() - startedAt;
+            firstFix.complete(fix);
+        }
+
+        /**
+         * Records the refined fix and completes {@code refinedFix}; a null {@code fix}
+         * means the first SOS was already accurate and no follow-up is needed.
+         */
+        private void finishRefined(SosFix fix, float accuracy) {
+            record.refinedAccuracyM = accuracy;
+            record.timeToRefinedFixMs = SystemClock.elapsedRealtime() - startedAt;
+            if (fix != null) {
+                refinedFix.complete(fix);
+            } else {
+                refinedFix.fail(new CancellationException("first fix already accurate"));
+            }
+            finish();
+        }
+
+        private void finish() {
+            finished = true;
+            workerHandler.removeCallbacks(timeout);
+            if (activeSessions.remove(this)) {
+                fusedLocationClient.removeLocationUpdates(locationCallback);
+            }
+            SosLocationStats.record(context, record);
+        }
+    }
+}
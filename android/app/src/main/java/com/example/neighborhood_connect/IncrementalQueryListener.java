@@ -0,0 +1,106 @@
+package com.example.neighborhood_connect;
+
+import android.util.Log;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Snapshot listener that resumes from a persisted cursor instead of downloading and
+ * re-alerting every matching document on each start.
+ *
+ * The query is ordered by {@code timestamp} and limited to {@link #PAGE_SIZE}. On start
+ * it begins just before the newest timestamp surfaced so far: senders stamp documents
+ * with their own clock, so {@link #CLOCK_SKEW_MS} of overlap is re-read and the seen
+ * set drops what was already shown. When a page fills up, the listener re-attaches
+ * after the last document of that page.
+ */
+public class IncrementalQueryListener {
+    private static final String TAG = "IncrementalListener";
+    public static final int PAGE_SIZE = 50;
+    public static final long CLOCK_SKEW_MS = 5 * 60 * 1000;
+    // Where a listener with no cursor yet starts
+    public static final long INITIAL_LOOKBACK_MS = 24 * 60 * 60 * 1000;
+
+    public interface OnNewDocument {
+        void onNewDocument(DocumentSnapshot document);
+    }
+
+    private final String name;
+    private final Query base;
+    private final NotificationListenerState state;
+    private final Executor executor;
+    private final OnNewDocument callback;
+    private ListenerRegistration registration;
+
+    /**
+     * @param name     cursor key and seen-set namespace, e.g. the collection name
+     * @param base     the filtered query, without ordering or limits
+     * @param executor delivers snapshots; should be single-threaded to keep them ordered
+     */
+    public IncrementalQueryListener(String name, Query base, NotificationListenerState state,
+                                    Executor executor, OnNewDocument callback) {
+        this.name = name;
+        this.base = base;
+        this.state = state;
+        this.executor = executor;
+        this.callback = callback;
+    }
+
+    public synchronized void start() {
+        if (registration != null) return;
+        long cursor = state.getCursor(name, System.currentTimeMillis() - INITIAL_LOOKBACK_MS);
+        attach(base.orderBy("timestamp")
+                .startAfter(new Timestamp(new Date(cursor - CLOCK_SKEW_MS))));
+    }
+
+    public synchronized void stop() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+
+    private void attach(Query ordered) {
+        registration = ordered.limit(PAGE_SIZE).addSnapshotListener(executor, this::onSnapshot);
+    }
+
+    private void onSnapshot(QuerySnapshot snapshots, FirebaseFirestoreException e) {
+        if (e != null) {
+            Log.w(TAG, name + " listen failed.", e);
+            return;
+        }
+        if (snapshots == null) return;
+        int surfaced = 0;
+        for (DocumentChange dc : snapshots.getDocumentChanges()) {
+            if (dc.getType() != DocumentChange.Type.ADDED) continue;
+            DocumentSnapshot document = dc.getDocument();
+            Timestamp timestamp = document.getTimestamp("timestamp");
+            if (timestamp != null) state.advanceCursor(name, timestamp.toDate().getTime());
+            if (!state.markSeen(name, document.getId())) continue;
+            surfaced++;
+            callback.onNewDocument(document);
+        }
+        if (surfaced > 0) state.saveSeen();
+
+        List<DocumentSnapshot> page = snapshots.getDocuments();
+        if (page.size() >= PAGE_SIZE) {
+            DocumentSnapshot last = page.get(page.size() - 1);
+            Log.d(TAG, name + " page full, continuing after " + last.getId());
+            synchronized (this) {
+                if (registration == null) return;
+                registration.remove();
+                attach(base.orderBy("timestamp").startAfter(last));
+            }
+        }
+    }
+}
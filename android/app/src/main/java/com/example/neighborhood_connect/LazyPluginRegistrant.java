@@ -0,0 +1,191 @@
+package com.example.neighborhood_connect;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.flutter.embedding.engine.FlutterEngine;
+import io.flutter.embedding.engine.plugins.FlutterPlugin;
+import io.flutter.plugins.GeneratedPluginRegistrant;
+
+/**
+ * Registers Flutter plugins in two tiers instead of all at once through
+ * {@link GeneratedPluginRegistrant}.
+ *
+ * Core plugins, the ones main() and the first screen call before the first frame, are
+ * registered with the engine before its Dart entrypoint runs. Everything else is
+ * registered after the first frame, one plugin per main-thread message so input and
+ * frames are not held up, or straight away through {@link #ensure} when Dart needs one
+ * earlier. GeneratedPluginRegistrant runs last as a safety net for plugins missing from
+ * {@link #PLUGINS}; the engine skips those already registered.
+ *
+ * Each registration is timed, and {@link #getReport} lists the cost per plugin so the
+ * tiers can be revisited. All methods run on the main thread.
+ */
+public final class LazyPluginRegistrant {
+    private static final String TAG = "LazyPluginRegistrant";
+    private static final String UNLISTED = "(unlisted)";
+
+    private static final boolean CORE = true;
+    private static final boolean DEFERRED = false;
+
+    // Plugin name (as in pubspec.lock) to class and tier
+    private static final Map<String, Object[]> PLUGINS = new LinkedHashMap<>();
+
+    static {
+        core("flutter_plugin_android_lifecycle", "io.flutter.plugins.flutter_plugin_android_lifecycle.FlutterAndroidLifecyclePlugin");
+        core("firebase_core", "io.flutter.plugins.firebase.core.FlutterFirebaseCorePlugin");
+        core("firebase_auth", "io.flutter.plugins.firebase.auth.FlutterFirebaseAuthPlugin");
+        core("cloud_firestore", "io.flutter.plugins.firebase.firestore.FlutterFirebaseFirestorePlugin");
+        core("google_sign_in_android", "io.flutter.plugins.googlesignin.GoogleSignInPlugin");
+        core("permission_handler_android", "com.baseflow.permissionhandler.PermissionHandlerPlugin");
+        core("flutter_local_notifications", "com.dexterous.flutterlocalnotifications.FlutterLocalNotificationsPlugin");
+        core("shared_preferences_android", "io.flutter.plugins.sharedpreferences.SharedPreferencesPlugin");
+        core("path_provider_android", "io.flutter.plugins.pathprovider.PathProviderPlugin");
+        core("sqflite_android", "com.tekartik.sqflite.SqflitePlugin");
+        core("geolocator_android", "com.baseflow.geolocator.GeolocatorPlugin");
+        core("connectivity_plus", "dev.fluttercommunity.plus.connectivity.ConnectivityPlugin");
+        core("package_info_plus", "dev.fluttercommunity.plus.packageinfo.PackageInfoPlugin");
+
+        deferred("fluttertoast", "io.github.ponnamkarthik.toast.fluttertoast.FlutterToastPlugin");
+        deferred("url_launcher_android", "io.flutter.plugins.urllauncher.UrlLauncherPlugin");
+        deferred("flutter_keyboard_visibility", "com.jrai.flutter_keyboard_visibility.FlutterKeyboardVisibilityPlugin");
+        deferred("google_maps_flutter_android", "io.flutter.plugins.googlemaps.GoogleMapsPlugin");
+        deferred("geocoding_android", "com.baseflow.geocoding.GeocodingPlugin");
+        deferred("firebase_storage", "io.flutter.plugins.firebase.storage.FlutterFirebaseStoragePlugin");
+        deferred("firebase_database", "io.flutter.plugins.firebase.database.FirebaseDatabasePlugin");
+        deferred("image_picker_android", "io.flutter.plugins.imagepicker.ImagePickerPlugin");
+        deferred("file_picker", "com.mr.flutter.plugin.filepicker.FilePickerPlugin");
+        deferred("file_selector_android", "dev.flutter.packages.file_selector_android.FileSelectorAndroidPlugin");
+        deferred("flutter_contacts", "co.quis.flutter_contacts.FlutterContactsPlugin");
+        deferred("audio_session", "com.ryanheise.audio_session.AudioSessionPlugin");
+        deferred("audioplayers_android", "xyz.luan.audioplayers.AudioplayersPlugin");
+        deferred("just_audio", "com.ryanheise.just_audio.JustAudioPlugin");
+        deferred("video_player_android", "io.flutter.plugins.videoplayer.VideoPlayerPlugin");
+        deferred("media_kit_video", "com.alexmercerind.media_kit_video.MediaKitVideoPlugin");
+        deferred("get_thumbnail_video", "com.rocksti.get_thumbnail_video.VideoThumbnailPlugin");
+        deferred("photo_manager", "com.fluttercandies.photo_manager.PhotoManagerPlugin");
+        deferred("image_gallery_saver_plus", "com.example.image_gallery_saver_plus.ImageGallerySaverPlusPlugin");
+        deferred("record_android", "com.llfbandit.record.RecordPlugin");
+        deferred("share_plus", "dev.fluttercommunity.plus.share.SharePlusPlugin");
+        deferred("emoji_picker_flutter", "com.fintasys.emoji_picker_flutter.EmojiPickerFlutterPlugin");
+        deferred("desktop_drop", "one.mixin.desktop.drop.DesktopDropPlugin");
+        deferred("screen_brightness_android", "com.aaassseee.screen_brightness_android.ScreenBrightnessAndroidPlugin");
+        deferred("volume_controller", "com.kurenai7968.volume_controller.VolumeControllerPlugin");
+        deferred("wakelock_plus", "dev.fluttercommunity.plus.wakelock.WakelockPlusPlugin");
+        deferred("flutter_foreground_task", "com.pravera.flutter_foreground_task.FlutterForegroundTaskPlugin");
+        deferred("flutter_sms", "com.example.flutter_sms.FlutterSmsPlugin");
+        deferred("telephony", "com.shounakmulay.telephony.TelephonyPlugin");
+    }
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Plugin name to {phase, micros}, in registration order
+    private static final Map<String, Object[]> registered = new LinkedHashMap<>();
+    private static boolean deferredScheduled;
+
+    private LazyPluginRegistrant() {
+    }
+
+    private static void core(String name, String className) {
+        PLUGINS.put(name, new Object[]{className, CORE});
+    }
+
+    private static void deferred(String name, String className) {
+        PLUGINS.put(name, new Object[]{className, DEFERRED});
+    }
+
+    /**
+     * Registers the core tier; call before the engine's Dart entrypoint runs.
+     */
+    public static void registerCore(FlutterEngine engine) {
+        long startedAt = SystemClock.elapsedRealtime();
+        for (Map.Entry<String, Object[]> plugin : PLUGINS.entrySet()) {
+            if ((boolean) plugin.getValue()[1]) register(engine, plugin.getKey(), "core");
+        }
+        Log.d(TAG, "Core plugins registered in " + (SystemClock.elapsedRealtime() - startedAt) + " ms");
+    }
+
+    /**
+     * Queues the deferred tier, one plugin per main-thread message. Later calls are
+     * no-ops.
+     */
+    public static void registerDeferred(FlutterEngine engine) {
+        if (deferredScheduled) return;
+        deferredScheduled = true;
+        for (String name : PLUGINS.keySet()) {
+            mainHandler.post(() -> register(engine, name, "deferred"));
+        }
+        mainHandler.post(() -> {
+            long startedAt = SystemClock.elapsedRealtimeNanos();
+            GeneratedPluginRegistrant.registerWith(engine);
+            registered.put(UNLISTED, new Object[]{"deferred",
+                    (SystemClock.elapsedRealtimeNanos() - startedAt) / 1000});
+        });
+    }
+
+    /**
+     * Forgets what was registered, dropping deferred registrations not yet run; call
+     * when the engine is destroyed so its successor gets every plugin again.
+     */
+    public static void reset() {
+        mainHandler.removeCallbacksAndMessages(null);
+        registered.clear();
+        deferredScheduled = false;
+    }
+
+    /**
+     * Registers the named plugins now if they are not yet; for Dart code that needs a
+     * deferred plugin before its turn. Returns the names that are not known here.
+     */
+    public static List<String> ensure(FlutterEngine engine, List<String> names) {
+        List<String> unknown = new ArrayList<>();
+        for (String name : names) {
+            if (PLUGINS.containsKey(name)) {
+                register(engine, name, "on_demand");
+            } else {
+                unknown.add(name);
+            }
+        }
+        return unknown;
+    }
+
+    /**
+     * Registration cost per plugin, most expensive first:
+     * {@code [{name, tier, phase, micros}]}.
+     */
+    public static List<Map<String, Object>> getReport() {
+        List<Map<String, Object>> report = new ArrayList<>(registered.size());
+        for (Map.Entry<String, Object[]> entry : registered.entrySet()) {
+            Object[] plugin = PLUGINS.get(entry.getKey());
+            Map<String, Object> row = new HashMap<>(8);
+            row.put("name", entry.getKey());
+            row.put("tier", plugin == null ? "unlisted" : (boolean) plugin[1] ? "core" : "deferred");
+            row.put("phase", entry.getValue()[0]);
+            row.put("micros", entry.getValue()[1]);
+            report.add(row);
+        }
+        Collections.sort(report, (a, b) -> Long.compare((long) b.get("micros"), (long) a.get("micros")));
+        return report;
+    }
+
+    private static void register(FlutterEngine engine, String name, String phase) {
+        if (registered.containsKey(name)) return;
+        long startedAt = SystemClock.elapsedRealtimeNanos();
+        try {
+            FlutterPlugin plugin = (FlutterPlugin) Class.forName((String) PLUGINS.get(name)[0])
+                    .getDeclaredConstructor().newInstance();
+            engine.getPlugins().add(plugin);
+        } catch (Exception e) {
+            Log.e(TAG, "Error registering plugin " + name, e);
+        }
+        registered.put(name, new Object[]{phase, (SystemClock.elapsedRealtimeNanos() - startedAt) / 1000});
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.neighborhood_connect;
+
+import android.Manifest;
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.util.Log;
+
+import androidx.core.content.ContextCompat;
+
+import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * The {@code user_locations/{uid}} index used to find neighbours near an SOS: a
+ * geohash, coarsely rounded coordinates and the time they were published.
+ *
+ * Only users who turned on "available as a nearby responder" are listed. Their device
+ * checks its last known location when the notification listener starts and every
+ * {@link #PUBLISH_CHECK_INTERVAL_MS} while it runs, and publishes it at most every
+ * {@link NearbyResponders#REPUBLISH_INTERVAL_MS} unless it has moved
+ * {@link NearbyResponders#REPUBLISH_DISTANCE_M}. Turning the setting off or signing
+ * out deletes the entry. Queries need a single-field index on {@code geohash}, which
+ * Firestore creates by default; firestore.rules limits who may read what.
+ */
+public final class LocationIndex {
+    private static final String TAG = "LocationIndex";
+    public static final String COLLECTION = "user_locations";
+    private static final String PREFS_NAME = "location_index";
+    // Reading the last known location is cheap; shouldRepublish decides what gets written
+    public static final long PUBLISH_CHECK_INTERVAL_MS = 5 * 60 * 1000;
+
+    private LocationIndex() {
+    }
+
+    /**
+     * Publishes the device's last known location for {@code uid}, if the user opted in,
+     * location permission is granted and the entry is due for a refresh.
+     */
+    @SuppressLint("MissingPermission")
+    public static void publish(Context context, FirebaseFirestore firestore, String uid, Executor executor) {
+        if (!ScreenMonitorService.isAvailableAsResponder(context)) return;
+        if (ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED
+                && ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_COARSE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
+            return;
+        }
+        LocationServices.getFusedLocationProviderClient(context).getLastLocation()
+                .addOnSuccessListener(executor, location -> {
+                    // Checked again in case the user opted out while the fix was pending
+                    if (location != null && ScreenMonitorService.isAvailableAsResponder(context)) {
+                        publish(context, firestore, uid, location);
+                    }
+                });
+    }
+
+    private static void publish(Context context, FirebaseFirestore firestore, String uid, Location location) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        long now = System.currentTimeMillis();
+        double latitude = round(location.getLatitude());
+        double longitude = round(location.getLongitude());
+        if (uid.equals(preferences.getString("uid", null)) && !NearbyResponders.shouldRepublish(
+                Double.longBitsToDouble(preferences.getLong("latitude", 0)),
+                Double.longBitsToDouble(preferences.getLong("longitude", 0)),
+                preferences.getLong("published_at", 0), latitude, longitude, now)) {
+            return;
+        }
+        Map<String, Object> entry = new HashMap<>(8);
+        entry.put("geohash", GeoHash.encode(latitude, longitude, NearbyResponders.INDEX_PRECISION));
+        entry.put("latitude", latitude);
+        entry.put("longitude", longitude);
+        entry.put("updatedAt", FieldValue.serverTimestamp());
+        firestore.collection(COLLECTION).document(uid).set(entry)
+                .addOnSuccessListener(unused -> preferences.edit()
+                        .putString("uid", uid)
+                        .putLong("latitude", Double.doubleToRawLongBits(latitude))
+                        .putLong("longitude", Double.doubleToRawLongBits(longitude))
+                        .putLong("published_at", now)
+                        .apply())
+                .addOnFailureListener(e -> Log.w(TAG, "Location index update failed: " + e.getMessage()));
+    }
+
+    /**
+     * Deletes the entry for {@code uid} and forgets what was published, so nobody finds
+     * this device any more. Must run while {@code uid} is still signed in.
+     */
+    public static Task<Void> remove(Context context, FirebaseFirestore firestore, String uid) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().clear().apply();
+        return firestore.collection(COLLECTION).document(uid).delete()
+                .addOnFailureListener(e -> Log.w(TAG, "Location index removal failed: " + e.getMessage()));
+    }
+
+    /**
+     * Range query for every entry under {@code cell}, capped at
+     * {@link NearbyResponders#MAX_PER_CELL}.
+     */
+    public static Query cellQuery(FirebaseFirestore firestore, String cell) {
+        return firestore.collection(COLLECTION)
+                .orderBy("geohash")
+                .startAt(cell)
+                .endAt(cell + "\uf8ff")
+                .limit(NearbyResponders.MAX_PER_CELL);
+    }
+
+    /**
+     * The index entry as a candidate, or null if it is incomplete.
+     */
+    public static NearbyResponders.Candidate toCandidate(DocumentSnapshot document) {
+        Double latitude = document.getDouble("latitude");
+        Double longitude = document.getDouble("longitude");
+        Timestamp updatedAt = document.getTimestamp("updatedAt");
+        if (latitude == null || longitude == null || updatedAt == null) return null;
+        return new NearbyResponders.Candidate(document.getId(), latitude, longitude,
+                updatedAt.toDate().getTime());
+    }
+
+    private static double round(double coordinate) {
+        double scale = Math.pow(10, NearbyResponders.INDEX_COORDINATE_DECIMALS);
+        return Math.round(coordinate * scale) / scale;
+    }
+}
@@ -1,93 +1,162 @@
 package com.example.neighborhood_connect;
 
 import android.content.Intent;
-import android.content.IntentFilter;
-import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.Settings;
+
+import androidx.core.content.ContextCompat;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.List;
 
 import io.flutter.embedding.android.FlutterActivity;
 import io.flutter.embedding.engine.FlutterEngine;
+import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodChannel;
 
 public class MainActivity extends FlutterActivity {
-    private ScreenReceiver screenReceiver;
-    ScreenMonitorService screenMonitorService = new ScreenMonitorService();
+    private boolean firstFrameShown;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable firstFrameFallback = () -> {
+        if (!firstFrameShown) StartupOrchestrator.onFirstFrameMissed(this);
+    };
 
     private static final String CHANNEL = "com.example.neighborhood_connect/screen_events";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        StartupOrchestrator.onActivityCreate();
         super.onCreate(savedInstanceState);
+        if (savedInstanceState == null) openRequestedRoute(getIntent());
+        // Screen events are watched by SosMonitorModule alone; a second receiver here
+        // would run its own detector and trigger every SOS twice
+    }
+
+    @Override
+    protected void onNewIntent(Intent intent) {
+        super.onNewIntent(intent);
+        openRequestedRoute(intent);
+    }
 
-        // Initialize the screen receiver
-        screenReceiver = new ScreenReceiver();
+    // Notifications from the native services name the Flutter route they open
+    private void openRequestedRoute(Intent intent) {
+        String route = intent.getStringExtra("screen");
+        if (route == null) return;
+        intent.removeExtra("screen");
+        NativeEventStream.getInstance().emitOpenRoute(route);
+    }
 
-        // Check if monitoring is enabled and start the screen monitor service if so
-        boolean isScreenMonitoringEnabled = ScreenMonitorService.isSOSMonitoringEnabled(this);
-        Intent screenServiceIntent = new Intent(this, ScreenMonitorService.class);
-        if (isScreenMonitoringEnabled) {
-            startService(screenServiceIntent);
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Dart can stop before runApp (e.g. a permission was denied), and then no frame
+        // ever comes; the host must still start. Only armed while in the foreground,
+        // where starting a foreground service is allowed.
+        if (!firstFrameShown) {
+            handler.postDelayed(firstFrameFallback, StartupOrchestrator.FIRST_FRAME_FALLBACK_MS);
         }
+    }
+
+    @Override
+    protected void onPause() {
+        handler.removeCallbacks(firstFrameFallback);
+        super.onPause();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // Leaving the UI, not a configuration change: let the engine go with it
+        if (isFinishing()) StartupOrchestrator.releaseEngine();
+    }
 
-        // Start the NotificationListenerService so it runs continuously in the background.
-        // For API 26+ use startForegroundService.
-        Intent notificationServiceIntent = new Intent(this, NotificationListenerService.class);
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            startForegroundService(notificationServiceIntent);
-        } else {
-            startService(notificationServiceIntent);
+    @Override
+    public String getCachedEngineId() {
+        // Pre-warmed by the application when it was launched for UI
+        return StartupOrchestrator.ensureEngine(this);
+    }
+
+    @Override
+    public void onFlutterUiDisplayed() {
+        super.onFlutterUiDisplayed();
+        // Native services start only once the first frame is on screen
+        if (!firstFrameShown) {
+            firstFrameShown = true;
+            handler.removeCallbacks(firstFrameFallback);
+            StartupOrchestrator.onFirstFrame(this);
         }
     }
 
     @Override
     public void configureFlutterEngine(FlutterEngine flutterEngine) {
+        // A no-op for the cached engine; its plugins come from LazyPluginRegistrant
         super.configureFlutterEngine(flutterEngine);
         MethodChannel channel = new MethodChannel(
                 flutterEngine.getDartExecutor().getBinaryMessenger(),
                 CHANNEL
         );
-        ScreenMonitorService.methodChannel = channel; // Initialize static channel
+        // Native state and SOS progress are pushed to Dart rather than polled
+        new EventChannel(flutterEngine.getDartExecutor().getBinaryMessenger(), NativeEventStream.CHANNEL)
+                .setStreamHandler(NativeEventStream.getInstance());
 
         channel.setMethodCallHandler((call, result) -> {
             if (call.method.equals("toggleScreenEvent")) {
                 boolean enable = call.argument("enable");
                 // Update SharedPreferences when toggling the screen event monitoring
                 ScreenMonitorService.setSOSMonitoringStatus(this, enable);
-                // Start or stop the service based on the toggle
-                Intent serviceIntent = new Intent(this, ScreenMonitorService.class);
-                serviceIntent.putExtra("enable", enable);
-                if (enable) {
-                    startService(serviceIntent);
-                } else {
-                    stopService(serviceIntent);
-                }
+                // The host starts or stops the SOS module to match; the notification
+                // listener keeps running either way
+                StartupOrchestrator.startServiceHost(this);
                 result.success(null);
             } else if (call.method.equals("isScreenEventEnabled")) {
                 // Logic to check if screen event monitoring is enabled
                 boolean isEnabled = ScreenMonitorService.isScreenEventEnabled();
                 result.success(isEnabled);
+            } else if (call.method.equals("setAvailableAsResponder")) {
+                // Dart has already saved the preference; apply it to the index now
+                boolean available = call.argument("available");
+                FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+                if (user == null) {
+                    result.success(null);
+                } else if (available) {
+                    LocationIndex.publish(this, FirebaseFirestore.getInstance(), user.getUid(),
+                            ContextCompat.getMainExecutor(this));
+                    result.success(null);
+                } else {
+                    LocationIndex.remove(this, FirebaseFirestore.getInstance(), user.getUid())
+                            .addOnCompleteListener(task -> result.success(null));
+                }
+            } else if (call.method.equals("getSosReadiness")) {
+                result.success(SosReadiness.describe(SosReadiness.check(this)));
+            } else if (call.method.equals("getSosTraces")) {
+                result.success(SosTraceRecorder.getInstance(this).getTraces());
+            } else if (call.method.equals("getSosLatencyStats")) {
+                result.success(SosTraceRecorder.getInstance(this).getLatencyStats());
+            } else if (call.method.equals("getSosAdmissionStats")) {
+                result.success(SosAdmissionStats.get(this));
+            } else if (call.method.equals("getPressSourceStats")) {
+                result.success(SosPressInput.getInstance().getStats(this));
+            } else if (call.method.equals("openAccessibilitySettings")) {
+                // Accessibility services can only be enabled by the user, from system settings
+                startActivity(new Intent(Settings.ACTION_ACCESSIBILITY_SETTINGS));
+                result.success(null);
+            } else if (call.method.equals("getServiceHostStats")) {
+                result.success(ScreenMonitorService.getHostStats(this));
+            } else if (call.method.equals("getStartupStats")) {
+                result.success(StartupOrchestrator.getStartupStats(this));
+            } else if (call.method.equals("ensurePlugins")) {
+                List<String> names = call.argument("names");
+                result.success(LazyPluginRegistrant.ensure(flutterEngine, names));
+            } else if (call.method.equals("getPluginRegistrationReport")) {
+                result.success(LazyPluginRegistrant.getReport());
             } else {
                 result.notImplemented();
             }
         });
     }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // Register the receiver to listen for screen on/off events
-        IntentFilter filter = new IntentFilter();
-        filter.addAction(Intent.ACTION_SCREEN_ON);
-        filter.addAction(Intent.ACTION_SCREEN_OFF);
-        registerReceiver(screenReceiver, filter);
-    }
-
-    @Override
-    protected void onPause() {
-        super.onPause();
-        // Unregister the receiver
-        if (screenReceiver != null) {
-            unregisterReceiver(screenReceiver);
-        }
-    }
 }
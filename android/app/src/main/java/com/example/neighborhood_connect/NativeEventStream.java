@@ -0,0 +1,122 @@
+package com.example.neighborhood_connect;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.flutter.plugin.common.EventChannel;
+
+/**
+ * Pushes native state to Dart over the {@link #CHANNEL} EventChannel: monitoring state
+ * changes, press-gesture progress, SOS trace marks and routes to open. Each event is a map with a
+ * {@code type} and {@code atWallMs}.
+ *
+ * Events can be emitted from any thread; they are delivered on the main thread. While
+ * no Dart listener is attached they are kept in a {@link PendingEvents} buffer of
+ * {@link #MAX_PENDING} and replayed on the next listen, preceded by a {@code dropped}
+ * event if the buffer overflowed. Gesture progress is the exception: it is only worth
+ * showing live, so it is dropped rather than buffered.
+ */
+public class NativeEventStream implements EventChannel.StreamHandler, SosTrace.Listener {
+    private static final String TAG = "NativeEventStream";
+    public static final String CHANNEL = "com.example.neighborhood_connect/native_events";
+    static final int MAX_PENDING = 64;
+
+    private static NativeEventStream instance;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final PendingEvents<Map<String, Object>> pending = new PendingEvents<>(MAX_PENDING);
+    // Only touched on the main thread
+    private EventChannel.EventSink sink;
+
+    public static synchronized NativeEventStream getInstance() {
+        if (instance == null) {
+            instance = new NativeEventStream();
+        }
+        return instance;
+    }
+
+    private NativeEventStream() {
+    }
+
+    @Override
+    public void onListen(Object arguments, EventChannel.EventSink events) {
+        sink = events;
+        int dropped = pending.getDropped();
+        List<Map<String, Object>> buffered = pending.drain();
+        if (dropped > 0) {
+            Map<String, Object> event = event("dropped");
+            event.put("count", dropped);
+            sink.success(event);
+        }
+        for (Map<String, Object> event : buffered) {
+            sink.success(event);
+        }
+        Log.d(TAG, "Listener attached, replayed " + buffered.size() + " buffered events");
+    }
+
+    @Override
+    public void onCancel(Object arguments) {
+        sink = null;
+    }
+
+    public void emitMonitoring(boolean enabled, List<String> modules) {
+        Map<String, Object> event = event("monitoring");
+        event.put("enabled", enabled);
+        event.put("modules", modules);
+        emit(event);
+    }
+
+    /**
+     * Asks Dart to push the named route, e.g. from a tapped notification. Buffered
+     * like other events, so one sent before the UI listens is still opened.
+     */
+    public void emitOpenRoute(String route) {
+        Map<String, Object> event = event("open");
+        event.put("route", route);
+        emit(event);
+    }
+
+    /**
+     * Call on the main thread. Does nothing, and allocates nothing, while no Dart
+     * listener is attached.
+     */
+    public void emitGesture(int presses, int required) {
+        if (sink == null) return;
+        Map<String, Object> event = event("gesture");
+        event.put("presses", presses);
+        event.put("required", required);
+        emit(event);
+    }
+
+    @Override
+    public void onMark(SosTrace trace, TracePoint point, long offsetMs, int detail) {
+        Map<String, Object> event = event("sos");
+        event.put("sosId", trace.getId());
+        event.put("point", point.name());
+        event.put("offsetMs", offsetMs);
+        event.put("detail", detail);
+        emit(event);
+    }
+
+    private void emit(Map<String, Object> event) {
+        mainHandler.post(() -> {
+            if (sink != null) {
+                sink.success(event);
+            } else {
+                pending.add(event);
+            }
+        });
+    }
+
+    private static Map<String, Object> event(String type) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", type);
+        event.put("atWallMs", System.currentTimeMillis());
+        return event;
+    }
+}
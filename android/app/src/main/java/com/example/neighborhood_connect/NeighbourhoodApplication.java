@@ -0,0 +1,15 @@
+package com.example.neighborhood_connect;
+
+import android.app.Application;
+
+/**
+ * Starts warming the Flutter engine as soon as the process exists, but only when the
+ * process was started to show UI; see {@link StartupOrchestrator}.
+ */
+public class NeighbourhoodApplication extends Application {
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        StartupOrchestrator.onApplicationCreate(this);
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.neighborhood_connect;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.service.notification.StatusBarNotification;
+import android.util.Log;
+
+import androidx.core.app.NotificationCompat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Posts local notifications for both services.
+ *
+ * Channels are created once, ids come from a counter under a per-process tag so they
+ * never collide, and bursts are debounced: everything posted to a group within its
+ * window is flushed as one InboxStyle summary plus at most
+ * {@link #MAX_CHILDREN_PER_FLUSH} children, instead of one notify() per item.
+ * NotificationManager calls are rate-limited; a flush that runs out of tokens is
+ * retried once one is available rather than dropped.
+ */
+public class NotificationDispatcher {
+    private static final String TAG = "NotificationDispatcher";
+    public static final String GROUP_SOS_STATUS = "sos_status";
+    public static final String GROUP_NEIGHBOUR_ALERTS = "neighbour_alerts";
+    public static final String GROUP_SOS_SETUP = "sos_setup";
+    public static final String CHANNEL_SOS_ALERTS = "sos_alerts";
+    public static final String CHANNEL_NEIGHBOUR_ALERTS = "notification_listener_channel";
+
+    static final int MAX_CHILDREN_PER_FLUSH = 3;
+    private static final int MAX_SUMMARY_LINES = 6;
+    private static final long NEIGHBOUR_DEBOUNCE_MS = 750;
+    // Android drops updates above roughly five per second per app; stay under it
+    private static final int NOTIFY_BURST = 4;
+    private static final long NOTIFY_REFILL_MS = 250;
+
+    private static NotificationDispatcher instance;
+
+    private final Context context;
+    private final NotificationManager notificationManager;
+    private final Handler handler;
+    private final TokenBucket notifyLimiter = new TokenBucket(NOTIFY_BURST, NOTIFY_REFILL_MS);
+    // Unique per process, so ids restarting at 1 never replace a notification still showing
+    private final String tag = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicInteger nextId = new AtomicInteger();
+    // Only written in the constructor, so callers may read it from any thread
+    private final Map<String, Group> groups = new HashMap<>();
+
+    public static synchronized NotificationDispatcher getInstance(Context context) {
+        if (instance == null) {
+            instance = new NotificationDispatcher(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private NotificationDispatcher(Context context) {
+        this.context = context;
+        notificationManager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        HandlerThread thread = new HandlerThread("notification-dispatch");
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        createChannels();
+        groups.put(GROUP_SOS_STATUS, new Group(GROUP_SOS_STATUS, CHANNEL_SOS_ALERTS, R.mipmap.ic_launcher,
+                "SOS Alert", 0, null));
+        groups.put(GROUP_SOS_SETUP, new Group(GROUP_SOS_SETUP, CHANNEL_SOS_ALERTS, R.mipmap.ic_launcher,
+                "SOS setup", 0, "/sos_setup"));
+        groups.put(GROUP_NEIGHBOUR_ALERTS, new Group(GROUP_NEIGHBOUR_ALERTS, CHANNEL_NEIGHBOUR_ALERTS,
+                android.R.drawable.ic_dialog_info, "New notifications", NEIGHBOUR_DEBOUNCE_MS, "/notifications"));
+    }
+
+    /**
+     * Queues a notification in {@code group}; it is shown when the group's debounce
+     * window closes.
+     */
+    public void post(String group, String title, String message) {
+        Group target = groups.get(group);
+        if (target == null) throw new IllegalArgumentException("Unknown notification group: " + group);
+        handler.post(() -> {
+            target.pending.add(new String[]{
+                    title != null ? title : "New Notification",
+                    message != null ? message : "You have a new notification!"});
+            if (!target.flushScheduled) {
+                target.flushScheduled = true;
+                handler.postDelayed(() -> flush(target), target.debounceMs);
+            }
+        });
+    }
+
+    private void flush(Group group) {
+        long now = SystemClock.uptimeMillis();
+        long waitMs = notifyLimiter.msUntilAvailable(now);
+        if (waitMs > 0) {
+            handler.postDelayed(() -> flush(group), waitMs);
+            return;
+        }
+        group.flushScheduled = false;
+        List<String[]> items = new ArrayList<>(group.pending);
+        group.pending.clear();
+        if (items.isEmpty()) return;
+
+        if (!isGroupShowing(group)) {
+            group.total = 0;
+            group.lines.clear();
+        }
+        for (String[] item : items) {
+            group.total++;
+            group.lines.addFirst(item[0] + ": " + item[1]);
+            if (group.lines.size() > MAX_SUMMARY_LINES) group.lines.removeLast();
+        }
+
+        if (group.total == 1) {
+            // A lone notification needs no summary
+            notify(nextId.incrementAndGet(), child(group, items.get(0)).build());
+            return;
+        }
+        // Newest children first, leaving a token for the summary
+        int children = Math.min(items.size(), MAX_CHILDREN_PER_FLUSH);
+        for (int i = items.size() - 1; i >= items.size() - children; i--) {
+            if (notifyLimiter.available(now) <= 1) break;
+            notify(nextId.incrementAndGet(), child(group, items.get(i)).build());
+        }
+        notify(group.summaryId, summary(group).build());
+        Log.d(TAG, "Coalesced " + items.size() + " notification(s) into the " + group.key + " summary");
+    }
+
+    private void notify(int id, Notification notification) {
+        notifyLimiter.tryAcquire(SystemClock.uptimeMillis());
+        notificationManager.notify(tag, id, notification);
+    }
+
+    private boolean isGroupShowing(Group group) {
+        for (StatusBarNotification active : notificationManager.getActiveNotifications()) {
+            if (tag.equals(active.getTag()) && group.key.equals(active.getNotification().getGroup())) return true;
+        }
+        return false;
+    }
+
+    private NotificationCompat.Builder child(Group group, String[] item) {
+        return base(group)
+                .setContentTitle(item[0])
+                .setContentText(item[1])
+                .setGroup(group.key);
+    }
+
+    private NotificationCompat.Builder summary(Group group) {
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle();
+        for (String line : group.lines) {
+            style.addLine(line);
+        }
+        if (group.total > group.lines.size()) {
+            style.setSummaryText("+" + (group.total - group.lines.size()) + " more");
+        }
+        return base(group)
+                .setContentTitle(group.summaryTitle)
+                .setContentText(group.total + " new")
+                .setNumber(group.total)
+                .setStyle(style)
+                .setGroup(group.key)
+                .setGroupSummary(true)
+                .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_SUMMARY);
+    }
+
+    private NotificationCompat.Builder base(Group group) {
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, group.channelId)
+                .setSmallIcon(group.icon)
+                .setPriority(NotificationCompat.PRIORITY_HIGH)
+                .setAutoCancel(true);
+        if (group.screen != null) {
+            Intent intent = new Intent(context, MainActivity.class);
+            intent.putExtra("screen", group.screen);
+            intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+            // Extras do not tell PendingIntents apart; without its own request code each
+            // group's intent would replace the others' route
+            builder.setContentIntent(PendingIntent.getActivity(context, group.summaryId, intent,
+                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE));
+        }
+        return builder;
+    }
+
+    private void createChannels() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel sosAlerts = new NotificationChannel(CHANNEL_SOS_ALERTS, "SOS Alerts",
+                    NotificationManager.IMPORTANCE_HIGH);
+            NotificationChannel neighbourAlerts = new NotificationChannel(CHANNEL_NEIGHBOUR_ALERTS,
+                    "Notification Listener Channel", NotificationManager.IMPORTANCE_HIGH);
+            neighbourAlerts.setDescription("Channel for background notification listener");
+            notificationManager.createNotificationChannel(sosAlerts);
+            notificationManager.createNotificationChannel(neighbourAlerts);
+        }
+    }
+
+    /**
+     * Debounce state for one notification group; confined to the dispatcher thread.
+     */
+    private class Group {
+        final String key;
+        final String channelId;
+        final int icon;
+        final String summaryTitle;
+        final long debounceMs;
+        // Opened in the app when tapped; null for notifications with no action
+        final String screen;
+        final int summaryId = nextId.incrementAndGet();
+        final List<String[]> pending = new ArrayList<>();
+        final ArrayDeque<String> lines = new ArrayDeque<>();
+        int total;
+        boolean flushScheduled;
+
+        Group(String key, String channelId, int icon, String summaryTitle, long debounceMs,
+              String screen) {
+            this.key = key;
+            this.channelId = channelId;
+            this.icon = icon;
+            this.summaryTitle = summaryTitle;
+            this.debounceMs = debounceMs;
+            this.screen = screen;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.neighborhood_connect;
+
+import android.util.Log;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * Writes one SOS {@code notifications} document per recipient using chunked WriteBatch
+ * commits instead of one set() per recipient, with at most
+ * {@link BatchPlanner#MAX_IN_FLIGHT_BATCHES} commits outstanding.
+ *
+ * Document ids are {@code <sosId>_<recipientId>}, so a fan-out replayed from the
+ * journal overwrites the copies it already wrote instead of duplicating them.
+ */
+public class NotificationFanOut implements SosNotificationWriter {
+    private static final String TAG = "NotificationFanOut";
+
+    private final FirebaseFirestore firestore;
+    private final Executor callbackExecutor;
+    private final int batchSize;
+    private final int maxInFlight;
+
+    public NotificationFanOut(FirebaseFirestore firestore, Executor callbackExecutor) {
+        this(firestore, callbackExecutor, BatchPlanner.MAX_BATCH_OPS, BatchPlanner.MAX_IN_FLIGHT_BATCHES);
+    }
+
+    public NotificationFanOut(FirebaseFirestore firestore, Executor callbackExecutor, int batchSize,
+                              int maxInFlight) {
+        this.firestore = firestore;
+        this.callbackExecutor = callbackExecutor;
+        this.batchSize = Math.min(batchSize, BatchPlanner.MAX_BATCH_OPS);
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public Stage<FanOutResult> write(String senderId, List<String> recipientIds, String locationUrl,
+                                     SosTrace trace) {
+        List<List<String>> chunks = BatchPlanner.chunk(recipientIds, batchSize);
+        Stage<FanOutResult> result = new Stage<>();
+        if (chunks.isEmpty()) {
+            result.complete(new FanOutResult(0, 0, 0, 0, 0, null));
+            return result;
+        }
+        new Run(recipientIds.size(), chunks, senderId, locationUrl, trace, result).start();
+        return result;
+    }
+
+    /**
+     * One fan-out: feeds chunks into WriteBatch commits and aggregates the outcome.
+     */
+    private class Run {
+        private final int recipients;
+        private final int batches;
+        private final Queue<List<String>> pending;
+        private final String senderId;
+        private final String locationUrl;
+        private final SosTrace trace;
+        private final Stage<FanOutResult> result;
+        private final Timestamp timestamp = new Timestamp(new Date());
+        private int inFlight;
+        private int committed;
+        private int written;
+        private int failed;
+        private Throwable firstError;
+
+        Run(int recipients, List<List<String>> chunks, String senderId, String locationUrl,
+            SosTrace trace, Stage<FanOutResult> result) {
+            this.recipients = recipients;
+            this.batches = chunks.size();
+            this.pending = new ArrayDeque<>(chunks);
+            this.senderId = senderId;
+            this.locationUrl = locationUrl;
+            this.trace = trace;
+            this.result = result;
+        }
+
+        synchronized void start() {
+            while (inFlight < maxInFlight && !pending.isEmpty()) {
+                commit(pending.poll());
+            }
+        }
+
+        private void commit(List<String> chunk) {
+            inFlight++;
+            CollectionReference notifications = firestore.collection("notifications");
+            WriteBatch batch = firestore.batch();
+            for (String userId : chunk) {
+                batch.set(notifications.document(trace.getId() + "_" + userId),
+                        NotificationPayloads.sosNotification(userId, senderId, trace.getId(), locationUrl, timestamp));
+            }
+            batch.commit().addOnCompleteListener(callbackExecutor, task -> onCommitted(chunk.size(),
+                    task.isSuccessful() ? null : task.getException()));
+        }
+
+        private void onCommitted(int size, Exception error) {
+            FanOutResult finished = null;
+            synchronized (this) {
+                inFlight--;
+                committed++;
+                if (error == null) {
+                    written += size;
+                    trace.mark(TracePoint.FIRESTORE_COMMIT, size);
+                } else {
+                    failed += size;
+                    if (firstError == null) firstError = error;
+                    Log.e(TAG, "Notification batch of " + size + " failed: " + error.getMessage());
+                }
+                if (committed == batches) {
+                    finished = new FanOutResult(recipients, batches, recipients, written, failed, firstError);
+                } else {
+                    start();
+                }
+            }
+            if (finished != null) {
+                Log.d(TAG, "Fan-out finished: " + finished);
+                result.complete(finished);
+            }
+        }
+    }
+}
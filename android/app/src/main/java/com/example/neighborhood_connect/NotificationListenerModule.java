@@ -0,0 +1,137 @@
+package com.example.neighborhood_connect;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Surfaces notifications addressed to the signed-in user as local notifications,
+ * hosted by {@link ScreenMonitorService}.
+ *
+ * Both queries resume from the persisted cursor, so a restart only pulls and alerts
+ * documents that have not been shown. Snapshots are handled on the host's serial worker
+ * thread, which keeps cursor updates and the seen set ordered. While the listener runs
+ * it also keeps this user's entry in the {@link LocationIndex} current if they opted in
+ * as a responder, since only devices that can receive an alert are worth finding.
+ */
+@SuppressWarnings("unchecked")
+public class NotificationListenerModule implements ServiceModule {
+    private static final String TAG = "NotificationListener";
+
+    private final Context context;
+    private final FirebaseFirestore firestore;
+    private final Executor snapshotExecutor;
+    private final ServiceHost host;
+    private final String userId;
+    private IncrementalQueryListener notificationsListener;
+    private IncrementalQueryListener sosEventsListener;
+    private DeliveryAcker deliveryAcker;
+    private ScheduledFuture<?> locationPublisher;
+    private ScheduledFuture<?> activityRefresher;
+
+    public NotificationListenerModule(ServiceHost host, String userId) {
+        this.host = host;
+        this.userId = userId;
+        context = host.getContext();
+        firestore = host.getFirestore();
+        snapshotExecutor = host.getWorkerHandler()::post;
+    }
+
+    @Override
+    public String getName() {
+        return "notifications";
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    @Override
+    public void start() {
+        NotificationListenerState listenerState = new NotificationListenerState(context, userId);
+        deliveryAcker = new DeliveryAcker(firestore, host.getScheduler());
+
+        // Undelivered notifications; surfaced documents are acked as delivered, which
+        // drops them from the live result set. Needs the composite index in
+        // firestore.indexes.json; documents from before the flag get it backfilled.
+        DeliveredBackfill.runOnce(firestore, userId, listenerState,
+                listenerState.getCursor("notifications",
+                        System.currentTimeMillis() - IncrementalQueryListener.INITIAL_LOOKBACK_MS)
+                        - IncrementalQueryListener.CLOCK_SKEW_MS,
+                snapshotExecutor);
+        notificationsListener = new IncrementalQueryListener("notifications",
+                firestore.collection("notifications")
+                        .whereEqualTo("userId", userId)
+                        .whereEqualTo("delivered", false),
+                listenerState, snapshotExecutor, document -> {
+                    Log.d(TAG, "New notification: " + document.getId());
+                    recordDelivery("copies", document.getTimestamp("timestamp"));
+                    triggerLocalNotification(document.getString("title"), document.getString("message"));
+                    deliveryAcker.ack(document.getId());
+                });
+        notificationsListener.start();
+
+        // Shared SOS events (fan-out-on-read model) addressed to this user
+        sosEventsListener = new IncrementalQueryListener("sos_events",
+                firestore.collection("sos_events")
+                        .whereArrayContains("recipients", userId),
+                listenerState, snapshotExecutor, document -> {
+                    List<String> readBy = (List<String>) document.get("readBy");
+                    if (readBy != null && readBy.contains(userId)) return;
+                    Log.d(TAG, "New SOS event: " + document.getId());
+                    recordDelivery("event", document.getTimestamp("timestamp"));
+                    triggerLocalNotification(document.getString("title"), document.getString("message"));
+                });
+        sosEventsListener.start();
+        Log.d(TAG, "Listening for notifications for user: " + userId);
+
+        // Keep this device findable by SOS senders nearby, including after it moves;
+        // publish checks the opt-in each time, so toggling it needs no restart
+        locationPublisher = host.getScheduler().scheduleWithFixedDelay(
+                () -> LocationIndex.publish(context, firestore, userId, host.getTaskExecutor()),
+                0, LocationIndex.PUBLISH_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        // SOS senders skip accounts whose lastActive has gone stale
+        activityRefresher = host.getScheduler().scheduleWithFixedDelay(this::markActive,
+                0, AccountActivity.REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        notificationsListener.stop();
+        sosEventsListener.stop();
+        deliveryAcker.shutdown();
+        locationPublisher.cancel(false);
+        activityRefresher.cancel(false);
+        Log.d(TAG, "Notification listener stopped.");
+    }
+
+    // An update, not a merge: it must not create a users document for an account
+    // that has none, which would then look like a real recipient
+    private void markActive() {
+        firestore.collection("users").document(userId)
+                .update("lastActive", FieldValue.serverTimestamp())
+                .addOnFailureListener(e -> Log.w(TAG, "lastActive update failed: " + e.getMessage()));
+    }
+
+    private void recordDelivery(String model, @Nullable Timestamp sentAt) {
+        if (sentAt == null) return;
+        FanOutStats.recordDelivery(context, model, System.currentTimeMillis() - sentAt.toDate().getTime());
+    }
+
+    // Queues a local notification that opens the /notifications route when clicked;
+    // bursts are coalesced into one grouped summary by the dispatcher
+    private void triggerLocalNotification(@Nullable String title, @Nullable String message) {
+        host.getNotificationDispatcher().post(NotificationDispatcher.GROUP_NEIGHBOUR_ALERTS, title, message);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.neighborhood_connect;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Persisted resume state for the native notification listeners: the newest document
+ * timestamp each listener has surfaced, a bounded set of surfaced document ids and
+ * whether {@link DeliveredBackfill} has run. Reset whenever a different user signs in.
+ */
+public class NotificationListenerState {
+    private static final String PREFS_NAME = "notification_listener_state";
+    private static final String KEY_OWNER = "owner_uid";
+    private static final String KEY_SEEN = "seen_ids";
+    private static final String KEY_CURSOR_PREFIX = "cursor_";
+    private static final String KEY_DELIVERED_BACKFILLED = "delivered_backfilled";
+    static final int MAX_SEEN_IDS = 500;
+
+    private final SharedPreferences preferences;
+    private SeenIds seenIds;
+
+    public NotificationListenerState(Context context, String uid) {
+        preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        if (!uid.equals(preferences.getString(KEY_OWNER, null))) {
+            preferences.edit().clear().putString(KEY_OWNER, uid).apply();
+        }
+        seenIds = SeenIds.decode(preferences.getString(KEY_SEEN, null), MAX_SEEN_IDS);
+    }
+
+    public synchronized long getCursor(String listener, long defaultMs) {
+        return preferences.getLong(KEY_CURSOR_PREFIX + listener, defaultMs);
+    }
+
+    /**
+     * Records that {@code listener} surfaced a document stamped {@code timestampMs};
+     * the cursor only ever moves forward.
+     */
+    public synchronized void advanceCursor(String listener, long timestampMs) {
+        if (timestampMs > getCursor(listener, Long.MIN_VALUE)) {
+            preferences.edit().putLong(KEY_CURSOR_PREFIX + listener, timestampMs).apply();
+        }
+    }
+
+    /**
+     * Marks a document as surfaced; returns false if it already was.
+     */
+    public synchronized boolean markSeen(String listener, String documentId) {
+        return seenIds.add(listener + "/" + documentId);
+    }
+
+    public synchronized void saveSeen() {
+        preferences.edit().putString(KEY_SEEN, seenIds.encode()).apply();
+    }
+
+    public synchronized boolean isDeliveredBackfilled() {
+        return preferences.getBoolean(KEY_DELIVERED_BACKFILLED, false);
+    }
+
+    public synchronized void markDeliveredBackfilled() {
+        preferences.edit().putBoolean(KEY_DELIVERED_BACKFILLED, true).apply();
+    }
+}
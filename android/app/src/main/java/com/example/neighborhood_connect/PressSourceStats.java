@@ -0,0 +1,35 @@
+package com.example.neighborhood_connect;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Running counts of the {@link PressSourceComparison}, kept across processes so the
+ * missed-press figures cover more than the current run.
+ */
+public final class PressSourceStats {
+    private static final String PREFS_NAME = "press_source_stats";
+
+    private PressSourceStats() {
+    }
+
+    /**
+     * Stores the counts of a {@link PressSourceComparison#snapshot} of a comparison that
+     * was restored from here, so they are totals.
+     */
+    public static synchronized void save(Context context, long[] snapshot) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        preferences.edit()
+                .putLong("keyPresses", snapshot[0])
+                .putLong("broadcastPresses", snapshot[1])
+                .putLong("missedByKeys", snapshot[2])
+                .putLong("missedByBroadcasts", snapshot[3])
+                .apply();
+    }
+
+    public static synchronized void restoreInto(Context context, PressSourceComparison comparison) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        comparison.restore(preferences.getLong("keyPresses", 0), preferences.getLong("broadcastPresses", 0),
+                preferences.getLong("missedByKeys", 0), preferences.getLong("missedByBroadcasts", 0));
+    }
+}
@@ -1,147 +1,287 @@
 package com.example.neighborhood_connect;
 
-import android.Manifest;
+import android.app.ActivityManager;
+import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.Service;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.SharedPreferences;
-import android.content.pm.PackageManager;
-import android.location.Location;
+import android.content.pm.ServiceInfo;
 import android.os.Build;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.IBinder;
-import android.os.Looper;
-import android.telephony.SmsManager;
+import android.os.Process;
+import android.os.SystemClock;
+import android.text.TextUtils;
 import android.util.Log;
 
 import androidx.core.app.NotificationCompat;
-import androidx.core.content.ContextCompat;
+import androidx.core.app.ServiceCompat;
 
-import com.google.android.gms.location.FusedLocationProviderClient;
-import com.google.android.gms.location.LocationCallback;
-import com.google.android.gms.location.LocationRequest;
-import com.google.android.gms.location.LocationResult;
-import com.google.android.gms.location.LocationServices;
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
 
-import io.flutter.plugin.common.MethodChannel;
-
-import java.util.List;
-
-import com.google.firebase.firestore.DocumentReference;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Date;
-import com.google.firebase.Timestamp;
-
-@SuppressWarnings({"deprecation", "unchecked"})
-public class ScreenMonitorService extends Service {
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * The app's single foreground service. It hosts SOS monitoring and the notification
+ * listener as {@link ServiceModule}s that share one foreground notification, one worker
+ * thread, one task pool, one scheduler and one Firestore instance.
+ *
+ * Every start command reconciles the running modules with the current state: SOS
+ * monitoring runs while it is enabled in settings, the listener while a user is
+ * signed in. The service stops itself once neither is needed.
+ *
+ * SOS triggers go through {@link SosAdmission} first: a trigger during a run joins
+ * it, and new runs are rate-limited, so repeated presses never send duplicate SMS
+ * or fan-out writes. Suppressed triggers are counted in {@link SosAdmissionStats}.
+ */
+public class ScreenMonitorService extends Service implements ServiceHost {
     private static final String TAG = "ScreenMonitorService";
-    private ScreenReceiver screenReceiver;
+    public static final String ACTION_TRIGGER_SOS = "ACTION_TRIGGER_SOS";
     private static boolean isScreenEventEnabled = false;
-    public static MethodChannel methodChannel;
-    private FusedLocationProviderClient fusedLocationClient;
-    private LocationCallback locationCallback;
-    private static final int SMS_PERMISSION_REQUEST_CODE = 1;
+    private static final String CHANNEL_ID = "screen_monitor_service";
+    private static final int FOREGROUND_NOTIFICATION_ID = 1;
+    private static final int TASK_THREADS = 2;
+    private static final int TASK_QUEUE_CAPACITY = 64;
+    // Names of the running modules, for the stats call from the UI
+    private static volatile List<String> runningModules = new ArrayList<>();
+
+    private HandlerThread workerThread;
+    private Handler workerHandler;
+    private ExecutorService taskExecutor;
+    private ScheduledExecutorService scheduler;
+    private FirebaseFirestore firestore;
+    private NotificationDispatcher notificationDispatcher;
+    private NotificationManager notificationManager;
+    private SosMonitorModule sosModule;
+    private NotificationListenerModule listenerModule;
+    // Confined to the worker thread
+    private SosAdmission admission;
+    // Insertion-ordered so the notification text and stats are stable
+    private final Map<String, ServiceModule> running = new LinkedHashMap<>();
+    // Foreground service types last passed to startForeground
+    private int foregroundTypes = -1;
+    // Swaps or stops the listener when the user signs in or out while the host runs
+    private final FirebaseAuth.AuthStateListener authListener = auth -> {
+        FirebaseUser user = auth.getCurrentUser();
+        String uid = user != null ? user.getUid() : null;
+        String listening = listenerModule != null ? listenerModule.getUserId() : null;
+        if (Objects.equals(uid, listening)) return;
+        reconcileModules();
+        if (running.isEmpty()) {
+            Log.d(TAG, "Signed out and no module needs the host. Stopping service.");
+            stopForeground(true);
+            stopSelf();
+        }
+    };
 
     @Override
     public void onCreate() {
         super.onCreate();
+        notificationManager = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
         startForeground();
-        registerScreenReceiver();
-
-        // Initialize fused location provider
-        fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
-
+        ThreadChecks.init(this);
+        workerThread = new HandlerThread("sos-worker");
+        workerThread.start();
+        workerHandler = new Handler(workerThread.getLooper());
+        taskExecutor = SosExecutors.bounded("sos-task", TASK_THREADS, TASK_QUEUE_CAPACITY);
+        scheduler = Executors.newSingleThreadScheduledExecutor(SosExecutors.named("sos-timeout"));
+        firestore = FirebaseFirestore.getInstance();
+        notificationDispatcher = NotificationDispatcher.getInstance(this);
+        FirebaseAuth.getInstance().addAuthStateListener(authListener);
         Log.d(TAG, "Service created and foreground notification started.");
     }
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         // Check for a specific SOS trigger action
-        if (intent != null && "ACTION_TRIGGER_SOS".equals(intent.getAction())) {
+        if (intent != null && ACTION_TRIGGER_SOS.equals(intent.getAction())) {
             Log.d(TAG, "Handling SOS trigger");
-            onScreenEvent();
+            // A trigger may be what starts the host, so bring up the other modules too
+            reconcileModules();
+            SosMonitorModule module = startModule(getSosModule());
+            workerHandler.post(() -> admitTrigger(module));
             return START_STICKY;
         }
 
-        boolean enableMonitoring = isSOSMonitoringEnabled(this);
-
-        if (enableMonitoring) {
-            isScreenEventEnabled = true;
-            Log.d(TAG, "SOS monitoring enabled.");
-        } else {
-            isScreenEventEnabled = false;
-            Log.d(TAG, "SOS monitoring disabled. Unregistering receiver and stopping service.");
-            unregisterScreenReceiver();
+        reconcileModules();
+        if (running.isEmpty()) {
+            Log.d(TAG, "No module needs the host. Stopping service.");
             stopForeground(true);
             stopSelf();
+            return START_NOT_STICKY;
         }
-
+        // Picks up location permission granted since the types were last set
+        if (foregroundServiceTypes() != foregroundTypes) startForegroundWithTypes(foregroundServiceTypes());
         return START_STICKY;
     }
 
-    private void unregisterScreenReceiver() {
-        try {
-            if (screenReceiver != null) {
-                unregisterReceiver(screenReceiver);
-                screenReceiver = null;
-                Log.d(TAG, "Screen event monitoring stopped.");
-            }
-        } catch (Exception e) {
-            String errorMsg = "Error unregistering receiver: " + e.getMessage();
-            Log.e(TAG, errorMsg);
+    private void reconcileModules() {
+        isScreenEventEnabled = isSOSMonitoringEnabled(this);
+        if (isScreenEventEnabled) {
+            startModule(getSosModule());
+        } else if (sosModule != null) {
+            stopModule(sosModule);
+        }
+
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        String uid = user != null ? user.getUid() : null;
+        if (listenerModule != null && !listenerModule.getUserId().equals(uid)) {
+            stopModule(listenerModule);
+            listenerModule = null;
+        }
+        if (uid != null) {
+            if (listenerModule == null) listenerModule = new NotificationListenerModule(this, uid);
+            startModule(listenerModule);
+        } else {
+            Log.d(TAG, "No authenticated user; notification listener not started.");
         }
     }
 
-    private void startForeground() {
-        String channelId = "screen_monitor_service";
-        String channelName = "Screen Monitor Service";
-        int notificationId = 1;
+    private void admitTrigger(SosMonitorModule module) {
+        int burst = getTriggerBurst(this);
+        long cooldownMs = getTriggerCooldownMs(this);
+        // New settings apply from the next run; the in-flight one keeps its admission
+        if (admission == null || (!admission.isInFlight() && !admission.hasSettings(burst, cooldownMs))) {
+            admission = new SosAdmission(burst, cooldownMs);
+        }
+        SosAdmission current = admission;
+        long now = SystemClock.elapsedRealtime();
+        SosAdmission.Decision decision = current.admit(now);
+        SosAdmissionStats.record(this, decision);
+        switch (decision) {
+            case START:
+                module.trigger().addListener(done -> workerHandler.post(() -> {
+                    int attached = current.finish();
+                    if (attached > 0) Log.d(TAG, attached + " trigger(s) attached to the finished SOS");
+                }));
+                break;
+            case ATTACH:
+                Log.d(TAG, "SOS in flight; trigger attached to it");
+                module.attachTrigger();
+                break;
+            case THROTTLE:
+                long waitS = (current.msUntilAdmitted(now) + 999) / 1000;
+                Log.w(TAG, "SOS trigger throttled; next one admitted in " + waitS + " s");
+                notificationDispatcher.post(NotificationDispatcher.GROUP_SOS_STATUS, "SOS Alert",
+                        "SOS was sent moments ago. Another can be sent in " + waitS + " s.");
+                break;
+        }
+    }
 
-        NotificationManager notificationManager = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
+    private SosMonitorModule getSosModule() {
+        if (sosModule == null) sosModule = new SosMonitorModule(this);
+        return sosModule;
+    }
+
+    private <M extends ServiceModule> M startModule(M module) {
+        if (running.containsKey(module.getName())) return module;
+        module.start();
+        running.put(module.getName(), module);
+        onModulesChanged();
+        return module;
+    }
 
+    private void stopModule(ServiceModule module) {
+        if (running.remove(module.getName()) == null) return;
+        module.stop();
+        onModulesChanged();
+    }
+
+    private void onModulesChanged() {
+        runningModules = new ArrayList<>(running.keySet());
+        Log.d(TAG, "Running modules: " + runningModules);
+        NativeEventStream.getInstance().emitMonitoring(running.containsKey("sos"), runningModules);
+        if (running.isEmpty()) return;
+        int types = foregroundServiceTypes();
+        if (types != foregroundTypes) {
+            // Calling startForeground again swaps the types of the running service
+            startForegroundWithTypes(types);
+        } else {
+            notificationManager.notify(FOREGROUND_NOTIFICATION_ID, buildForegroundNotification());
+        }
+    }
+
+    /**
+     * The foreground service types the running modules need. The listener and SOS
+     * texts are messaging; the location type is only claimed while SOS runs and location
+     * may be read from the background, since Android 14 refuses it otherwise.
+     */
+    private int foregroundServiceTypes() {
+        int types = ServiceInfo.FOREGROUND_SERVICE_TYPE_REMOTE_MESSAGING;
+        if (running.containsKey("sos") && SosReadiness.canLocateInBackground(SosReadiness.check(this))) {
+            types |= ServiceInfo.FOREGROUND_SERVICE_TYPE_LOCATION;
+        }
+        return types;
+    }
+
+    private void startForegroundWithTypes(int types) {
+        ServiceCompat.startForeground(this, FOREGROUND_NOTIFICATION_ID, buildForegroundNotification(), types);
+        foregroundTypes = types;
+    }
+
+    private void startForeground() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             NotificationChannel channel = new NotificationChannel(
-                    channelId,
-                    channelName,
+                    CHANNEL_ID,
+                    "Screen Monitor Service",
                     NotificationManager.IMPORTANCE_LOW
             );
             notificationManager.createNotificationChannel(channel);
         }
-
-        NotificationCompat.Builder builder = new NotificationCompat.Builder(this, channelId)
-                .setSmallIcon(R.mipmap.ic_launcher)
-                .setContentTitle("SOS is enabled")
-                .setContentText("Monitoring SOS enabled!")
-                .setPriority(NotificationCompat.PRIORITY_LOW)
-                .setAutoCancel(true);
-
-        startForeground(notificationId, builder.build());
+        startForegroundWithTypes(foregroundServiceTypes());
         Log.d(TAG, "Foreground notification started.");
     }
 
-    private void registerScreenReceiver() {
-        screenReceiver = new ScreenReceiver();
-        IntentFilter filter = new IntentFilter();
-        filter.addAction(Intent.ACTION_SCREEN_ON);
-        filter.addAction(Intent.ACTION_SCREEN_OFF);
-        registerReceiver(screenReceiver, filter);
-        Log.d(TAG, "ScreenReceiver registered.");
+    private Notification buildForegroundNotification() {
+        boolean sos = running.containsKey("sos");
+        boolean listening = running.containsKey("notifications");
+        String text;
+        if (sos && listening) {
+            text = "Monitoring SOS and listening for notifications";
+        } else if (sos) {
+            text = "Monitoring SOS enabled!";
+        } else {
+            text = "Listening for new notifications...";
+        }
+        return new NotificationCompat.Builder(this, CHANNEL_ID)
+                .setSmallIcon(R.mipmap.ic_launcher)
+                .setContentTitle(sos ? "SOS is enabled" : "Neighbourhood Connect")
+                .setContentText(text)
+                .setPriority(NotificationCompat.PRIORITY_LOW)
+                .setOnlyAlertOnce(true)
+                .build();
     }
 
     @Override
     public void onDestroy() {
         super.onDestroy();
+        FirebaseAuth.getInstance().removeAuthStateListener(authListener);
         try {
-            unregisterReceiver(screenReceiver);
-            // Also remove any pending location updates
-            if (fusedLocationClient != null && locationCallback != null) {
-                fusedLocationClient.removeLocationUpdates(locationCallback);
+            for (ServiceModule module : new ArrayList<>(running.values())) {
+                stopModule(module);
             }
-            Log.d(TAG, "Service destroyed and receiver unregistered.");
+            if (sosModule != null) sosModule.release();
+            workerHandler.removeCallbacksAndMessages(null);
+            workerThread.quitSafely();
+            taskExecutor.shutdown();
+            scheduler.shutdownNow();
+            Log.d(TAG, "Service destroyed and modules stopped.");
         } catch (Exception e) {
             String errorMsg = "Error during service destruction: " + e.getMessage();
             Log.e(TAG, errorMsg);
@@ -153,12 +293,54 @@ public class ScreenMonitorService extends Service {
         return null;
     }
 
-    public static boolean isScreenEventEnabled() {
-        return isScreenEventEnabled;
+    @Override
+    public Context getContext() {
+        return this;
     }
 
-    public static MethodChannel getMethodChannel() {
-        return methodChannel;
+    @Override
+    public FirebaseFirestore getFirestore() {
+        return firestore;
+    }
+
+    @Override
+    public Handler getWorkerHandler() {
+        return workerHandler;
+    }
+
+    @Override
+    public ExecutorService getTaskExecutor() {
+        return taskExecutor;
+    }
+
+    @Override
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public NotificationDispatcher getNotificationDispatcher() {
+        return notificationDispatcher;
+    }
+
+    /**
+     * Footprint of the app process with the host's running modules: total PSS in KB
+     * (what {@code dumpsys meminfo} reports) and live thread count. Compare before and
+     * after toggling a module to see what it costs.
+     */
+    public static Map<String, Object> getHostStats(Context context) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("modules", TextUtils.join(",", runningModules));
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        Debug.MemoryInfo[] memoryInfo = activityManager.getProcessMemoryInfo(new int[]{Process.myPid()});
+        stats.put("totalPssKb", memoryInfo.length > 0 ? memoryInfo[0].getTotalPss() : 0);
+        String[] threads = new File("/proc/self/task").list();
+        stats.put("threads", threads != null ? threads.length : Thread.activeCount());
+        return stats;
+    }
+
+    public static boolean isScreenEventEnabled() {
+        return isScreenEventEnabled;
     }
 
     public static boolean isSOSMonitoringEnabled(Context context) {
@@ -175,178 +357,77 @@ public class ScreenMonitorService extends Service {
     }
 
     /**
-     * This method now initiates the SMS sending flow first and then, once done,
-     * sends the SOS notification.
+     * The press gesture that triggers an SOS, configurable from Dart through
+     * shared_preferences (which stores ints as longs). Defaults to 5 presses in 3 s.
      */
-    private void onScreenEvent() {
-        Log.d(TAG, "Handling screen event for SOS");
-        sendSMSAndThenNotify();
+    public static PressPattern getPressPattern(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences("FlutterSharedPreferences", Context.MODE_PRIVATE);
+        PressPattern defaults = PressPattern.DEFAULT;
+        try {
+            return new PressPattern(
+                    (int) preferences.getLong("flutter.sosPressCount", defaults.presses),
+                    preferences.getLong("flutter.sosPressWindowMs", defaults.windowMs),
+                    preferences.getLong("flutter.sosPressMinGapMs", defaults.minGapMs),
+                    preferences.getLong("flutter.sosPressMaxGapMs", defaults.maxGapMs),
+                    preferences.getLong("flutter.sosPressCancelPauseMs", defaults.cancelPauseMs));
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Invalid SOS press pattern, using default: " + e.getMessage());
+            return defaults;
+        }
     }
 
     /**
-     * Sends the SMS messages by retrieving the phone numbers from Firebase.
-     * Once the process (or attempted process) is complete, the SOS notification is sent.
+     * Where SOS button presses come from: {@link SosPressInput#SOURCE_BROADCAST}
+     * (default) or {@link SosPressInput#SOURCE_ACCESSIBILITY}.
      */
-    private void sendSMSAndThenNotify() {
-        sendNotification("SOS Alert", "Generating SOS alert!");
-        FirebaseAuth auth = FirebaseAuth.getInstance();
-        FirebaseFirestore firestore = FirebaseFirestore.getInstance();
-
-        String userId = auth.getCurrentUser() != null ? auth.getCurrentUser().getUid() : null;
-        if (userId != null) {
-            Log.d(TAG, "Fetching phone numbers for user ID: " + userId);
-
-            firestore.collection("phone_numbers")
-                    .document(userId)
-                    .get()
-                    .addOnSuccessListener(documentSnapshot -> {
-                        if (documentSnapshot.exists()) {
-                            List<String> phoneNumbers = (List<String>) documentSnapshot.get("numbers");
-                            if (phoneNumbers != null && !phoneNumbers.isEmpty()) {
-                                Log.d(TAG, "Phone numbers fetched: " + phoneNumbers);
-                                getCurrentLocationAndSendSMS(phoneNumbers, (locationUrl) -> {
-                                    sendNotification("SOS Alert", "SOS alert generated successfully!");
-                                    saveNotificationsForUsers(userId, locationUrl);
-                                });
-                            } else {
-                                Log.d(TAG, "No phone numbers found.");
-                            }
-                        } else {
-                            Log.d(TAG, "No document found for user ID: " + userId);
-                        }
-                    })
-                    .addOnFailureListener(e -> Log.e(TAG, "Error fetching phone numbers: " + e.getMessage()));
-        } else {
-            Log.d(TAG, "No logged-in user found.");
-        }
+    public static String getPressSource(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences("FlutterSharedPreferences", Context.MODE_PRIVATE);
+        return preferences.getString("flutter.sosPressSource", SosPressInput.SOURCE_BROADCAST);
     }
 
     /**
-     * Requests the current location using FusedLocationProviderClient and then sends SMS to each phone number.
-     * Once the SMS process is triggered (or if location permissions are missing), the provided callback is invoked.
+     * SOS runs allowed back to back before the cooldown applies (default 3), and the
+     * cooldown that refills one of them (ms, default 60 s).
      */
-    private void getCurrentLocationAndSendSMS(List<String> phoneNumbers, LocationCallbackInterface callback) {
-        if (ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED ||
-                ContextCompat.checkSelfPermission(this, Manifest.permission.SEND_SMS) != PackageManager.PERMISSION_GRANTED) {
-            Intent intent = new Intent(this, MainActivity.class);
-            intent.putExtra("request_permission", true);
-            intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
-            startActivity(intent);
-            Log.e(TAG, "Required permissions (Location/SMS) not granted. Cannot send SMS.");
-            return;
-        }
-
-        LocationRequest locationRequest = LocationRequest.create();
-        locationRequest.setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY);
-        locationRequest.setInterval(5000);
-        locationRequest.setFastestInterval(3000);
-        locationRequest.setNumUpdates(1);
-
-        locationCallback = new LocationCallback() {
-            @Override
-            public void onLocationResult(LocationResult locationResult) {
-                if (locationResult == null) {
-                    callback.onLocationReceived(null);
-                    return;
-                }
-                Location location = locationResult.getLastLocation();
-                String locationUrl = "https://www.google.com/maps?q=" + location.getLatitude() + "," + location.getLongitude();
-                Log.d(TAG, "Location received: " + locationUrl);
-
-                for (String phoneNumber : phoneNumbers) {
-                    sendSMSToNumber(phoneNumber, locationUrl);
-                }
-                callback.onLocationReceived(locationUrl);
-            }
-        };
-
-        fusedLocationClient.requestLocationUpdates(locationRequest, locationCallback, Looper.getMainLooper());
+    public static int getTriggerBurst(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences("FlutterSharedPreferences", Context.MODE_PRIVATE);
+        return (int) Math.max(1, preferences.getLong("flutter.sosTriggerBurst", SosAdmission.DEFAULT_BURST));
     }
 
-    private void sendSMSToNumber(String phoneNumber, String locationUrl) {
-        try {
-            SmsManager smsManager = SmsManager.getDefault();
-            String message = "SOS Alert! Please help. Current location: " + locationUrl;
-            smsManager.sendTextMessage(phoneNumber, null, message, null, null);
-            Log.d(TAG, "Message sent to: " + phoneNumber);
-        } catch (SecurityException e) {
-            String errorMsg = "SMS permission not granted for " + phoneNumber + ": " + e.getMessage();
-            Log.e(TAG, errorMsg);
-        } catch (Exception e) {
-            String errorMsg = "Failed to send SMS to " + phoneNumber + ": " + e.getMessage();
-            Log.e(TAG, errorMsg);
-        }
+    public static long getTriggerCooldownMs(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences("FlutterSharedPreferences", Context.MODE_PRIVATE);
+        return Math.max(1, preferences.getLong("flutter.sosTriggerCooldownMs", SosAdmission.DEFAULT_COOLDOWN_MS));
     }
 
     /**
-     * Simple callback interface to notify when an asynchronous task is complete.
+     * Feature flag for the fan-out-on-read model: one {@code sos_events} document with a
+     * recipients array instead of a {@code notifications} copy per recipient.
      */
-    private interface Callback {
-        void onComplete();
-    }
-
-    private void saveNotificationsForUsers(String currentUserId, String locationUrl) {
-        FirebaseFirestore firestore = FirebaseFirestore.getInstance();
-
-        firestore.collection("app_notify").document(currentUserId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        List<String> userIds = (List<String>) documentSnapshot.get("user_ids");
-                        if (userIds != null && !userIds.isEmpty()) {
-                            for (String userId : userIds) {
-                                createNotificationForUser(firestore, userId, locationUrl);
-                            }
-                        } else {
-                            Log.d(TAG, "No users found in app_notify for: " + currentUserId);
-                        }
-                    } else {
-                        Log.d(TAG, "No app_notify document found for user: " + currentUserId);
-                    }
-                })
-                .addOnFailureListener(e -> Log.e(TAG, "Error fetching app_notify users: " + e.getMessage()));
+    public static boolean isEventFanOutEnabled(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences("FlutterSharedPreferences", Context.MODE_PRIVATE);
+        return preferences.getBoolean("flutter.sosEventFanOut", false);
     }
 
-    private void createNotificationForUser(FirebaseFirestore firestore, String userId, String locationUrl) {
-        DocumentReference notificationRef = firestore.collection("notifications").document();
-
-        HashMap<String, Object> notificationData = new HashMap<>();
-        notificationData.put("read", false);
-        notificationData.put("message", "SOS Alert! Please help. Current location: " + locationUrl);
-        notificationData.put("timestamp", new Timestamp(new Date()));
-        notificationData.put("title", "SOS Alert!");
-        notificationData.put("userId", userId);
-
-        notificationRef.set(notificationData)
-                .addOnSuccessListener(aVoid -> Log.d(TAG, "Notification saved for user: " + userId))
-                .addOnFailureListener(e -> Log.e(TAG, "Error saving notification: " + e.getMessage()));
+    /**
+     * Opt-in live tracking after an SOS, and how long it runs (minutes, default 15).
+     */
+    public static boolean isLiveTrackingEnabled(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences("FlutterSharedPreferences", Context.MODE_PRIVATE);
+        return preferences.getBoolean("flutter.sosLiveTracking", false);
     }
 
-    private interface LocationCallbackInterface {
-        void onLocationReceived(String locationUrl);
+    public static long getLiveTrackingDurationMs(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences("FlutterSharedPreferences", Context.MODE_PRIVATE);
+        long minutes = preferences.getLong("flutter.sosTrackingMinutes", TrackSession.DEFAULT_DURATION_MS / 60_000);
+        return minutes * 60_000;
     }
 
     /**
-     * Helper method to send a notification with a given title and message.
+     * Opt-in to being found by SOS senders nearby, off by default. Only then does the
+     * device publish its location to the {@link LocationIndex}.
      */
-    private void sendNotification(String title, String message) {
-        int notificationId = (int) System.currentTimeMillis();
-        NotificationManager notificationManager = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
-        String channelId = "sos_alerts";
-        String channelName = "SOS Alerts";
-
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            NotificationChannel channel = new NotificationChannel(channelId, channelName, NotificationManager.IMPORTANCE_HIGH);
-            notificationManager.createNotificationChannel(channel);
-        }
-
-        NotificationCompat.Builder builder = new NotificationCompat.Builder(this, channelId)
-                .setSmallIcon(R.mipmap.ic_launcher)
-                .setContentTitle(title)
-                .setContentText(message)
-                .setPriority(NotificationCompat.PRIORITY_HIGH)
-                .setAutoCancel(true);
-
-        notificationManager.notify(notificationId, builder.build());
+    public static boolean isAvailableAsResponder(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences("FlutterSharedPreferences", Context.MODE_PRIVATE);
+        return preferences.getBoolean("flutter.sosAvailableAsResponder", false);
     }
 }
@@ -0,0 +1,30 @@
+package com.example.neighborhood_connect;
+
+import android.content.Context;
+import android.os.Handler;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Resources a {@link ServiceModule} borrows from the host. They outlive every module
+ * and must not be shut down by one.
+ */
+public interface ServiceHost {
+    Context getContext();
+
+    FirebaseFirestore getFirestore();
+
+    /** Serial worker thread for trigger handling, callbacks and ordered snapshot work. */
+    Handler getWorkerHandler();
+
+    /** Bounded pool for Firestore Task listeners. */
+    ExecutorService getTaskExecutor();
+
+    /** Timers: stage timeouts, debounced flushes. */
+    ScheduledExecutorService getScheduler();
+
+    NotificationDispatcher getNotificationDispatcher();
+}
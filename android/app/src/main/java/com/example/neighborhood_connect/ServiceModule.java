@@ -0,0 +1,16 @@
+package com.example.neighborhood_connect;
+
+/**
+ * A unit of background work run inside {@link ScreenMonitorService}. Modules share the
+ * host's foreground notification, threads and Firestore instance, and are started and
+ * stopped individually on the main thread.
+ */
+public interface ServiceModule {
+    /** Short name shown in the foreground notification and the host stats. */
+    String getName();
+
+    void start();
+
+    /** Undoes {@link #start}; the module may be started again afterwards. */
+    void stop();
+}
@@ -0,0 +1,220 @@
+package com.example.neighborhood_connect;
+
+import android.app.Activity;
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.telephony.SmsManager;
+import android.telephony.SmsMessage;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.core.content.ContextCompat;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends SOS texts from its own HandlerThread instead of the main thread.
+ *
+ * Messages are split with divideMessage and sent as multipart when they do not fit
+ * one SMS. Every part carries sent and delivery PendingIntents, so each recipient's
+ * outcome and latency is reported through {@link SmsSink.Callback}. Sends are spaced by
+ * {@link SmsSendPolicy#SEND_SPACING_MS} and failed sends are retried with backoff.
+ * All state is confined to the dispatcher thread.
+ */
+@SuppressWarnings("deprecation")
+public class SmsDispatcher implements SmsSink {
+    private static final String TAG = "SmsDispatcher";
+    private static final String ACTION_SENT = "com.example.neighborhood_connect.SMS_SENT";
+    private static final String ACTION_DELIVERED = "com.example.neighborhood_connect.SMS_DELIVERED";
+    private static final String EXTRA_SEND_ID = "send_id";
+    private static final String EXTRA_ATTEMPT = "attempt";
+
+    private final Context context;
+    private final HandlerThread thread;
+    private final Handler handler;
+    private final SparseArray<Send> sends = new SparseArray<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final AtomicInteger nextRequestCode = new AtomicInteger();
+    private long lastSendAt;
+
+    private final BroadcastReceiver receiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            Send send = sends.get(intent.getIntExtra(EXTRA_SEND_ID, -1));
+            if (send == null || intent.getIntExtra(EXTRA_ATTEMPT, -1) != send.attempts) return;
+            if (ACTION_SENT.equals(intent.getAction())) {
+                onPartSent(send, getResultCode());
+            } else {
+                onPartDelivered(send, intent);
+            }
+        }
+    };
+
+    public SmsDispatcher(Context context) {
+        this.context = context.getApplicationContext();
+        thread = new HandlerThread("sms-dispatch");
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(ACTION_SENT);
+        filter.addAction(ACTION_DELIVERED);
+        ContextCompat.registerReceiver(this.context, receiver, filter, null, handler,
+                ContextCompat.RECEIVER_NOT_EXPORTED);
+    }
+
+    /**
+     * Queues a text; it goes out no sooner than the pacing allows. Callbacks run on the
+     * dispatcher thread.
+     */
+    @Override
+    public void dispatch(String phoneNumber, String message, Callback callback) {
+        long enqueuedAt = SystemClock.elapsedRealtime();
+        handler.post(() -> {
+            Send send = new Send(nextId.incrementAndGet(), phoneNumber, message, callback, enqueuedAt);
+            sends.put(send.id, send);
+            schedule(send, SystemClock.uptimeMillis());
+        });
+    }
+
+    public void shutdown() {
+        try {
+            context.unregisterReceiver(receiver);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Receiver already unregistered: " + e.getMessage());
+        }
+        thread.quitSafely();
+    }
+
+    private void schedule(Send send, long earliestUptimeMs) {
+        long at = SmsSendPolicy.nextSendAt(earliestUptimeMs, lastSendAt);
+        lastSendAt = at;
+        handler.postAtTime(() -> attempt(send), at);
+    }
+
+    private void attempt(Send send) {
+        send.attempts++;
+        send.partsSent = 0;
+        send.partsDelivered = 0;
+        send.attemptFailed = false;
+        try {
+            SmsManager smsManager = SmsManager.getDefault();
+            ArrayList<String> parts = smsManager.divideMessage(send.message);
+            send.parts = parts.size();
+            ArrayList<PendingIntent> sentIntents = new ArrayList<>(parts.size());
+            ArrayList<PendingIntent> deliveredIntents = new ArrayList<>(parts.size());
+            for (int i = 0; i < parts.size(); i++) {
+                sentIntents.add(pendingIntent(ACTION_SENT, send));
+                deliveredIntents.add(pendingIntent(ACTION_DELIVERED, send));
+            }
+            if (parts.size() == 1) {
+                smsManager.sendTextMessage(send.phoneNumber, null, parts.get(0),
+                        sentIntents.get(0), deliveredIntents.get(0));
+            } else {
+                smsManager.sendMultipartTextMessage(send.phoneNumber, null, parts,
+                        sentIntents, deliveredIntents);
+            }
+            Log.d(TAG, "SMS to " + PhoneNumbers.redact(send.phoneNumber) + " queued in " + parts.size()
+                    + " part(s), attempt " + send.attempts);
+        } catch (SecurityException e) {
+            // Retrying cannot help without the permission
+            Log.e(TAG, "SMS permission not granted for " + PhoneNumbers.redact(send.phoneNumber) + ": "
+                    + e.getMessage());
+            fail(send, SmsManager.RESULT_ERROR_GENERIC_FAILURE);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to send SMS to " + PhoneNumbers.redact(send.phoneNumber) + ": " + e.getMessage());
+            onAttemptFailed(send, SmsManager.RESULT_ERROR_GENERIC_FAILURE);
+        }
+    }
+
+    private PendingIntent pendingIntent(String action, Send send) {
+        Intent intent = new Intent(action)
+                .setPackage(context.getPackageName())
+                .putExtra(EXTRA_SEND_ID, send.id)
+                .putExtra(EXTRA_ATTEMPT, send.attempts);
+        int flags = PendingIntent.FLAG_UPDATE_CURRENT;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            // The radio fills in the "pdu" and "format" extras of the delivery report,
+            // which an immutable intent would drop; setPackage keeps it explicit
+            flags |= PendingIntent.FLAG_MUTABLE;
+        }
+        return PendingIntent.getBroadcast(context, nextRequestCode.incrementAndGet(), intent, flags);
+    }
+
+    private void onPartSent(Send send, int resultCode) {
+        if (send.attemptFailed) return;
+        if (resultCode != Activity.RESULT_OK) {
+            send.attemptFailed = true;
+            onAttemptFailed(send, resultCode);
+            return;
+        }
+        if (++send.partsSent < send.parts) return;
+        long latencyMs = SystemClock.elapsedRealtime() - send.enqueuedAt;
+        Log.d(TAG, "SMS to " + PhoneNumbers.redact(send.phoneNumber) + " sent in " + latencyMs + " ms");
+        send.callback.onSent(latencyMs, send.attempts);
+        handler.postDelayed(() -> sends.remove(send.id), SmsSendPolicy.DELIVERY_REPORT_TIMEOUT_MS);
+    }
+
+    private void onPartDelivered(Send send, Intent intent) {
+        byte[] pdu = intent.getByteArrayExtra("pdu");
+        if (pdu == null) return;
+        SmsMessage report = SmsMessage.createFromPdu(pdu, intent.getStringExtra("format"));
+        if (report == null) return;
+        int status = report.getStatus();
+        if (SmsSendPolicy.isDeliveryFailed(status)) {
+            Log.w(TAG, "SMS to " + PhoneNumbers.redact(send.phoneNumber) + " undeliverable, status " + status);
+            sends.remove(send.id);
+            send.callback.onDeliveryFailed(status);
+        } else if (SmsSendPolicy.isDelivered(status) && ++send.partsDelivered == send.parts) {
+            sends.remove(send.id);
+            send.callback.onDelivered(SystemClock.elapsedRealtime() - send.enqueuedAt);
+        }
+    }
+
+    private void onAttemptFailed(Send send, int resultCode) {
+        if (!SmsSendPolicy.shouldRetry(send.attempts)) {
+            fail(send, resultCode);
+            return;
+        }
+        long delayMs = SmsSendPolicy.backoffMs(send.attempts);
+        Log.w(TAG, "SMS to " + PhoneNumbers.redact(send.phoneNumber) + " failed (" + resultCode + "), retrying in "
+                + delayMs + " ms");
+        schedule(send, SystemClock.uptimeMillis() + delayMs);
+    }
+
+    private void fail(Send send, int resultCode) {
+        sends.remove(send.id);
+        send.callback.onFailed(resultCode, send.attempts);
+    }
+
+    /**
+     * One recipient's text across its attempts.
+     */
+    private static class Send {
+        final int id;
+        final String phoneNumber;
+        final String message;
+        final Callback callback;
+        final long enqueuedAt;
+        int attempts;
+        int parts;
+        int partsSent;
+        int partsDelivered;
+        boolean attemptFailed;
+
+        Send(int id, String phoneNumber, String message, Callback callback, long enqueuedAt) {
+            this.id = id;
+            this.phoneNumber = phoneNumber;
+            this.message = message;
+            this.callback = callback;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.neighborhood_connect;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running counts of SOS triggers by {@link SosAdmission.Decision}: how many started a
+ * run, attached to one in flight, or were throttled.
+ */
+public final class SosAdmissionStats {
+    private static final String PREFS_NAME = "sos_admission_stats";
+
+    private SosAdmissionStats() {
+    }
+
+    public static synchronized void record(Context context, SosAdmission.Decision decision) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String key = key(decision);
+        preferences.edit().putLong(key, preferences.getLong(key, 0) + 1).apply();
+    }
+
+    /**
+     * {@code started}, {@code attached} and {@code throttled}, plus {@code suppressed}
+     * for the last two together.
+     */
+    public static synchronized Map<String, Object> get(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        Map<String, Object> stats = new HashMap<>();
+        long suppressed = 0;
+        for (SosAdmission.Decision decision : SosAdmission.Decision.values()) {
+            long count = preferences.getLong(key(decision), 0);
+            stats.put(key(decision), count);
+            if (decision != SosAdmission.Decision.START) suppressed += count;
+        }
+        stats.put("suppressed", suppressed);
+        return stats;
+    }
+
+    private static String key(SosAdmission.Decision decision) {
+        switch (decision) {
+            case START:
+                return "started";
+            case ATTACH:
+                return "attached";
+            default:
+                return "throttled";
+        }
+    }
+}
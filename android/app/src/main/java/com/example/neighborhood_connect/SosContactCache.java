@@ -0,0 +1,176 @@
+package com.example.neighborhood_connect;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * On-device copy of the SOS contact numbers ({@code phone_numbers/{uid}}) and the
+ * app_notify recipients ({@code app_notify/{uid}}).
+ *
+ * While SOS is armed, snapshot listeners keep both lists current and persist them to
+ * SharedPreferences, so the trigger path can read them without a network round-trip.
+ * Numbers are normalized and deduped once here rather than on every trigger.
+ */
+@SuppressWarnings("unchecked")
+public class SosContactCache {
+    private static final String TAG = "SosContactCache";
+    private static final String PREFS_NAME = "sos_contact_cache";
+    private static final String KEY_OWNER = "owner_uid";
+    private static final String KEY_NUMBERS = "phone_numbers";
+    private static final String KEY_RECIPIENTS = "recipient_ids";
+    private static final String KEY_NUMBERS_SYNCED = "phone_numbers_synced";
+    private static final String KEY_RECIPIENTS_SYNCED = "recipient_ids_synced";
+    private static final String SEPARATOR = "\n";
+
+    private static SosContactCache instance;
+
+    private final SharedPreferences preferences;
+    private volatile String ownerUid;
+    private volatile List<String> phoneNumbers;
+    private volatile List<String> recipientIds;
+    private volatile boolean numbersSynced;
+    private volatile boolean recipientsSynced;
+
+    private ListenerRegistration numbersRegistration;
+    private ListenerRegistration recipientsRegistration;
+
+    public static synchronized SosContactCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new SosContactCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private SosContactCache(Context context) {
+        preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        ownerUid = preferences.getString(KEY_OWNER, null);
+        phoneNumbers = split(preferences.getString(KEY_NUMBERS, null));
+        recipientIds = split(preferences.getString(KEY_RECIPIENTS, null));
+        numbersSynced = preferences.getBoolean(KEY_NUMBERS_SYNCED, false);
+        recipientsSynced = preferences.getBoolean(KEY_RECIPIENTS_SYNCED, false);
+    }
+
+    /**
+     * Attaches snapshot listeners for the given user, delivered on {@code executor}.
+     * Safe to call repeatedly; a different uid drops whatever was cached for the
+     * previous account.
+     */
+    public synchronized void startSync(String uid, Executor executor) {
+        if (uid == null) return;
+        if (!uid.equals(ownerUid)) {
+            stopSync();
+            clear();
+            ownerUid = uid;
+            preferences.edit().putString(KEY_OWNER, uid).apply();
+        }
+        if (numbersRegistration != null && recipientsRegistration != null) return;
+
+        FirebaseFirestore firestore = FirebaseFirestore.getInstance();
+        numbersRegistration = firestore.collection("phone_numbers").document(uid)
+                .addSnapshotListener(executor, (snapshot, e) -> {
+                    if (e != null) {
+                        Log.w(TAG, "phone_numbers listener failed: " + e.getMessage());
+                        return;
+                    }
+                    updatePhoneNumbers(uid, snapshot);
+                });
+        recipientsRegistration = firestore.collection("app_notify").document(uid)
+                .addSnapshotListener(executor, (snapshot, e) -> {
+                    if (e != null) {
+                        Log.w(TAG, "app_notify listener failed: " + e.getMessage());
+                        return;
+                    }
+                    updateRecipientIds(uid, snapshot);
+                });
+        Log.d(TAG, "Contact sync started for user: " + uid);
+    }
+
+    public synchronized void stopSync() {
+        if (numbersRegistration != null) {
+            numbersRegistration.remove();
+            numbersRegistration = null;
+        }
+        if (recipientsRegistration != null) {
+            recipientsRegistration.remove();
+            recipientsRegistration = null;
+        }
+    }
+
+    /**
+     * Returns the normalized contact numbers, or null if they have never been synced
+     * for this user and the caller has to fall back to Firestore.
+     */
+    public List<String> getPhoneNumbers(String uid) {
+        return numbersSynced && uid != null && uid.equals(ownerUid) ? phoneNumbers : null;
+    }
+
+    /**
+     * Returns the deduped app_notify recipients, or null if they have never been synced.
+     */
+    public List<String> getRecipientIds(String uid) {
+        return recipientsSynced && uid != null && uid.equals(ownerUid) ? recipientIds : null;
+    }
+
+    /**
+     * Stores numbers fetched outside the listener (e.g. the cold-start fallback).
+     */
+    public void updatePhoneNumbers(String uid, DocumentSnapshot snapshot) {
+        if (!uid.equals(ownerUid) || isUnconfirmedMissing(snapshot)) return;
+        List<Object> raw = snapshot != null && snapshot.exists()
+                ? (List<Object>) snapshot.get("numbers") : null;
+        phoneNumbers = PhoneNumbers.normalizeAll(raw);
+        numbersSynced = true;
+        preferences.edit()
+                .putString(KEY_NUMBERS, TextUtils.join(SEPARATOR, phoneNumbers))
+                .putBoolean(KEY_NUMBERS_SYNCED, true)
+                .apply();
+        Log.d(TAG, "Cached " + phoneNumbers.size() + " SOS contact numbers.");
+    }
+
+    public void updateRecipientIds(String uid, DocumentSnapshot snapshot) {
+        if (!uid.equals(ownerUid) || isUnconfirmedMissing(snapshot)) return;
+        List<Object> raw = snapshot != null && snapshot.exists()
+                ? (List<Object>) snapshot.get("user_ids") : null;
+        recipientIds = PhoneNumbers.dedupeIds(raw);
+        recipientsSynced = true;
+        preferences.edit()
+                .putString(KEY_RECIPIENTS, TextUtils.join(SEPARATOR, recipientIds))
+                .putBoolean(KEY_RECIPIENTS_SYNCED, true)
+                .apply();
+        Log.d(TAG, "Cached " + recipientIds.size() + " app_notify recipients.");
+    }
+
+    /**
+     * A missing document reported from the local cache only means the cache no longer
+     * holds it, typically offline; only the server can confirm the list was deleted.
+     */
+    private static boolean isUnconfirmedMissing(DocumentSnapshot snapshot) {
+        if (snapshot == null || snapshot.exists() || !snapshot.getMetadata().isFromCache()) return false;
+        Log.d(TAG, "Ignoring cache-only missing snapshot of " + snapshot.getReference().getPath());
+        return true;
+    }
+
+    private void clear() {
+        phoneNumbers = Collections.emptyList();
+        recipientIds = Collections.emptyList();
+        numbersSynced = false;
+        recipientsSynced = false;
+        preferences.edit().clear().apply();
+    }
+
+    private static List<String> split(String joined) {
+        if (joined == null || joined.isEmpty()) return Collections.emptyList();
+        return Collections.unmodifiableList(Arrays.asList(joined.split(SEPARATOR)));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.neighborhood_connect;
+
+import android.util.Log;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Fan-out-on-read model: writes the SOS payload once to {@code sos_events} with the
+ * recipients in a {@code recipients} array, instead of one {@code notifications} copy
+ * per recipient. Readers query with array-contains and track read state in
+ * {@code readBy}.
+ *
+ * Very large recipient lists are split across several event documents so each stays
+ * well under the Firestore document size limit; all of them go in one commit.
+ * Document ids are {@code <sosId>_<chunk>}, so a replayed write is idempotent.
+ */
+public class SosEventWriter implements SosNotificationWriter {
+    private static final String TAG = "SosEventWriter";
+    public static final int MAX_RECIPIENTS_PER_EVENT = 2000;
+
+    private final FirebaseFirestore firestore;
+    private final Executor callbackExecutor;
+
+    public SosEventWriter(FirebaseFirestore firestore, Executor callbackExecutor) {
+        this.firestore = firestore;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    @Override
+    public Stage<FanOutResult> write(String senderId, List<String> recipientIds, String locationUrl,
+                                     SosTrace trace) {
+        Stage<FanOutResult> result = new Stage<>();
+        List<List<String>> chunks = BatchPlanner.chunk(recipientIds, MAX_RECIPIENTS_PER_EVENT);
+        if (chunks.isEmpty()) {
+            result.complete(new FanOutResult(0, 0, 0, 0, 0, null));
+            return result;
+        }
+
+        CollectionReference events = firestore.collection("sos_events");
+        Timestamp timestamp = new Timestamp(new Date());
+        WriteBatch batch = firestore.batch();
+        for (int i = 0; i < chunks.size(); i++) {
+            batch.set(events.document(trace.getId() + "_" + i),
+                    NotificationPayloads.sosEvent(senderId, trace.getId(), chunks.get(i), locationUrl, timestamp));
+        }
+        int recipients = recipientIds.size();
+        int documents = chunks.size();
+        batch.commit().addOnCompleteListener(callbackExecutor, task -> {
+            if (task.isSuccessful()) {
+                trace.mark(TracePoint.FIRESTORE_COMMIT, documents);
+            }
+            FanOutResult fanOut = task.isSuccessful()
+                    ? new FanOutResult(recipients, 1, documents, recipients, 0, null)
+                    : new FanOutResult(recipients, 1, documents, 0, recipients, task.getException());
+            Log.d(TAG, "SOS event written: " + fanOut);
+            result.complete(fanOut);
+        });
+        return result;
+    }
+}
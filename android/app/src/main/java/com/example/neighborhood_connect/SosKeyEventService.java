@@ -0,0 +1,58 @@
+package com.example.neighborhood_connect;
+
+import android.accessibilityservice.AccessibilityService;
+import android.content.Intent;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.KeyEvent;
+import android.view.accessibility.AccessibilityEvent;
+
+/**
+ * Optional press source for SOS: power key events through the accessibility key
+ * filter, handed to {@link SosPressInput}. Events are only observed, never consumed.
+ *
+ * Enabled by the user in the system accessibility settings. Some builds keep the
+ * power key from accessibility services; {@link SosPressInput}'s comparison shows
+ * that as presses missed by keys, and the broadcasts keep feeding detection.
+ */
+public class SosKeyEventService extends AccessibilityService {
+    private static final String TAG = "SosKeyEventService";
+    private static volatile boolean connected;
+
+    public static boolean isConnected() {
+        return connected;
+    }
+
+    @Override
+    protected void onServiceConnected() {
+        super.onServiceConnected();
+        connected = true;
+        Log.d(TAG, "Key event source connected.");
+    }
+
+    @Override
+    public boolean onUnbind(Intent intent) {
+        connected = false;
+        Log.d(TAG, "Key event source disconnected.");
+        return super.onUnbind(intent);
+    }
+
+    @Override
+    protected boolean onKeyEvent(KeyEvent event) {
+        if (event.getKeyCode() == KeyEvent.KEYCODE_POWER && event.getAction() == KeyEvent.ACTION_DOWN
+                && event.getRepeatCount() == 0 && ScreenMonitorService.isSOSMonitoringEnabled(this)) {
+            // Event times are on the uptime clock; the detector runs on elapsedRealtime
+            long eventMs = SystemClock.elapsedRealtime() - (SystemClock.uptimeMillis() - event.getEventTime());
+            SosPressInput.getInstance().onKeyPress(this, eventMs);
+        }
+        return false;
+    }
+
+    @Override
+    public void onAccessibilityEvent(AccessibilityEvent event) {
+    }
+
+    @Override
+    public void onInterrupt() {
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.neighborhood_connect;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the last {@link #MAX_RECORDS} {@link LocationFixRecord}s in SharedPreferences.
+ */
+public final class SosLocationStats {
+    private static final String TAG = "SosLocationStats";
+    private static final String PREFS_NAME = "sos_location_stats";
+    private static final String KEY_RECORDS = "records";
+    private static final int MAX_RECORDS = 50;
+
+    private SosLocationStats() {
+    }
+
+    public static synchronized void record(Context context, LocationFixRecord record) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String existing = preferences.getString(KEY_RECORDS, "");
+        String[] lines = existing.isEmpty() ? new String[0] : existing.split("\n");
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = Math.max(0, lines.length - (MAX_RECORDS - 1)); i < lines.length; i++) {
+            sb.append(lines[i]).append('\n');
+        }
+        sb.append(record.toCompactString());
+        preferences.edit().putString(KEY_RECORDS, sb.toString()).apply();
+        Log.d(TAG, "Location fix recorded: " + record.toCompactString());
+    }
+
+    public static synchronized List<LocationFixRecord> load(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        List<LocationFixRecord> records = new ArrayList<>();
+        for (String line : preferences.getString(KEY_RECORDS, "").split("\n")) {
+            LocationFixRecord record = line.isEmpty() ? null : LocationFixRecord.parse(line);
+            if (record != null) records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,657 @@
+package com.example.neighborhood_connect;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationServices;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SOS monitoring, hosted by {@link ScreenMonitorService}: listens for the press
+ * gesture, keeps the contact cache in sync, and runs the SOS pipeline with its
+ * journal, SMS dispatcher and location session when triggered.
+ *
+ * The trigger path is headless: it never starts an activity or needs the Flutter
+ * engine. Permissions are checked when SOS is armed, and a trigger with some still
+ * missing runs whatever the rest allow (see {@link SosReadiness}).
+ *
+ * The pipeline reaches contacts, recipients, location, SMS and notification storage
+ * only through a {@link SosBackend}; the default one is Firestore, fused location
+ * and {@link SmsDispatcher}.
+ */
+@SuppressWarnings("deprecation")
+public class SosMonitorModule implements ServiceModule {
+    private static final String TAG = "SosMonitorModule";
+    private static final String JOURNAL_FILE = "sos_journal.log";
+    // A journaled SOS older than this is dropped instead of replayed
+    private static final long MAX_REPLAY_AGE_MS = 60 * 60 * 1000;
+    // Replay requests closer together than this share one replay
+    private static final long MIN_REPLAY_INTERVAL_MS = 10 * 1000;
+    // A journaled SMS that keeps failing is retried after 30 s, 1 min, 2 min, 4 min,
+    // then given up
+    private static final int MAX_SMS_ATTEMPTS = 5;
+    private static final long SMS_RETRY_DELAY_MS = 30 * 1000;
+    private static final long MAX_SMS_RETRY_DELAY_MS = 10 * 60 * 1000;
+
+    private final Context context;
+    private final FirebaseFirestore firestore;
+    // Trigger handling, journal replay and location callbacks all run on the host's
+    // worker thread rather than the main thread the Flutter embedding uses
+    private final Handler workerHandler;
+    private final ExecutorService taskExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final NotificationDispatcher notificationDispatcher;
+    private final FusedLocationProviderClient fusedLocationClient;
+    private final SosContactCache contactCache;
+    private final SosTraceRecorder traceRecorder;
+    private final SosJournal journal;
+    private final SmsDispatcher smsDispatcher;
+    private final FusedLocationSource fusedLocation;
+    private final SosBackend backend;
+    // Outlives single runs so back-to-back SOS and replays resolve from its cache
+    private final RecipientResolver recipientResolver;
+    // Confined to the worker thread
+    private SosTrackingSession trackingSession;
+    private ScreenReceiver screenReceiver;
+    private ConnectivityManager.NetworkCallback networkCallback;
+    // SOS ids with a pipeline or replay in progress, so a replay never runs them twice
+    private final Set<String> activeSosIds = Collections.synchronizedSet(new HashSet<>());
+    // The run started by the last admitted trigger, until it finishes
+    private volatile SosTrace currentTrace;
+    private final AtomicInteger attachedTriggers = new AtomicInteger();
+    // Kept in memory only: a restarted process tries every pending SMS once more
+    private final RetryBackoff smsRetries =
+            new RetryBackoff(MAX_SMS_ATTEMPTS, SMS_RETRY_DELAY_MS, MAX_SMS_RETRY_DELAY_MS);
+    private final AtomicBoolean replayScheduled = new AtomicBoolean();
+    private volatile long lastReplayAtMs = -MIN_REPLAY_INTERVAL_MS;
+    private final Runnable replayTask = () -> {
+        replayScheduled.set(false);
+        lastReplayAtMs = SystemClock.elapsedRealtime();
+        replayJournal();
+    };
+    private final Runnable retryTask = this::requestReplay;
+
+    public SosMonitorModule(ServiceHost host) {
+        this(host, null);
+    }
+
+    /**
+     * A non-null {@code backend} replaces the default one.
+     */
+    SosMonitorModule(ServiceHost host, SosBackend backend) {
+        context = host.getContext();
+        firestore = host.getFirestore();
+        workerHandler = host.getWorkerHandler();
+        taskExecutor = host.getTaskExecutor();
+        scheduler = host.getScheduler();
+        notificationDispatcher = host.getNotificationDispatcher();
+        fusedLocationClient = LocationServices.getFusedLocationProviderClient(context);
+        contactCache = SosContactCache.getInstance(context);
+        traceRecorder = SosTraceRecorder.getInstance(context);
+        journal = new SosJournal(new File(context.getFilesDir(), JOURNAL_FILE));
+        smsDispatcher = new SmsDispatcher(context);
+        fusedLocation = new FusedLocationSource(context, fusedLocationClient, workerHandler);
+        if (backend == null) {
+            FirestoreContactSource contactSource = new FirestoreContactSource(firestore, taskExecutor, contactCache);
+            backend = new SosBackend(contactSource, contactSource, fusedLocation, smsDispatcher,
+                    new FirestoreNotificationSink(context, firestore, taskExecutor));
+        }
+        this.backend = backend;
+        recipientResolver = new RecipientResolver(backend.recipients, SystemClock::elapsedRealtime);
+    }
+
+    @Override
+    public String getName() {
+        return "sos";
+    }
+
+    @Override
+    public void start() {
+        checkReadiness();
+        registerScreenReceiver();
+        // Keep the local contact/recipient cache current while SOS is armed
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user != null) {
+            contactCache.startSync(user.getUid(), taskExecutor);
+        }
+        // Resume whatever a killed process left unfinished, and flush queued
+        // Firestore work again whenever connectivity returns
+        requestReplay();
+        registerNetworkCallback();
+        Log.d(TAG, "SOS monitoring enabled.");
+    }
+
+    @Override
+    public void stop() {
+        unregisterScreenReceiver();
+        contactCache.stopSync();
+        if (networkCallback != null) {
+            ((ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE))
+                    .unregisterNetworkCallback(networkCallback);
+            networkCallback = null;
+        }
+        workerHandler.removeCallbacks(replayTask);
+        workerHandler.removeCallbacks(retryTask);
+        replayScheduled.set(false);
+        // Also remove any pending location updates
+        fusedLocation.stop();
+        workerHandler.post(this::stopTracking);
+        Log.d(TAG, "SOS monitoring disabled.");
+    }
+
+    /**
+     * Releases what outlives start/stop cycles; called once by the host.
+     */
+    public void release() {
+        smsDispatcher.shutdown();
+    }
+
+    /**
+     * Asks for missing permissions through a notification now, since the trigger path
+     * will not open the app to ask.
+     */
+    private void checkReadiness() {
+        int missing = SosReadiness.check(context);
+        if (missing == 0) return;
+        Log.w(TAG, "SOS armed without: " + SosReadiness.describe(missing));
+        // Tapping it opens the SOS settings, which ask for what is missing
+        notificationDispatcher.post(NotificationDispatcher.GROUP_SOS_SETUP, "SOS is not fully set up",
+                "Open the app to allow " + SosReadiness.toPhrase(missing)
+                        + " so alerts can reach your contacts.");
+    }
+
+    private void registerScreenReceiver() {
+        screenReceiver = new ScreenReceiver();
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_SCREEN_ON);
+        filter.addAction(Intent.ACTION_SCREEN_OFF);
+        context.registerReceiver(screenReceiver, filter);
+        Log.d(TAG, "ScreenReceiver registered.");
+    }
+
+    private void unregisterScreenReceiver() {
+        try {
+            if (screenReceiver != null) {
+                context.unregisterReceiver(screenReceiver);
+                screenReceiver = null;
+                Log.d(TAG, "Screen event monitoring stopped.");
+            }
+        } catch (Exception e) {
+            String errorMsg = "Error unregistering receiver: " + e.getMessage();
+            Log.e(TAG, errorMsg);
+        }
+    }
+
+    private void registerNetworkCallback() {
+        ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) return;
+        networkCallback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                requestReplay();
+            }
+        };
+        NetworkRequest request = new NetworkRequest.Builder()
+                .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                .build();
+        connectivityManager.registerNetworkCallback(request, networkCallback);
+    }
+
+    /**
+     * Starts the SOS pipeline. The initial notification goes out straight away; the SMS
+     * and the neighbour fan-out follow as soon as their own inputs are ready. The
+     * returned stage completes when the run has finished. The host only calls this
+     * for triggers its admission control lets through.
+     */
+    public Stage<Void> trigger() {
+        ThreadChecks.checkNotMainThread("SOS trigger");
+        Log.d(TAG, "Handling screen event for SOS");
+        SosTrace trace = traceRecorder.start();
+        if (!StartupOrchestrator.hasEngine()) {
+            // The process was started for the service alone: the worst case for latency
+            long processAgeMs = StartupOrchestrator.processAgeMs();
+            trace.mark(TracePoint.HEADLESS_START, (int) Math.min(processAgeMs, Integer.MAX_VALUE));
+        }
+        currentTrace = trace;
+        attachedTriggers.set(0);
+        return sendSMSAndThenNotify(trace).addListener(done -> currentTrace = null);
+    }
+
+    /**
+     * Records a trigger that arrived while the current run was still in flight; it
+     * is served by that run rather than starting another.
+     */
+    public void attachTrigger() {
+        SosTrace trace = currentTrace;
+        if (trace != null) trace.mark(TracePoint.TRIGGER_COALESCED, attachedTriggers.incrementAndGet());
+        sendNotification("SOS Alert", "SOS already in progress.");
+    }
+
+    private Stage<Void> sendSMSAndThenNotify(SosTrace trace) {
+        sendNotification("SOS Alert", "Generating SOS alert!");
+        trace.mark(TracePoint.LOCAL_NOTIFICATION);
+        FirebaseAuth auth = FirebaseAuth.getInstance();
+
+        String userId = auth.getCurrentUser() != null ? auth.getCurrentUser().getUid() : null;
+        if (userId == null) {
+            Log.d(TAG, "No logged-in user found.");
+            trace.mark(TracePoint.FINISHED);
+            traceRecorder.finish(trace);
+            return Stage.completed(null);
+        }
+        int missing = SosReadiness.check(context);
+        if (missing != 0) {
+            // Degrade rather than open the UI; the stages skip what they cannot do
+            Log.w(TAG, "SOS running without: " + SosReadiness.describe(missing));
+            trace.mark(TracePoint.PERMISSIONS_MISSING, missing);
+        }
+
+        journal.begin(trace.getId(), userId, trace.getStartedAtWallMs(),
+                SosJournal.STEP_LOCATION, SosJournal.STEP_CONTACTS, SosJournal.STEP_FAN_OUT);
+        Stage<Void> run = runPipeline(userId, trace);
+        if (ScreenMonitorService.isLiveTrackingEnabled(context) && SosReadiness.canLocate(missing)) {
+            startTracking(trace.getId(), userId);
+        }
+        return run;
+    }
+
+    /**
+     * Starts live tracking for a new SOS, replacing any session still running for an
+     * earlier one.
+     */
+    private void startTracking(String sosId, String userId) {
+        stopTracking();
+        trackingSession = new SosTrackingSession(firestore, fusedLocationClient, workerHandler,
+                sosId, userId, ScreenMonitorService.getLiveTrackingDurationMs(context));
+        trackingSession.start();
+    }
+
+    private void stopTracking() {
+        if (trackingSession != null) {
+            trackingSession.stop();
+            trackingSession = null;
+        }
+    }
+
+    private Stage<Void> runPipeline(String userId, SosTrace trace) {
+        activeSosIds.add(trace.getId());
+        return new SosPipeline(new ServiceStages(trace), scheduler).run(userId, trace)
+                .addListener(done -> {
+                    Log.d(TAG, "SOS pipeline finished for user: " + userId);
+                    finishRun(trace);
+                });
+    }
+
+    private void finishRun(SosTrace trace) {
+        activeSosIds.remove(trace.getId());
+        if (journal.hasPending(trace.getId())) {
+            Log.d(TAG, "SOS " + trace.getId() + " has unfinished steps, keeping it for replay.");
+        } else {
+            journal.end(trace.getId());
+        }
+        traceRecorder.finish(trace);
+    }
+
+    /**
+     * Queues a journal replay on the worker thread. Requests made before it runs share
+     * it, and it runs no sooner than {@link #MIN_REPLAY_INTERVAL_MS} after the last one,
+     * so the start-up request and the network callback's first onAvailable replay once.
+     */
+    private void requestReplay() {
+        if (!replayScheduled.compareAndSet(false, true)) return;
+        long delayMs = lastReplayAtMs + MIN_REPLAY_INTERVAL_MS - SystemClock.elapsedRealtime();
+        workerHandler.postDelayed(replayTask, Math.max(0, delayMs));
+    }
+
+    /**
+     * Replays the unfinished steps of every journaled SOS that is not already running.
+     * An SOS killed before its first fix resolved has sent nothing and is rerun in
+     * full; otherwise only the steps still pending are redone: the contact lookup and
+     * its SMS, single SMS, and the neighbour fan-out. The trace id is the SOS id, so
+     * replayed Firestore writes land on the same document ids and overwrite rather than
+     * duplicate. SMS are at-least-once: a kill between a message leaving the device
+     * and its done record resends that one message. A failed contact lookup or SMS
+     * waits out {@link #smsRetries} before it is tried again and is given up after
+     * {@link #MAX_SMS_ATTEMPTS}.
+     */
+    private void replayJournal() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        for (SosJournal.OpenSos sos : journal.getOpen()) {
+            if (activeSosIds.contains(sos.sosId)) continue;
+            if (System.currentTimeMillis() - sos.startedAtWallMs > MAX_REPLAY_AGE_MS
+                    || user == null || !user.getUid().equals(sos.userId)) {
+                Log.d(TAG, "Dropping stale journaled SOS " + sos.sosId);
+                journal.end(sos.sosId);
+                continue;
+            }
+            if (sos.pendingSteps.containsKey(SosJournal.STEP_LOCATION)) {
+                Log.d(TAG, "Replaying SOS " + sos.sosId + " in full");
+                runPipeline(sos.userId, traceRecorder.resume(sos.sosId));
+                continue;
+            }
+
+            long now = SystemClock.elapsedRealtime();
+            Map<String, String> dueSms = new LinkedHashMap<>();
+            for (Map.Entry<String, String> step : sos.pendingSteps.entrySet()) {
+                if ((SosJournal.isSmsStep(step.getKey()) || SosJournal.STEP_CONTACTS.equals(step.getKey()))
+                        && smsRetries.msUntilDue(retryKey(sos.sosId, step.getKey()), now) == 0) {
+                    dueSms.put(step.getKey(), step.getValue());
+                }
+            }
+            String locationUrl = sos.pendingSteps.get(SosJournal.STEP_FAN_OUT);
+            // Only SMS still waiting out their backoff
+            if (dueSms.isEmpty() && locationUrl == null) continue;
+
+            Log.d(TAG, "Replaying SOS " + sos.sosId + ": " + dueSms.keySet()
+                    + (locationUrl != null ? " and fan-out" : ""));
+            SosTrace trace = traceRecorder.resume(sos.sosId);
+            activeSosIds.add(sos.sosId);
+            ServiceStages stages = new ServiceStages(trace);
+            List<Stage<?>> work = new ArrayList<>();
+            for (Map.Entry<String, String> step : dueSms.entrySet()) {
+                if (SosJournal.STEP_CONTACTS.equals(step.getKey())) {
+                    work.add(stages.resendToContacts(sos.userId, step.getValue()));
+                } else {
+                    work.add(stages.sendJournaledSms(step.getKey(), step.getValue(), work.size()));
+                }
+            }
+            Stage<Void> fanOut = new Stage<>();
+            if (locationUrl != null) {
+                // Nearby responders are not journaled, so a replay reaches the explicit ones only
+                stages.fetchRecipients(sos.userId).addListener(recipients -> {
+                    if (!recipients.isSuccessful()) {
+                        fanOut.fail(recipients.getError());
+                        return;
+                    }
+                    stages.resolveRecipients(sos.userId, recipients.getValue()).addListener(resolved ->
+                            stages.saveNotifications(sos.userId, resolved.isSuccessful()
+                                            ? resolved.getValue().userIds
+                                            : RecipientResolver.dedupe(sos.userId, recipients.getValue()),
+                                    locationUrl.isEmpty() ? null : locationUrl)
+                                    .addListener(saved -> fanOut.complete(null)));
+                });
+            } else {
+                fanOut.complete(null);
+            }
+            work.add(fanOut);
+            Stage.whenAll(work.toArray(new Stage<?>[0])).addListener(done -> {
+                trace.mark(TracePoint.FINISHED);
+                finishRun(trace);
+            });
+        }
+    }
+
+    /**
+     * The pipeline stages over {@link #backend}, adding the permission checks, journal,
+     * trace marks and status notifications around each call.
+     */
+    private class ServiceStages implements SosPipeline.Stages {
+        private final SosTrace trace;
+        private final int missingPermissions;
+
+        ServiceStages(SosTrace trace) {
+            this.trace = trace;
+            missingPermissions = SosReadiness.check(context);
+        }
+
+        @Override
+        public Stage<List<String>> fetchContacts(String userId) {
+            if (!SosReadiness.canSendSms(missingPermissions)) {
+                return Stage.failed(new SecurityException("SEND_SMS not granted"));
+            }
+            return backend.contacts.fetchContacts(userId);
+        }
+
+        @Override
+        public Stage<List<String>> fetchRecipients(String userId) {
+            return backend.recipients.fetchRecipients(userId);
+        }
+
+        @Override
+        public Stage<NearbyResponders.Result> findNearby(String userId, SosFix fix) {
+            return backend.recipients.findNearby(userId, fix).addListener(nearby -> {
+                if (nearby.isSuccessful()) FanOutStats.recordNearby(context, nearby.getValue());
+            });
+        }
+
+        @Override
+        public Stage<Map<String, Boolean>> lookupStatus(List<String> userIds) {
+            return backend.recipients.lookupStatus(userIds);
+        }
+
+        @Override
+        public Stage<RecipientResolver.Resolution> resolveRecipients(String userId, List<String> recipientIds) {
+            return recipientResolver.resolve(userId, recipientIds).addListener(resolved -> {
+                if (resolved.isSuccessful()) FanOutStats.recordResolution(context, resolved.getValue());
+            });
+        }
+
+        @Override
+        public void acquireLocation(Stage<SosFix> firstFix, Stage<SosFix> refinedFix) {
+            // Done once the first fix resolves or gives up, whatever happens to contacts
+            // and SMS, so a replay never reruns the pipeline after anything went out
+            firstFix.addListener(fix -> {
+                SosFix resolved = fix.isSuccessful() && fix.getValue() != null ? fix.getValue() : SosFix.NO_LOCATION;
+                String sosId = trace.getId();
+                journal.updatePayload(sosId, SosJournal.STEP_CONTACTS, resolved.message);
+                journal.updatePayload(sosId, SosJournal.STEP_FAN_OUT,
+                        resolved.locationUrl != null ? resolved.locationUrl : "");
+                journal.done(sosId, SosJournal.STEP_LOCATION);
+            });
+            if (!SosReadiness.canLocate(missingPermissions)) {
+                firstFix.fail(new SecurityException("Location permission not granted"));
+                refinedFix.fail(new CancellationException("No location permission"));
+                return;
+            }
+            backend.location.acquireLocation(firstFix, refinedFix);
+        }
+
+        @Override
+        public Stage<Void> sendSms(List<String> phoneNumbers, SosFix fix, boolean followUp) {
+            // Journal every message before the first one goes out, so a kill part-way
+            // through resends only the ones that had not gone out
+            ThreadChecks.checkNotMainThread("SOS SMS");
+            String sosId = trace.getId();
+            Map<String, String> steps = new LinkedHashMap<>();
+            for (int i = 0; i < phoneNumbers.size(); i++) {
+                steps.put(SosJournal.smsStep(i, phoneNumbers.get(i), followUp), fix.message);
+            }
+            journal.pendingAll(sosId, steps);
+            if (!followUp) {
+                journal.done(sosId, SosJournal.STEP_CONTACTS);
+                smsRetries.clear(retryKey(sosId, SosJournal.STEP_CONTACTS));
+            }
+            if (phoneNumbers.isEmpty()) {
+                Log.d(TAG, "No phone numbers found.");
+                return Stage.completed(null);
+            }
+            AtomicInteger sent = new AtomicInteger();
+            Stage<?>[] sends = new Stage<?>[steps.size()];
+            int index = 0;
+            for (String step : steps.keySet()) {
+                sends[index] = sendJournaledSms(step, fix.message, index)
+                        .addListener(done -> {
+                            if (done.getValue()) sent.incrementAndGet();
+                        });
+                index++;
+            }
+            Stage<Void> all = Stage.whenAll(sends);
+            all.addListener(done -> {
+                String message = followUp ? "SOS location updated." : "SOS alert generated successfully!";
+                if (sent.get() < sends.length) {
+                    message += " Sent to " + sent.get() + " of " + sends.length + " contacts.";
+                }
+                sendNotification("SOS Alert", message);
+                trace.mark(TracePoint.LOCAL_NOTIFICATION);
+            });
+            return all;
+        }
+
+        /**
+         * Replays a contact lookup that failed or never finished, then sends
+         * {@code message} to every number it returns. Never fails itself.
+         */
+        Stage<Void> resendToContacts(String userId, String message) {
+            Stage<Void> done = new Stage<>();
+            String text = message.isEmpty() ? SosMessages.sosMessage(null) : message;
+            fetchContacts(userId)
+                    .withTimeout(scheduler, SosPipeline.CONTACTS_TIMEOUT_MS, "contacts")
+                    .addListener(contacts -> {
+                        if (!contacts.isSuccessful()) {
+                            onStageFailed("contacts", contacts.getError());
+                            done.complete(null);
+                            return;
+                        }
+                        // Only the message matters here; the fan-out payload is already journaled
+                        sendSms(contacts.getValue(), new SosFix(null, text), false)
+                                .addListener(sent -> done.complete(null));
+                    });
+            return done;
+        }
+
+        /**
+         * Hands one journaled text to the dispatcher. Completes with whether it left
+         * the device; the step is marked done only then, and delivery reports that
+         * arrive after the run has finished are written back to the stored trace.
+         */
+        Stage<Boolean> sendJournaledSms(String step, String message, int index) {
+            Stage<Boolean> sent = new Stage<>();
+            String phoneNumber = SosJournal.phoneNumberOf(step);
+            backend.sms.dispatch(phoneNumber, message, new SmsSink.Callback() {
+                @Override
+                public void onSent(long latencyMs, int attempts) {
+                    trace.mark(TracePoint.SMS_SENT, index);
+                    journal.done(trace.getId(), step);
+                    smsRetries.clear(retryKey(trace.getId(), step));
+                    sent.complete(true);
+                }
+
+                @Override
+                public void onDelivered(long latencyMs) {
+                    Log.d(TAG, "SOS SMS delivered to " + PhoneNumbers.redact(phoneNumber) + " in " + latencyMs + " ms");
+                    trace.mark(TracePoint.SMS_DELIVERED, index);
+                    traceRecorder.update(trace);
+                }
+
+                @Override
+                public void onFailed(int resultCode, int attempts) {
+                    Log.e(TAG, "SOS SMS to " + PhoneNumbers.redact(phoneNumber) + " failed after " + attempts
+                            + " attempts, result " + resultCode);
+                    trace.mark(TracePoint.SMS_FAILED, index);
+                    long retryInMs = smsRetries.recordFailure(retryKey(trace.getId(), step),
+                            SystemClock.elapsedRealtime());
+                    if (retryInMs < 0) {
+                        Log.e(TAG, "Giving up on SOS SMS to " + PhoneNumbers.redact(phoneNumber) + " after "
+                                + MAX_SMS_ATTEMPTS + " tries");
+                        journal.done(trace.getId(), step);
+                    } else {
+                        workerHandler.postDelayed(retryTask, retryInMs);
+                    }
+                    sent.complete(false);
+                }
+
+                @Override
+                public void onDeliveryFailed(int status) {
+                    trace.mark(TracePoint.SMS_FAILED, index);
+                    traceRecorder.update(trace);
+                }
+            });
+            return sent;
+        }
+
+        @Override
+        public Stage<Void> saveNotifications(String userId, List<String> recipientIds, String locationUrl) {
+            String sosId = trace.getId();
+            journal.updatePayload(sosId, SosJournal.STEP_FAN_OUT, locationUrl != null ? locationUrl : "");
+            if (recipientIds.isEmpty()) {
+                Log.d(TAG, "No users found in app_notify for: " + userId);
+                journal.done(sosId, SosJournal.STEP_FAN_OUT);
+                return Stage.completed(null);
+            }
+            ThreadChecks.checkNotMainThread("SOS fan-out");
+            Stage<Void> stage = new Stage<>();
+            backend.notifications.write(userId, recipientIds, locationUrl, trace)
+                    .addListener(fanOut -> {
+                        if (!fanOut.isSuccessful()) {
+                            // STEP_FAN_OUT stays pending with its payload, so the next replay
+                            // writes the notifications again.
+                            Log.e(TAG, "SOS fan-out not saved, left pending in the journal: "
+                                    + fanOut.getError());
+                            stage.fail(fanOut.getError());
+                            return;
+                        }
+                        FanOutResult result = fanOut.getValue();
+                        if (result.isComplete()) {
+                            journal.done(sosId, SosJournal.STEP_FAN_OUT);
+                            stage.complete(null);
+                        } else {
+                            stage.fail(new IllegalStateException(result.failed + " of "
+                                    + result.recipients + " notifications not saved", result.firstError));
+                        }
+                    });
+            return stage;
+        }
+
+        @Override
+        public void onStageFailed(String stage, Throwable error) {
+            Log.e(TAG, "SOS stage '" + stage + "' failed: " + error.getMessage());
+            if ("contacts".equals(stage)) contactsFailed(error);
+        }
+
+        /**
+         * Keeps a contact lookup that may succeed later pending for replay, with the
+         * SMS backoff. Without SEND_SMS there is nothing to retry.
+         */
+        private void contactsFailed(Throwable error) {
+            String sosId = trace.getId();
+            if (error instanceof SecurityException) {
+                journal.done(sosId, SosJournal.STEP_CONTACTS);
+                return;
+            }
+            long retryInMs = smsRetries.recordFailure(retryKey(sosId, SosJournal.STEP_CONTACTS),
+                    SystemClock.elapsedRealtime());
+            if (retryInMs < 0) {
+                Log.e(TAG, "Giving up on SOS contacts after " + MAX_SMS_ATTEMPTS + " tries");
+                journal.done(sosId, SosJournal.STEP_CONTACTS);
+            } else {
+                workerHandler.postDelayed(retryTask, retryInMs);
+            }
+        }
+    }
+
+    private static String retryKey(String sosId, String step) {
+        return sosId + "/" + step;
+    }
+
+    /**
+     * Posts an SOS status notification through the shared dispatcher.
+     */
+    private void sendNotification(String title, String message) {
+        notificationDispatcher.post(NotificationDispatcher.GROUP_SOS_STATUS, title, message);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.neighborhood_connect;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Where SOS button presses arrive from either source: screen on/off broadcasts
+ * ({@link ScreenReceiver}) or power key events ({@link SosKeyEventService}). Presses
+ * feed one {@link PressPatternDetector}; a match starts the SOS through
+ * {@link ScreenMonitorService}.
+ *
+ * Key events carry the time the key went down, so they are earlier and never lost to
+ * a screen that was already in the target state, but they only arrive while the
+ * accessibility service is enabled, and some builds never deliver the power key at
+ * all. So broadcasts always feed the detector, and with the key source selected and
+ * connected keys feed it too: a {@link PressSourceComparison} matches the two reports
+ * of a press and only the first is counted. Its counts are saved with
+ * {@link PressSourceStats}.
+ *
+ * The pattern and source settings are read once and kept until a preference change
+ * touches them, so a press in steady state reads no preferences. Detection and source
+ * matching allocate nothing either; only the progress event does, and only while the
+ * UI is listening for it.
+ */
+public final class SosPressInput {
+    private static final String TAG = "SosPressInput";
+    // Comparison counts are saved this long after a press, batching a gesture's presses
+    private static final long SAVE_DELAY_MS = 10 * 1000;
+    public static final String SOURCE_BROADCAST = "broadcast";
+    public static final String SOURCE_ACCESSIBILITY = "accessibility";
+
+    private static SosPressInput instance;
+
+    private final PressSourceComparison comparison = new PressSourceComparison();
+    // Held strongly: SharedPreferences only keeps a weak reference to its listeners
+    private final SharedPreferences.OnSharedPreferenceChangeListener settingsListener = (preferences, key) -> {
+        if (key == null || key.startsWith("flutter.sosPress")) {
+            detector = null;
+            selectedSource = null;
+        }
+    };
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable saveStats = this::saveStats;
+    // Both sources and the preference listener run on the main thread
+    private Context appContext;
+    private SharedPreferences preferences;
+    private PressPatternDetector detector;
+    private String selectedSource;
+    private long lastPressMs;
+    private boolean savePending;
+
+    public static synchronized SosPressInput getInstance() {
+        if (instance == null) {
+            instance = new SosPressInput();
+        }
+        return instance;
+    }
+
+    private SosPressInput() {
+    }
+
+    public void onScreenEvent(Context context) {
+        init(context);
+        long now = SystemClock.elapsedRealtime();
+        boolean countedAsKey = false;
+        if (SosKeyEventService.isConnected()) {
+            countedAsKey = comparison.onBroadcastPress(now) && usesKeys(context);
+            scheduleSave();
+        }
+        if (!countedAsKey) onPress(context, now);
+    }
+
+    /**
+     * A power key press that went down at {@code eventMs}, on the elapsedRealtime clock.
+     */
+    public void onKeyPress(Context context, long eventMs) {
+        init(context);
+        // Broadcasts are always counted, so a key matching one is the same press
+        boolean countedAsBroadcast = comparison.onKeyPress(eventMs, SystemClock.elapsedRealtime());
+        scheduleSave();
+        if (!countedAsBroadcast && usesKeys(context)) onPress(context, eventMs);
+    }
+
+    private void onPress(Context context, long pressMs) {
+        if (detector == null) {
+            detector = new PressPatternDetector(ScreenMonitorService.getPressPattern(context));
+        }
+        // A key's time is when it went down, which can be before a broadcast already
+        // counted for the previous press
+        pressMs = Math.max(pressMs, lastPressMs);
+        lastPressMs = pressMs;
+        PressPattern pattern = detector.getPattern();
+        boolean matched = detector.onPress(pressMs);
+
+        int progress = detector.getProgress(pressMs);
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "Press at: " + pressMs + ", progress: " + progress);
+        }
+        NativeEventStream.getInstance().emitGesture(matched ? pattern.presses : progress, pattern.presses);
+
+        if (matched) {
+            Intent sosIntent = new Intent(context, ScreenMonitorService.class);
+            sosIntent.setAction(ScreenMonitorService.ACTION_TRIGGER_SOS);
+            context.startService(sosIntent);
+        }
+    }
+
+    /**
+     * {@link #SOURCE_ACCESSIBILITY} while key events feed detection alongside the
+     * broadcasts: selected and connected. {@link #SOURCE_BROADCAST} otherwise.
+     */
+    public String getActiveSource(Context context) {
+        return usesKeys(context) ? SOURCE_ACCESSIBILITY : SOURCE_BROADCAST;
+    }
+
+    private boolean usesKeys(Context context) {
+        if (selectedSource == null) {
+            init(context);
+            selectedSource = ScreenMonitorService.getPressSource(context);
+        }
+        return SOURCE_ACCESSIBILITY.equals(selectedSource) && SosKeyEventService.isConnected();
+    }
+
+    /**
+     * Watches the press settings and restores the saved comparison counts, once.
+     */
+    private void init(Context context) {
+        if (preferences != null) return;
+        appContext = context.getApplicationContext();
+        preferences = appContext.getSharedPreferences("FlutterSharedPreferences", Context.MODE_PRIVATE);
+        preferences.registerOnSharedPreferenceChangeListener(settingsListener);
+        PressSourceStats.restoreInto(appContext, comparison);
+    }
+
+    private void scheduleSave() {
+        if (savePending) return;
+        savePending = true;
+        handler.postDelayed(saveStats, SAVE_DELAY_MS);
+    }
+
+    private void saveStats() {
+        savePending = false;
+        PressSourceStats.save(appContext, comparison.snapshot(SystemClock.elapsedRealtime()));
+    }
+
+    /**
+     * Detection latency percentiles per source and presses each one missed, counted
+     * while both were delivering.
+     */
+    public Map<String, Object> getStats(Context context) {
+        init(context);
+        long[] snapshot = comparison.snapshot(SystemClock.elapsedRealtime());
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("source", getActiveSource(context));
+        stats.put("accessibilityConnected", SosKeyEventService.isConnected());
+        stats.put("keyPresses", snapshot[0]);
+        stats.put("broadcastPresses", snapshot[1]);
+        stats.put("missedByKeys", snapshot[2]);
+        stats.put("missedByBroadcasts", snapshot[3]);
+        stats.put("keyP50Ms", snapshot[4]);
+        stats.put("keyP95Ms", snapshot[5]);
+        stats.put("broadcastP50Ms", snapshot[6]);
+        stats.put("broadcastP95Ms", snapshot[7]);
+        return stats;
+    }
+}
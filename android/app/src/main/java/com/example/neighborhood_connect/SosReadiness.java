@@ -0,0 +1,95 @@
+package com.example.neighborhood_connect;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.text.TextUtils;
+
+import androidx.core.content.ContextCompat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Which permissions the headless SOS path is missing, as a bit mask.
+ *
+ * Checked when SOS is armed, so the user is asked while they are looking at the app
+ * rather than in the middle of an emergency, and again on each trigger to pick the
+ * degraded path: without SMS the neighbour fan-out still runs, without location the
+ * alert goes out as "location unavailable". The trigger path never opens the UI.
+ */
+public final class SosReadiness {
+    public static final int MISSING_SMS = 1;
+    public static final int MISSING_LOCATION = 1 << 1;
+    /** Location still works while the service was started from the foreground. */
+    public static final int MISSING_BACKGROUND_LOCATION = 1 << 2;
+    public static final int MISSING_NOTIFICATIONS = 1 << 3;
+
+    private SosReadiness() {
+    }
+
+    public static int check(Context context) {
+        int missing = 0;
+        if (!granted(context, Manifest.permission.SEND_SMS)) missing |= MISSING_SMS;
+        if (!granted(context, Manifest.permission.ACCESS_FINE_LOCATION)
+                && !granted(context, Manifest.permission.ACCESS_COARSE_LOCATION)) {
+            missing |= MISSING_LOCATION;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                && !granted(context, Manifest.permission.ACCESS_BACKGROUND_LOCATION)) {
+            missing |= MISSING_BACKGROUND_LOCATION;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && !granted(context, Manifest.permission.POST_NOTIFICATIONS)) {
+            missing |= MISSING_NOTIFICATIONS;
+        }
+        return missing;
+    }
+
+    public static boolean canSendSms(int missing) {
+        return (missing & MISSING_SMS) == 0;
+    }
+
+    public static boolean canLocate(int missing) {
+        return (missing & MISSING_LOCATION) == 0;
+    }
+
+    /**
+     * Whether location can be read while no activity is visible, which a foreground
+     * service started from the background needs for its location type.
+     */
+    public static boolean canLocateInBackground(int missing) {
+        return (missing & (MISSING_LOCATION | MISSING_BACKGROUND_LOCATION)) == 0;
+    }
+
+    /**
+     * The missing permissions as a phrase for the user, e.g. "SMS, location and
+     * notifications".
+     */
+    public static String toPhrase(int missing) {
+        List<String> labels = new ArrayList<>(4);
+        if ((missing & MISSING_SMS) != 0) labels.add("SMS");
+        if ((missing & MISSING_LOCATION) != 0) labels.add("location");
+        if ((missing & MISSING_BACKGROUND_LOCATION) != 0) labels.add("location all the time");
+        if ((missing & MISSING_NOTIFICATIONS) != 0) labels.add("notifications");
+        if (labels.size() < 2) return TextUtils.join("", labels);
+        return TextUtils.join(", ", labels.subList(0, labels.size() - 1)) + " and " + labels.get(labels.size() - 1);
+    }
+
+    /**
+     * Names of the missing permissions, for logs and the MethodChannel.
+     */
+    public static List<String> describe(int missing) {
+        List<String> names = new ArrayList<>(4);
+        if ((missing & MISSING_SMS) != 0) names.add("sms");
+        if ((missing & MISSING_LOCATION) != 0) names.add("location");
+        if ((missing & MISSING_BACKGROUND_LOCATION) != 0) names.add("backgroundLocation");
+        if ((missing & MISSING_NOTIFICATIONS) != 0) names.add("notifications");
+        return names;
+    }
+
+    private static boolean granted(Context context, String permission) {
+        return ContextCompat.checkSelfPermission(context, permission) == PackageManager.PERMISSION_GRANTED;
+    }
+}
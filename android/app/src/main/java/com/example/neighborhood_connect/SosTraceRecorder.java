@@ -0,0 +1,132 @@
+package com.example.neighborhood_connect;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide recorder for SOS traces: starts a trace per trigger, keeps the last
+ * {@link #MAX_TRACES} finished ones in memory and persists them in compact form to
+ * SharedPreferences so they survive restarts. Read by MainActivity over the
+ * screen_events MethodChannel; marks are also streamed live through
+ * {@link NativeEventStream}.
+ */
+public class SosTraceRecorder {
+    private static final String TAG = "SosTraceRecorder";
+    private static final String PREFS_NAME = "sos_traces";
+    private static final String KEY_TRACES = "traces";
+    private static final int MAX_TRACES = 50;
+    private static final MonotonicClock ELAPSED_REALTIME = SystemClock::elapsedRealtime;
+
+    private static SosTraceRecorder instance;
+
+    private final SharedPreferences preferences;
+    private final SosTraceBuffer buffer = new SosTraceBuffer(MAX_TRACES);
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    public static synchronized SosTraceRecorder getInstance(Context context) {
+        if (instance == null) {
+            instance = new SosTraceRecorder(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private SosTraceRecorder(Context context) {
+        preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        for (String line : preferences.getString(KEY_TRACES, "").split("\n")) {
+            SosTrace trace = line.isEmpty() ? null : SosTrace.decode(line);
+            if (trace != null) buffer.add(trace);
+        }
+    }
+
+    public SosTrace start() {
+        long now = System.currentTimeMillis();
+        SosTrace trace = new SosTrace(Long.toString(now, 36) + "-" + sequence.incrementAndGet(), now,
+                ELAPSED_REALTIME);
+        trace.setListener(NativeEventStream.getInstance());
+        trace.mark(TracePoint.TRIGGER_RECEIVED);
+        return trace;
+    }
+
+    /**
+     * Continues a journaled SOS after a restart under its original id. The
+     * TRIGGER_RECEIVED mark carries detail 1 so replays can be told apart.
+     */
+    public SosTrace resume(String id) {
+        SosTrace trace = new SosTrace(id, System.currentTimeMillis(), ELAPSED_REALTIME);
+        trace.setListener(NativeEventStream.getInstance());
+        trace.mark(TracePoint.TRIGGER_RECEIVED, 1);
+        return trace;
+    }
+
+    public void finish(SosTrace trace) {
+        buffer.add(trace);
+        persist();
+        Log.d(TAG, "SOS trace: " + trace.encode());
+    }
+
+    /**
+     * Re-saves a finished trace that picked up late marks, such as SMS delivery
+     * reports. A trace that has not finished yet is saved by {@link #finish}.
+     */
+    public void update(SosTrace trace) {
+        if (buffer.snapshot().contains(trace)) persist();
+    }
+
+    private void persist() {
+        StringBuilder sb = new StringBuilder();
+        for (SosTrace finished : buffer.snapshot()) {
+            if (sb.length() > 0) sb.append('\n');
+            sb.append(finished.encode());
+        }
+        preferences.edit().putString(KEY_TRACES, sb.toString()).apply();
+    }
+
+    /**
+     * Traces as MethodChannel-friendly maps, oldest first.
+     */
+    public List<Map<String, Object>> getTraces() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (SosTrace trace : buffer.snapshot()) {
+            List<Map<String, Object>> marks = new ArrayList<>(trace.size());
+            for (int i = 0; i < trace.size(); i++) {
+                Map<String, Object> mark = new HashMap<>();
+                TracePoint point = trace.pointAt(i);
+                mark.put("point", point != null ? point.name() : "UNKNOWN");
+                mark.put("offsetMs", trace.offsetAt(i));
+                mark.put("detail", trace.detailAt(i));
+                marks.add(mark);
+            }
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", trace.getId());
+            map.put("startedAt", trace.getStartedAtWallMs());
+            map.put("marks", marks);
+            result.add(map);
+        }
+        return result;
+    }
+
+    /**
+     * Trigger-to-first-SMS latency over the retained traces, plus trigger-to-first
+     * delivery report for carriers that send them.
+     */
+    public Map<String, Object> getLatencyStats() {
+        long[] stats = buffer.latencyPercentiles(TracePoint.SMS_SENT);
+        long[] delivered = buffer.latencyPercentiles(TracePoint.SMS_DELIVERED);
+        Map<String, Object> result = new HashMap<>();
+        result.put("count", stats[0]);
+        result.put("p50Ms", stats[1]);
+        result.put("p95Ms", stats[2]);
+        result.put("deliveredCount", delivered[0]);
+        result.put("deliveredP50Ms", delivered[1]);
+        result.put("deliveredP95Ms", delivered[2]);
+        return result;
+    }
+}
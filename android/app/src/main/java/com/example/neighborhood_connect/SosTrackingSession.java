@@ -0,0 +1,182 @@
+package com.example.neighborhood_connect;
+
+import android.annotation.SuppressLint;
+import android.location.Location;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opt-in live tracking after an SOS: keeps fused location updates running for the
+ * configured duration and appends the points {@link TrackSession} keeps to
+ * {@code sos_tracks/{sosId}}, one arrayUnion update per batch. The document also holds
+ * the latest point and an {@code active} flag that is cleared when the session ends.
+ *
+ * Everything runs on the worker thread whose handler is passed in; the session stops
+ * itself on expiry or once its point budget is spent, and {@link #stop} releases the
+ * location updates early.
+ */
+@SuppressWarnings("deprecation")
+public class SosTrackingSession {
+    private static final String TAG = "SosTrackingSession";
+    public static final String COLLECTION = "sos_tracks";
+    private static final long UPDATE_INTERVAL_MS = 10 * 1000;
+    private static final long FASTEST_UPDATE_INTERVAL_MS = 5 * 1000;
+
+    private final FirebaseFirestore firestore;
+    private final FusedLocationProviderClient fusedLocationClient;
+    private final Handler workerHandler;
+    private final String sosId;
+    private final String userId;
+    private final TrackSession session;
+    private final Runnable flush = this::flush;
+    private final Runnable expire = this::stop;
+    private LocationCallback locationCallback;
+    private boolean writing;
+    private boolean stopped;
+
+    public SosTrackingSession(FirebaseFirestore firestore, FusedLocationProviderClient fusedLocationClient,
+                              Handler workerHandler, String sosId, String userId, long durationMs) {
+        this.firestore = firestore;
+        this.fusedLocationClient = fusedLocationClient;
+        this.workerHandler = workerHandler;
+        this.sosId = sosId;
+        this.userId = userId;
+        this.session = new TrackSession(SystemClock.elapsedRealtime(), durationMs);
+    }
+
+    public String getSosId() {
+        return sosId;
+    }
+
+    @SuppressLint("MissingPermission")
+    public void start() {
+        long now = SystemClock.elapsedRealtime();
+        Map<String, Object> track = new HashMap<>(8);
+        track.put("userId", userId);
+        track.put("active", true);
+        track.put("startedAt", FieldValue.serverTimestamp());
+        track.put("expiresAtMs", System.currentTimeMillis() + session.msUntilExpiry(now));
+        document().set(track, SetOptions.merge())
+                .addOnFailureListener(e -> Log.w(TAG, "Could not open track " + sosId + ": " + e.getMessage()));
+
+        LocationRequest locationRequest = LocationRequest.create();
+        locationRequest.setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY);
+        locationRequest.setInterval(UPDATE_INTERVAL_MS);
+        locationRequest.setFastestInterval(FASTEST_UPDATE_INTERVAL_MS);
+        // No smallest displacement: a stationary phone must still deliver fixes for the
+        // session's heartbeat; TrackSession.offer drops the ones not worth uploading
+        locationCallback = new LocationCallback() {
+            @Override
+            public void onLocationResult(LocationResult locationResult) {
+                if (locationResult == null) return;
+                for (Location location : locationResult.getLocations()) {
+                    onLocation(location);
+                }
+            }
+        };
+        fusedLocationClient.requestLocationUpdates(locationRequest, locationCallback, workerHandler.getLooper());
+        workerHandler.postDelayed(expire, session.msUntilExpiry(now));
+        Log.d(TAG, "Tracking SOS " + sosId + " for " + session.msUntilExpiry(now) + " ms");
+    }
+
+    /**
+     * Ends the session: releases location updates, writes what is pending and marks the
+     * track inactive. Safe to call more than once; must run on the worker thread.
+     */
+    public void stop() {
+        if (stopped) return;
+        stopped = true;
+        if (locationCallback != null) {
+            fusedLocationClient.removeLocationUpdates(locationCallback);
+        }
+        workerHandler.removeCallbacks(expire);
+        workerHandler.removeCallbacks(flush);
+        Map<String, Object> update = new HashMap<>(4);
+        update.put("active", false);
+        update.put("endedAt", FieldValue.serverTimestamp());
+        List<TrackSession.Sample> batch = session.drain(SystemClock.elapsedRealtime());
+        if (!batch.isEmpty()) putPoints(update, batch);
+        document().update(update)
+                .addOnFailureListener(e -> Log.w(TAG, "Could not close track " + sosId + ": " + e.getMessage()));
+        Log.d(TAG, "Tracking SOS " + sosId + " stopped: kept " + session.getWritten()
+                + " of " + session.getOffered() + " fixes");
+    }
+
+    private void onLocation(Location location) {
+        if (stopped || location == null) return;
+        long now = SystemClock.elapsedRealtime();
+        long ageMs = (SystemClock.elapsedRealtimeNanos() - location.getElapsedRealtimeNanos()) / 1_000_000;
+        session.offer(new TrackSession.Sample(location.getLatitude(), location.getLongitude(),
+                location.hasAccuracy() ? location.getAccuracy() : -1, location.getTime(), now - ageMs));
+        if (session.isFinished(now)) {
+            stop();
+            return;
+        }
+        scheduleFlush(now);
+    }
+
+    private void scheduleFlush(long now) {
+        long delayMs = session.msUntilFlush(now);
+        if (delayMs < 0 || writing) return;
+        workerHandler.removeCallbacks(flush);
+        workerHandler.postDelayed(flush, delayMs);
+    }
+
+    private void flush() {
+        if (stopped || writing) return;
+        long now = SystemClock.elapsedRealtime();
+        if (session.msUntilFlush(now) != 0) {
+            scheduleFlush(now);
+            return;
+        }
+        List<TrackSession.Sample> batch = session.drain(now);
+        Map<String, Object> update = new HashMap<>(4);
+        putPoints(update, batch);
+        writing = true;
+        document().update(update).addOnCompleteListener(workerHandler::post, task -> {
+            writing = false;
+            if (!task.isSuccessful()) {
+                Log.w(TAG, "Track write for " + sosId + " failed: " + task.getException());
+                if (!stopped) session.requeue(batch);
+            }
+            if (!stopped) scheduleFlush(SystemClock.elapsedRealtime());
+        });
+    }
+
+    private void putPoints(Map<String, Object> update, List<TrackSession.Sample> batch) {
+        Object[] points = new Object[batch.size()];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = point(batch.get(i));
+        }
+        update.put("points", FieldValue.arrayUnion(points));
+        update.put("lastPoint", points[points.length - 1]);
+        update.put("updatedAt", FieldValue.serverTimestamp());
+    }
+
+    private static Map<String, Object> point(TrackSession.Sample sample) {
+        Map<String, Object> point = new HashMap<>(8);
+        point.put("lat", sample.latitude);
+        point.put("lng", sample.longitude);
+        point.put("accuracy", sample.accuracyM);
+        point.put("atMs", sample.atWallMs);
+        return point;
+    }
+
+    private DocumentReference document() {
+        return firestore.collection(COLLECTION).document(sosId);
+    }
+}
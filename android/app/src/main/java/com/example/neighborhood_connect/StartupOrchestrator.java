@@ -0,0 +1,225 @@
+package com.example.neighborhood_connect;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.core.content.ContextCompat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.flutter.embedding.engine.FlutterEngine;
+import io.flutter.embedding.engine.FlutterEngineCache;
+import io.flutter.embedding.engine.dart.DartExecutor;
+
+/**
+ * Orders cold-start work so the first Flutter frame is not queued behind native setup.
+ *
+ * When the process is started to show UI, the Flutter engine is created and its Dart
+ * entrypoint started from {@link android.app.Application#onCreate}, then handed to
+ * MainActivity through {@link FlutterEngineCache}. A process started by the boot
+ * receiver or the service host skips that, so background starts do not pay for an
+ * engine they never show; MainActivity creates it on demand instead. The service host
+ * is started only after the first frame is drawn, or {@link #FIRST_FRAME_FALLBACK_MS}
+ * into a resumed MainActivity that has drawn none. When MainActivity finishes, the
+ * engine is destroyed so a process kept alive by the service host does not hold the
+ * Dart heap; the next launch creates a fresh one and runs the entrypoint again.
+ *
+ * The engine is created without automatic plugin registration: only the core plugins
+ * are registered before the entrypoint runs, the rest after the first frame (see
+ * {@link LazyPluginRegistrant}).
+ *
+ * Time to first frame is kept for the last {@link #MAX_SAMPLES} starts of each kind:
+ * "cold" is measured from process start (engine pre-warmed), "warmProcess" from
+ * MainActivity creation when the process was already running for the service host
+ * (engine created on demand). The README describes measuring the previous startup
+ * path for comparison.
+ */
+public final class StartupOrchestrator {
+    private static final String TAG = "StartupOrchestrator";
+    public static final String ENGINE_ID = "main";
+    private static final String PREFS_NAME = "startup_metrics";
+    private static final int MAX_SAMPLES = 20;
+    public static final long FIRST_FRAME_FALLBACK_MS = 5000;
+
+    // Fallback process start time below API 24
+    private static long applicationCreatedAtMs;
+    private static boolean launchedForUi;
+    private static long activityCreatedAtMs;
+    private static volatile boolean engineCreated;
+    private static boolean firstFrameHandled;
+
+    private StartupOrchestrator() {
+    }
+
+    static void onApplicationCreate(Context context) {
+        applicationCreatedAtMs = SystemClock.elapsedRealtime();
+        launchedForUi = isLaunchedForUi();
+        if (launchedForUi) {
+            createEngine(context);
+        }
+    }
+
+    /**
+     * Called from MainActivity.onCreate before the engine is attached.
+     */
+    public static void onActivityCreate() {
+        if (activityCreatedAtMs == 0) activityCreatedAtMs = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * The id of the cached engine MainActivity should attach to, creating it now if
+     * the application did not pre-warm one.
+     */
+    public static String ensureEngine(Context context) {
+        if (!FlutterEngineCache.getInstance().contains(ENGINE_ID)) {
+            createEngine(context);
+        }
+        return ENGINE_ID;
+    }
+
+    /**
+     * Destroys the cached engine, if any. Called when MainActivity finishes; the
+     * activity has detached from the engine by then.
+     */
+    public static void releaseEngine() {
+        FlutterEngine engine = FlutterEngineCache.getInstance().get(ENGINE_ID);
+        if (engine == null) return;
+        FlutterEngineCache.getInstance().remove(ENGINE_ID);
+        LazyPluginRegistrant.reset();
+        engine.destroy();
+        Log.d(TAG, "Flutter engine released");
+    }
+
+    /**
+     * Whether this process has created the Flutter engine. False in a process started
+     * for the service host alone, which is what the headless SOS path runs in.
+     */
+    public static boolean hasEngine() {
+        return engineCreated;
+    }
+
+    public static long processAgeMs() {
+        return SystemClock.elapsedRealtime() - processStartMs();
+    }
+
+    /**
+     * Called when an activity's first frame is on screen: starts the deferred native
+     * work, and records the startup time for the first activity of the process.
+     */
+    public static void onFirstFrame(Context context) {
+        FlutterEngine engine = FlutterEngineCache.getInstance().get(ENGINE_ID);
+        if (engine != null) LazyPluginRegistrant.registerDeferred(engine);
+        if (!firstFrameHandled) {
+            firstFrameHandled = true;
+            long now = SystemClock.elapsedRealtime();
+            if (launchedForUi) {
+                recordSample(context, "cold", now - processStartMs());
+            } else {
+                recordSample(context, "warm_process", now - activityCreatedAtMs);
+            }
+        }
+        startServiceHost(context);
+    }
+
+    /**
+     * Called when MainActivity has been resumed for {@link #FIRST_FRAME_FALLBACK_MS}
+     * without drawing a frame: starts the service host anyway. No startup sample is
+     * recorded.
+     */
+    public static void onFirstFrameMissed(Context context) {
+        Log.w(TAG, "No first frame after " + FIRST_FRAME_FALLBACK_MS + " ms, starting the service host");
+        startServiceHost(context);
+    }
+
+    /**
+     * Starts the service host; it runs SOS monitoring if enabled and the notification
+     * listener if a user is signed in, and stops itself when neither is needed.
+     */
+    public static void startServiceHost(Context context) {
+        ContextCompat.startForegroundService(context, new Intent(context, ScreenMonitorService.class));
+    }
+
+    /**
+     * {@code {coldCount, coldP50Ms, warmProcessCount, warmProcessP50Ms, lastMs}}.
+     */
+    public static Map<String, Object> getStartupStats(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        Map<String, Object> stats = new HashMap<>();
+        putMedian(stats, "cold", samples(preferences, "cold"));
+        putMedian(stats, "warmProcess", samples(preferences, "warm_process"));
+        stats.put("lastMs", preferences.getLong("last_ms", -1));
+        return stats;
+    }
+
+    private static void createEngine(Context context) {
+        long startedAt = SystemClock.elapsedRealtime();
+        // Plugins are registered in tiers rather than all at once by the engine
+        FlutterEngine engine = new FlutterEngine(context.getApplicationContext(), null, false);
+        LazyPluginRegistrant.registerCore(engine);
+        engine.getDartExecutor().executeDartEntrypoint(DartExecutor.DartEntrypoint.createDefault());
+        FlutterEngineCache.getInstance().put(ENGINE_ID, engine);
+        engineCreated = true;
+        Log.d(TAG, "Flutter engine created in " + (SystemClock.elapsedRealtime() - startedAt) + " ms");
+    }
+
+    private static boolean isLaunchedForUi() {
+        ActivityManager.RunningAppProcessInfo info = new ActivityManager.RunningAppProcessInfo();
+        ActivityManager.getMyMemoryState(info);
+        return info.importance <= ActivityManager.RunningAppProcessInfo.IMPORTANCE_FOREGROUND;
+    }
+
+    private static long processStartMs() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            return Process.getStartElapsedRealtime();
+        }
+        return applicationCreatedAtMs;
+    }
+
+    private static void recordSample(Context context, String mode, long ttffMs) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        List<Long> samples = samples(preferences, mode);
+        samples.add(ttffMs);
+        while (samples.size() > MAX_SAMPLES) samples.remove(0);
+        preferences.edit()
+                .putString(mode, TextUtils.join(",", samples))
+                .putLong("last_ms", ttffMs)
+                .apply();
+        Log.d(TAG, "Time to first frame (" + mode + "): " + ttffMs + " ms");
+    }
+
+    private static List<Long> samples(SharedPreferences preferences, String mode) {
+        List<Long> samples = new ArrayList<>();
+        String joined = preferences.getString(mode, "");
+        if (joined.isEmpty()) return samples;
+        for (String sample : joined.split(",")) {
+            try {
+                samples.add(Long.parseLong(sample));
+            } catch (NumberFormatException ignored) {
+                // Skip a corrupt entry
+            }
+        }
+        return samples;
+    }
+
+    private static void putMedian(Map<String, Object> stats, String key, List<Long> samples) {
+        stats.put(key + "Count", samples.size());
+        if (samples.isEmpty()) {
+            stats.put(key + "P50Ms", -1L);
+            return;
+        }
+        Long[] sorted = samples.toArray(new Long[0]);
+        Arrays.sort(sorted);
+        stats.put(key + "P50Ms", sorted[(sorted.length - 1) / 2]);
+    }
+}
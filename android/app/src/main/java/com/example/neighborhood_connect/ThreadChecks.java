@@ -0,0 +1,29 @@
+package com.example.neighborhood_connect;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.os.Looper;
+import android.util.Log;
+
+/**
+ * Debug-build guard that SOS work stays off the main thread, which it shares with the
+ * Flutter embedding. A violation is logged with its stack trace; release builds skip
+ * the check entirely.
+ */
+public final class ThreadChecks {
+    private static final String TAG = "ThreadChecks";
+    private static volatile boolean enabled;
+
+    private ThreadChecks() {
+    }
+
+    public static void init(Context context) {
+        enabled = (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+
+    public static void checkNotMainThread(String work) {
+        if (enabled && Looper.myLooper() == Looper.getMainLooper()) {
+            Log.w(TAG, work + " ran on the main thread", new Throwable(work));
+        }
+    }
+}
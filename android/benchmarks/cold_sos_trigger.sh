@@ -0,0 +1,49 @@
+#!/usr/bin/env bash
+# Trigger-path latency when the app process is cold: each run force-stops the app,
+# starts only the service host with an SOS trigger (no activity, no Flutter engine)
+# and reads back the trace the service logs when the run finishes.
+#
+# Needs an emulator or userdebug device, since starting the unexported service takes
+# adb root. SOS must be enabled and a user signed in. Each run sends a real SOS, so
+# use a test account whose contacts are emulator numbers.
+#
+#   ./cold_sos_trigger.sh [runs]    # default 10
+#
+# Per run it prints, in ms: process start to trigger, then trigger to local
+# notification, first SMS sent, first Firestore commit and finished.
+set -euo pipefail
+
+PKG=com.example.neighborhood_connect
+RUNS=${1:-10}
+TIMEOUT_S=120
+
+adb root >/dev/null
+adb wait-for-device
+
+# Offset of the first mark with code $2 in trace marks $1, or - if absent
+offset() {
+  echo "$1" | tr ',' '\n' | awk -v c="$2" 'substr($0, 1, 1) == c { split(substr($0, 2), f, "."); print f[1]; found = 1; exit }
+    END { if (!found) print "-" }'
+}
+
+# Detail of the first mark with code $2
+detail() {
+  echo "$1" | tr ',' '\n' | awk -v c="$2" 'substr($0, 1, 1) == c { split(substr($0, 2), f, "."); print f[2]; found = 1; exit }
+    END { if (!found) print "-" }'
+}
+
+printf '%-4s %10s %8s %8s %10s %9s\n' run startToTrig notify sms firestore finished
+for run in $(seq "$RUNS"); do
+  adb shell am force-stop "$PKG"
+  adb logcat -c
+  adb shell am start-foreground-service -n "$PKG/.ScreenMonitorService" -a ACTION_TRIGGER_SOS >/dev/null
+  line=$(timeout "$TIMEOUT_S" adb logcat -v raw -s SosTraceRecorder:D | grep -m1 'SOS trace:' || true)
+  if [ -z "$line" ]; then
+    echo "run $run: no trace within ${TIMEOUT_S}s" >&2
+    continue
+  fi
+  # id;startedAtWallMs;dropped;marks
+  marks=$(echo "$line" | tr -d '\r' | sed 's/^SOS trace: //' | cut -d';' -f4)
+  printf '%-4s %10s %8s %8s %10s %9s\n' "$run" "$(detail "$marks" H)" "$(offset "$marks" N)" \
+    "$(offset "$marks" S)" "$(offset "$marks" F)" "$(offset "$marks" X)"
+done
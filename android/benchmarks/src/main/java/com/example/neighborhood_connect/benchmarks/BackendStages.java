@@ -0,0 +1,128 @@
+package com.example.neighborhood_connect.benchmarks;
+
+import com.example.neighborhood_connect.FanOutResult;
+import com.example.neighborhood_connect.NearbyResponders;
+import com.example.neighborhood_connect.RecipientResolver;
+import com.example.neighborhood_connect.SmsSink;
+import com.example.neighborhood_connect.SosBackend;
+import com.example.neighborhood_connect.SosFix;
+import com.example.neighborhood_connect.SosPipeline;
+import com.example.neighborhood_connect.SosTrace;
+import com.example.neighborhood_connect.Stage;
+import com.example.neighborhood_connect.TracePoint;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pipeline stages straight over a {@link SosBackend}: the trace marks of the app's
+ * stages without its journal, permission checks and status notifications. Recipients
+ * are resolved through a resolver shared by every run, as the app's is.
+ */
+final class BackendStages implements SosPipeline.Stages {
+    private final SosBackend backend;
+    private final RecipientResolver resolver;
+    private final SosTrace trace;
+    private final Map<String, LongAdder> failures;
+    private final LongAdder savedWrites;
+
+    /**
+     * @param failures    incremented per stage name when a stage fails
+     * @param savedWrites incremented by the writes each resolution saved
+     */
+    BackendStages(SosBackend backend, RecipientResolver resolver, SosTrace trace,
+                  Map<String, LongAdder> failures, LongAdder savedWrites) {
+        this.backend = backend;
+        this.resolver = resolver;
+        this.trace = trace;
+        this.failures = failures;
+        this.savedWrites = savedWrites;
+    }
+
+    @Override
+    public Stage<List<String>> fetchContacts(String userId) {
+        return backend.contacts.fetchContacts(userId);
+    }
+
+    @Override
+    public Stage<List<String>> fetchRecipients(String userId) {
+        return backend.recipients.fetchRecipients(userId);
+    }
+
+    @Override
+    public Stage<NearbyResponders.Result> findNearby(String userId, SosFix fix) {
+        return backend.recipients.findNearby(userId, fix);
+    }
+
+    @Override
+    public Stage<Map<String, Boolean>> lookupStatus(List<String> userIds) {
+        return backend.recipients.lookupStatus(userIds);
+    }
+
+    @Override
+    public Stage<RecipientResolver.Resolution> resolveRecipients(String userId, List<String> recipientIds) {
+        return resolver.resolve(userId, recipientIds).addListener(resolved -> {
+            if (resolved.isSuccessful()) savedWrites.add(resolved.getValue().savedWrites());
+        });
+    }
+
+    @Override
+    public void acquireLocation(Stage<SosFix> firstFix, Stage<SosFix> refinedFix) {
+        backend.location.acquireLocation(firstFix, refinedFix);
+    }
+
+    @Override
+    public Stage<Void> sendSms(List<String> phoneNumbers, SosFix fix, boolean followUp) {
+        Stage<?>[] sends = new Stage<?>[phoneNumbers.size()];
+        for (int i = 0; i < sends.length; i++) {
+            int index = i;
+            Stage<Void> sent = new Stage<>();
+            backend.sms.dispatch(phoneNumbers.get(i), fix.message, new SmsSink.Callback() {
+                @Override
+                public void onSent(long latencyMs, int attempts) {
+                    trace.mark(TracePoint.SMS_SENT, index);
+                    sent.complete(null);
+                }
+
+                @Override
+                public void onDelivered(long latencyMs) {
+                    trace.mark(TracePoint.SMS_DELIVERED, index);
+                }
+
+                @Override
+                public void onFailed(int resultCode, int attempts) {
+                    trace.mark(TracePoint.SMS_FAILED, index);
+                    sent.complete(null);
+                }
+
+                @Override
+                public void onDeliveryFailed(int status) {
+                    trace.mark(TracePoint.SMS_FAILED, index);
+                }
+            });
+            sends[i] = sent;
+        }
+        return Stage.whenAll(sends);
+    }
+
+    @Override
+    public Stage<Void> saveNotifications(String userId, List<String> recipientIds, String locationUrl) {
+        Stage<Void> stage = new Stage<>();
+        backend.notifications.write(userId, recipientIds, locationUrl, trace).addListener(fanOut -> {
+            FanOutResult result = fanOut.getValue();
+            if (result.isComplete()) {
+                stage.complete(null);
+            } else {
+                stage.fail(new IllegalStateException(result.failed + " of " + result.recipients
+                        + " notifications not saved", result.firstError));
+            }
+        });
+        return stage;
+    }
+
+    @Override
+    public void onStageFailed(String stage, Throwable error) {
+        failures.computeIfAbsent(stage, name -> new LongAdder()).increment();
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.neighborhood_connect.benchmarks;
+
+import com.example.neighborhood_connect.BatchPlanner;
+import com.example.neighborhood_connect.FanOutResult;
+import com.example.neighborhood_connect.NearbyResponders;
+import com.example.neighborhood_connect.RecipientSource;
+import com.example.neighborhood_connect.SmsSink;
+import com.example.neighborhood_connect.SosBackend;
+import com.example.neighborhood_connect.SosFix;
+import com.example.neighborhood_connect.SosMessages;
+import com.example.neighborhood_connect.SosTrace;
+import com.example.neighborhood_connect.Stage;
+import com.example.neighborhood_connect.TracePoint;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link SosBackend} with no device or network behind it. Every user has the same
+ * number of contacts, recipients and nearby neighbours, and each call completes on
+ * {@code timer} after a delay drawn from its {@link LatencyProfile}, failing at the
+ * profile's rate. Notifications are committed in batches the way the Firestore
+ * writer does, so fan-out size shows up in the latency. A fixed fraction of the
+ * recipient accounts is inactive, so recipient resolution has something to drop.
+ */
+public final class InMemoryBackend {
+    public static final String CONTACTS = "contacts";
+    public static final String RECIPIENTS = "recipients";
+    public static final String NEARBY = "nearby";
+    public static final String LOCATION = "location";
+    public static final String SMS = "sms";
+    public static final String COMMIT = "commit";
+    public static final String STATUS = "status";
+
+    private static final double LATITUDE = 51.5074;
+    private static final double LONGITUDE = -0.1278;
+
+    private final ScheduledExecutorService timer;
+    private final Map<String, LatencyProfile> profiles;
+    private final List<String> contacts;
+    private final List<String> recipients;
+    private final List<String> nearby;
+    private final double inactiveFraction;
+
+    final AtomicLong smsSent = new AtomicLong();
+    final AtomicLong smsFailed = new AtomicLong();
+    final AtomicLong commits = new AtomicLong();
+    final AtomicLong documentsWritten = new AtomicLong();
+    final AtomicLong statusQueries = new AtomicLong();
+
+    /**
+     * @param profiles latency per call, keyed by the constants above; calls without
+     *                 one complete at once
+     * @param inactiveFraction share of recipient accounts reported inactive, picked
+     *                         by id so the same ones are inactive on every lookup
+     */
+    public InMemoryBackend(ScheduledExecutorService timer, Map<String, LatencyProfile> profiles,
+                           int contactsPerUser, int recipientsPerUser, int nearbyPerSos, double inactiveFraction) {
+        this.timer = timer;
+        this.profiles = profiles;
+        this.inactiveFraction = inactiveFraction;
+        contacts = ids("+1555000", contactsPerUser);
+        recipients = ids("user-", recipientsPerUser);
+        nearby = ids("neighbour-", nearbyPerSos);
+    }
+
+    public SosBackend backend() {
+        return new SosBackend(this::fetchContacts, new Recipients(), this::acquireLocation,
+                new Sms(), this::write);
+    }
+
+    private Stage<List<String>> fetchContacts(String userId) {
+        return later(CONTACTS, contacts);
+    }
+
+    private void acquireLocation(Stage<SosFix> firstFix, Stage<SosFix> refinedFix) {
+        String locationUrl = SosMessages.locationUrl(LATITUDE, LONGITUDE);
+        later(LOCATION, new SosFix(locationUrl, SosMessages.sosMessage(locationUrl), LATITUDE, LONGITUDE))
+                .addListener(fix -> {
+                    if (fix.isSuccessful()) {
+                        firstFix.complete(fix.getValue());
+                    } else {
+                        firstFix.fail(fix.getError());
+                    }
+                    // The first fix is always accurate enough, so there is no follow-up
+                    refinedFix.fail(new CancellationException("first fix already accurate"));
+                });
+    }
+
+    private Stage<FanOutResult> write(String senderId, List<String> recipientIds, String locationUrl,
+                                      SosTrace trace) {
+        List<List<String>> chunks = BatchPlanner.chunk(recipientIds, BatchPlanner.MAX_BATCH_OPS);
+        Stage<FanOutResult> result = new Stage<>();
+        if (chunks.isEmpty()) {
+            result.complete(new FanOutResult(0, 0, 0, 0, 0, null));
+            return result;
+        }
+        new FanOut(recipientIds.size(), chunks, trace, result).start();
+        return result;
+    }
+
+    /**
+     * A stage completed with {@code value} after a delay from the named profile, or
+     * failed at its rate.
+     */
+    private <T> Stage<T> later(String call, T value) {
+        LatencyProfile profile = profiles.getOrDefault(call, LatencyProfile.INSTANT);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean fails = profile.sampleFailure(random);
+        Stage<T> stage = new Stage<>();
+        Runnable finish = () -> {
+            if (fails) {
+                stage.fail(new IOException("Simulated " + call + " failure"));
+            } else {
+                stage.complete(value);
+            }
+        };
+        long delayMs = profile.sampleMs(random);
+        if (delayMs == 0) {
+            finish.run();
+        } else {
+            timer.schedule(finish, delayMs, TimeUnit.MILLISECONDS);
+        }
+        return stage;
+    }
+
+    private static List<String> ids(String prefix, int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(prefix + i);
+        }
+        return Collections.unmodifiableList(ids);
+    }
+
+    private class Recipients implements RecipientSource {
+        @Override
+        public Stage<List<String>> fetchRecipients(String userId) {
+            return later(RECIPIENTS, recipients);
+        }
+
+        @Override
+        public Stage<NearbyResponders.Result> findNearby(String userId, SosFix fix) {
+            return later(NEARBY, new NearbyResponders.Result(nearby, 9, nearby.size(), 0));
+        }
+
+        @Override
+        public Stage<Map<String, Boolean>> lookupStatus(List<String> userIds) {
+            statusQueries.incrementAndGet();
+            Map<String, Boolean> statuses = new HashMap<>();
+            for (String userId : userIds) {
+                // Spread the hash, since ids that differ only in a trailing digit hash to neighbours
+                statuses.put(userId, Math.floorMod(userId.hashCode() * 0x9E3779B9, 1000) >= inactiveFraction * 1000);
+            }
+            return later(STATUS, statuses);
+        }
+    }
+
+    private class Sms implements SmsSink {
+        @Override
+        public void dispatch(String phoneNumber, String message, Callback callback) {
+            long startedAt = System.nanoTime();
+            later(SMS, null).addListener(sent -> {
+                long latencyMs = (System.nanoTime() - startedAt) / 1_000_000;
+                if (sent.isSuccessful()) {
+                    smsSent.incrementAndGet();
+                    callback.onSent(latencyMs, 1);
+                } else {
+                    smsFailed.incrementAndGet();
+                    callback.onFailed(1, 1);
+                }
+            });
+        }
+    }
+
+    /**
+     * Commits chunks with at most {@link BatchPlanner#MAX_IN_FLIGHT_BATCHES} in flight,
+     * like the Firestore writer.
+     */
+    private class FanOut {
+        private final int recipients;
+        private final int batches;
+        private final Queue<List<String>> pending;
+        private final SosTrace trace;
+        private final Stage<FanOutResult> result;
+        private int inFlight;
+        private int committed;
+        private int written;
+        private int failed;
+        private Throwable firstError;
+
+        FanOut(int recipients, List<List<String>> chunks, SosTrace trace, Stage<FanOutResult> result) {
+            this.recipients = recipients;
+            this.batches = chunks.size();
+            this.pending = new ArrayDeque<>(chunks);
+            this.trace = trace;
+            this.result = result;
+        }
+
+        void start() {
+            List<List<String>> toCommit = new ArrayList<>();
+            synchronized (this) {
+                while (inFlight < BatchPlanner.MAX_IN_FLIGHT_BATCHES && !pending.isEmpty()) {
+                    inFlight++;
+                    toCommit.add(pending.poll());
+                }
+            }
+            // Outside the lock, since an instant profile completes synchronously
+            for (List<String> chunk : toCommit) {
+                later(COMMIT, chunk.size()).addListener(commit -> onCommitted(chunk.size(), commit.getError()));
+            }
+        }
+
+        private void onCommitted(int size, Throwable error) {
+            commits.incrementAndGet();
+            FanOutResult finished = null;
+            synchronized (this) {
+                inFlight--;
+                committed++;
+                if (error == null) {
+                    written += size;
+                    documentsWritten.addAndGet(size);
+                    trace.mark(TracePoint.FIRESTORE_COMMIT, size);
+                } else {
+                    failed += size;
+                    if (firstError == null) firstError = error;
+                }
+                if (committed == batches) {
+                    finished = new FanOutResult(recipients, batches, recipients, written, failed, firstError);
+                }
+            }
+            if (finished != null) {
+                result.complete(finished);
+            } else {
+                start();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.neighborhood_connect.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Simulated latency and failure rate of one backend call. Latencies are log-normal
+ * with the given median and 99th percentile, which is close to what network calls
+ * look like; a zero median means the call completes synchronously.
+ */
+public final class LatencyProfile {
+    public static final LatencyProfile INSTANT = new LatencyProfile(0, 0, 0);
+    // z-score of the 99th percentile of a standard normal
+    private static final double Z_P99 = 2.326;
+
+    public final long medianMs;
+    public final long p99Ms;
+    public final double failureRate;
+    private final double sigma;
+
+    public LatencyProfile(long medianMs, long p99Ms, double failureRate) {
+        if (medianMs < 0 || p99Ms < medianMs) {
+            throw new IllegalArgumentException("Need 0 <= median <= p99: " + medianMs + ", " + p99Ms);
+        }
+        if (failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException("failureRate must be in [0, 1]: " + failureRate);
+        }
+        this.medianMs = medianMs;
+        this.p99Ms = p99Ms;
+        this.failureRate = failureRate;
+        sigma = medianMs == 0 ? 0 : Math.log((double) p99Ms / medianMs) / Z_P99;
+    }
+
+    /**
+     * Parses {@code median/p99/failureRate}, e.g. {@code 40/400/0.01}.
+     */
+    public static LatencyProfile parse(String spec) {
+        String[] parts = spec.split("/");
+        if (parts.length != 3) throw new IllegalArgumentException("Expected median/p99/failureRate: " + spec);
+        return new LatencyProfile(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Double.parseDouble(parts[2]));
+    }
+
+    public long sampleMs(Random random) {
+        if (medianMs == 0) return 0;
+        return Math.round(medianMs * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    public boolean sampleFailure(Random random) {
+        return failureRate > 0 && random.nextDouble() < failureRate;
+    }
+
+    @Override
+    public String toString() {
+        return medianMs + "/" + p99Ms + "/" + failureRate;
+    }
+}
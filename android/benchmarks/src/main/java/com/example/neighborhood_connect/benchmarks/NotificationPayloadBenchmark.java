@@ -0,0 +1,60 @@
+package com.example.neighborhood_connect.benchmarks;
+
+import com.example.neighborhood_connect.NotificationPayloads;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notification payload maps: one per recipient (the copies model) against a single
+ * shared event (the fan-out-on-read model), per SOS.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NotificationPayloadBenchmark {
+    private static final String LOCATION_URL = "https://www.google.com/maps?q=51.507351,-0.127758";
+
+    @Param({"10", "200", "2000"})
+    public int recipients;
+
+    private List<String> recipientIds;
+    private final Object timestamp = new Object();
+
+    @Setup
+    public void setUp() {
+        recipientIds = new ArrayList<>(recipients);
+        for (int i = 0; i < recipients; i++) {
+            recipientIds.add("user-" + i);
+        }
+    }
+
+    @Benchmark
+    public void perRecipientCopies(Blackhole blackhole) {
+        for (String recipientId : recipientIds) {
+            blackhole.consume(NotificationPayloads.sosNotification(recipientId, "sender", "sos", LOCATION_URL, timestamp));
+        }
+    }
+
+    @Benchmark
+    public Object sharedEvent() {
+        return NotificationPayloads.sosEvent("sender", "sos", recipientIds, LOCATION_URL, timestamp);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.neighborhood_connect.benchmarks;
+
+import com.example.neighborhood_connect.PressPattern;
+import com.example.neighborhood_connect.PressPatternDetector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScreenReceiver windowing: the ring-buffer detector against the LinkedList&lt;Long&gt;
+ * window it replaced. Presses arrive every 700 ms, so the 5-in-3s pattern matches
+ * periodically and both the hit and miss paths are exercised.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PressPatternDetectorBenchmark {
+    private static final long PRESS_INTERVAL_MS = 700;
+    private static final int LEGACY_THRESHOLD = 5;
+    private static final long LEGACY_WINDOW_MS = 3000;
+
+    private PressPatternDetector detector;
+    private Queue<Long> legacyTimestamps;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        detector = new PressPatternDetector(new PressPattern(5, 3000, 50, 0, 0));
+        legacyTimestamps = new LinkedList<>();
+        now = 0;
+    }
+
+    @Benchmark
+    public boolean ringBufferDetector() {
+        now += PRESS_INTERVAL_MS;
+        return detector.onPress(now);
+    }
+
+    @Benchmark
+    public boolean legacyLinkedListWindow() {
+        now += PRESS_INTERVAL_MS;
+        while (!legacyTimestamps.isEmpty() && now - legacyTimestamps.peek() > LEGACY_WINDOW_MS) {
+            legacyTimestamps.poll();
+        }
+        legacyTimestamps.offer(now);
+        if (legacyTimestamps.size() == LEGACY_THRESHOLD) {
+            legacyTimestamps.clear();
+            return true;
+        }
+        return false;
+    }
+}
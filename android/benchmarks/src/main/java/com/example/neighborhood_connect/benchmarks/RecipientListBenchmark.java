@@ -0,0 +1,64 @@
+package com.example.neighborhood_connect.benchmarks;
+
+import com.example.neighborhood_connect.BatchPlanner;
+import com.example.neighborhood_connect.PhoneNumbers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contact and recipient list processing: number normalization, id dedupe and batch
+ * chunking. Inputs contain about 10% duplicates and mixed number formatting.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RecipientListBenchmark {
+    @Param({"10", "200", "2000"})
+    public int size;
+
+    private List<String> rawNumbers;
+    private List<String> rawIds;
+
+    @Setup
+    public void setUp() {
+        rawNumbers = new ArrayList<>(size);
+        rawIds = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int n = i % 10 == 9 ? i - 1 : i;
+            rawNumbers.add(n % 2 == 0 ? "+44 (20) 7946-" + n : "0044 20 7946 " + n);
+            rawIds.add(" user-" + n + " ");
+        }
+    }
+
+    @Benchmark
+    public List<String> normalizeNumbers() {
+        return PhoneNumbers.normalizeAll(rawNumbers);
+    }
+
+    @Benchmark
+    public List<String> dedupeRecipientIds() {
+        return PhoneNumbers.dedupeIds(rawIds);
+    }
+
+    @Benchmark
+    public List<List<String>> dedupeAndChunk() {
+        return BatchPlanner.chunk(PhoneNumbers.dedupeIds(rawIds), BatchPlanner.MAX_BATCH_OPS);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.neighborhood_connect.benchmarks;
+
+import com.example.neighborhood_connect.MonotonicClock;
+import com.example.neighborhood_connect.RecipientResolver;
+import com.example.neighborhood_connect.SosBackend;
+import com.example.neighborhood_connect.SosExecutors;
+import com.example.neighborhood_connect.SosPipeline;
+import com.example.neighborhood_connect.SosTrace;
+import com.example.neighborhood_connect.TracePoint;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Offline load test of the SOS pipeline: fires simulated triggers at an
+ * {@link InMemoryBackend} with a bounded number in flight and reports throughput and
+ * latency percentiles per stage.
+ *
+ * Arguments are {@code key=value}:
+ * <ul>
+ *   <li>{@code triggers} (5000), {@code concurrency} (256)</li>
+ *   <li>{@code contacts} (3), {@code recipients} (50), {@code nearby} (10): fan-out per SOS</li>
+ *   <li>{@code inactive} (0.1): share of recipient accounts that resolution drops</li>
+ *   <li>{@code profile}: {@code instant}, {@code typical} (default) or {@code flaky}</li>
+ *   <li>{@code contactsLatency}, {@code recipientsLatency}, {@code nearbyLatency},
+ *       {@code locationLatency}, {@code smsLatency}, {@code commitLatency}, {@code statusLatency}:
+ *       {@code median/p99/failureRate} overrides, e.g. {@code smsLatency=400/3000/0.01}</li>
+ * </ul>
+ * {@code instant} measures the pipeline's own overhead; the other two approximate a
+ * healthy and a degraded network.
+ */
+public final class SosLoadTest {
+    private static final String[] CALLS = {InMemoryBackend.CONTACTS, InMemoryBackend.RECIPIENTS,
+            InMemoryBackend.NEARBY, InMemoryBackend.LOCATION, InMemoryBackend.SMS, InMemoryBackend.COMMIT,
+            InMemoryBackend.STATUS};
+    private static final TracePoint[] REPORTED = {TracePoint.LOCATION_FIX, TracePoint.SMS_SENT,
+            TracePoint.RECIPIENTS_FILTERED, TracePoint.FIRESTORE_COMMIT, TracePoint.FINISHED};
+    private static final int TIMER_THREADS = 4;
+
+    private SosLoadTest() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Expected key=value: " + arg);
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int triggers = Integer.parseInt(options.getOrDefault("triggers", "5000"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "256"));
+        int contacts = Integer.parseInt(options.getOrDefault("contacts", "3"));
+        int recipients = Integer.parseInt(options.getOrDefault("recipients", "50"));
+        int nearby = Integer.parseInt(options.getOrDefault("nearby", "10"));
+        double inactive = Double.parseDouble(options.getOrDefault("inactive", "0.1"));
+        String profile = options.getOrDefault("profile", "typical");
+        Map<String, LatencyProfile> profiles = profile(profile);
+        for (String call : CALLS) {
+            String override = options.get(call + "Latency");
+            if (override != null) profiles.put(call, LatencyProfile.parse(override));
+        }
+
+        ScheduledExecutorService timer = Executors.newScheduledThreadPool(TIMER_THREADS,
+                SosExecutors.named("backend-timer"));
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+                SosExecutors.named("sos-timeout"));
+        InMemoryBackend memory = new InMemoryBackend(timer, profiles, contacts, recipients, nearby, inactive);
+        SosBackend backend = memory.backend();
+        RecipientResolver resolver = new RecipientResolver(backend.recipients, MonotonicClock.SYSTEM_NANO);
+        Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+        LongAdder savedWrites = new LongAdder();
+        long[][] offsets = new long[REPORTED.length][triggers];
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger finished = new AtomicInteger();
+
+        System.out.printf(Locale.ROOT, "SOS load test: %d triggers, %d in flight, %d contacts + %d recipients"
+                        + " + %d nearby per SOS, profile %s%n", triggers, concurrency, contacts, recipients,
+                nearby, profile);
+        for (String call : CALLS) {
+            System.out.printf(Locale.ROOT, "  %-10s %s%n", call, profiles.getOrDefault(call, LatencyProfile.INSTANT));
+        }
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < triggers; i++) {
+            inFlight.acquire();
+            int run = i;
+            SosTrace trace = new SosTrace("load-" + i, System.currentTimeMillis(),
+                    () -> System.nanoTime() / 1_000_000);
+            trace.mark(TracePoint.TRIGGER_RECEIVED);
+            new SosPipeline(new BackendStages(backend, resolver, trace, failures, savedWrites), scheduler)
+                    .run("user-" + i, trace)
+                    .addListener(done -> {
+                        for (int p = 0; p < REPORTED.length; p++) {
+                            offsets[p][run] = trace.firstOffset(REPORTED[p]);
+                        }
+                        finished.incrementAndGet();
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(concurrency);
+        double elapsedS = (System.nanoTime() - startedAt) / 1e9;
+        timer.shutdownNow();
+        scheduler.shutdownNow();
+
+        System.out.printf(Locale.ROOT, "%nCompleted %d in %.2f s: %.1f SOS/s%n", finished.get(), elapsedS,
+                finished.get() / elapsedS);
+        System.out.printf(Locale.ROOT, "%-18s %7s %7s %7s %7s %7s   (ms from trigger)%n",
+                "first", "count", "p50", "p95", "p99", "max");
+        for (int p = 0; p < REPORTED.length; p++) {
+            printPercentiles(REPORTED[p].name(), offsets[p]);
+        }
+        System.out.printf(Locale.ROOT, "%nSMS sent %d, failed %d; %d notifications written in %d commits%n",
+                memory.smsSent.get(), memory.smsFailed.get(), memory.documentsWritten.get(), memory.commits.get());
+        System.out.printf(Locale.ROOT, "Recipient resolution saved %d writes with %d status queries%n",
+                savedWrites.sum(), memory.statusQueries.get());
+        Map<String, Long> failed = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> failure : failures.entrySet()) {
+            failed.put(failure.getKey(), failure.getValue().sum());
+        }
+        System.out.println("Stage failures: " + (failed.isEmpty() ? "none" : failed));
+    }
+
+    private static void printPercentiles(String name, long[] samples) {
+        // Runs that never reached the point have offset -1
+        long[] reached = Arrays.stream(samples).filter(offset -> offset >= 0).sorted().toArray();
+        if (reached.length == 0) {
+            System.out.printf(Locale.ROOT, "%-18s %7d%n", name, 0);
+            return;
+        }
+        System.out.printf(Locale.ROOT, "%-18s %7d %7d %7d %7d %7d%n", name, reached.length,
+                percentile(reached, 50), percentile(reached, 95), percentile(reached, 99),
+                reached[reached.length - 1]);
+    }
+
+    /**
+     * Nearest-rank percentile of sorted samples.
+     */
+    static long percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static Map<String, LatencyProfile> profile(String name) {
+        Map<String, LatencyProfile> profiles = new HashMap<>();
+        switch (name) {
+            case "instant":
+                break;
+            case "typical":
+                profiles.put(InMemoryBackend.CONTACTS, new LatencyProfile(30, 250, 0));
+                profiles.put(InMemoryBackend.RECIPIENTS, new LatencyProfile(30, 250, 0));
+                profiles.put(InMemoryBackend.NEARBY, new LatencyProfile(60, 400, 0));
+                profiles.put(InMemoryBackend.LOCATION, new LatencyProfile(150, 2000, 0));
+                profiles.put(InMemoryBackend.SMS, new LatencyProfile(400, 3000, 0.01));
+                profiles.put(InMemoryBackend.COMMIT, new LatencyProfile(80, 600, 0.005));
+                profiles.put(InMemoryBackend.STATUS, new LatencyProfile(40, 300, 0));
+                break;
+            case "flaky":
+                profiles.put(InMemoryBackend.CONTACTS, new LatencyProfile(120, 4000, 0.02));
+                profiles.put(InMemoryBackend.RECIPIENTS, new LatencyProfile(120, 4000, 0.02));
+                profiles.put(InMemoryBackend.NEARBY, new LatencyProfile(250, 6000, 0.1));
+                profiles.put(InMemoryBackend.LOCATION, new LatencyProfile(800, 12000, 0.1));
+                profiles.put(InMemoryBackend.SMS, new LatencyProfile(1500, 20000, 0.05));
+                profiles.put(InMemoryBackend.COMMIT, new LatencyProfile(300, 8000, 0.05));
+                profiles.put(InMemoryBackend.STATUS, new LatencyProfile(150, 5000, 0.05));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown profile: " + name);
+        }
+        return profiles;
+    }
+}
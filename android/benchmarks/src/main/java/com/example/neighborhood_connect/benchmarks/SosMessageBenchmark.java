@@ -0,0 +1,41 @@
+package com.example.neighborhood_connect.benchmarks;
+
+import com.example.neighborhood_connect.SosMessages;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SOS SMS composition: location URL plus message text, for a fresh and a last-known fix.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SosMessageBenchmark {
+    public double latitude = 51.507351;
+    public double longitude = -0.127758;
+    public float accuracy = 84.5f;
+    public long ageMs = 42_000;
+
+    @Benchmark
+    public String freshFixMessage() {
+        return SosMessages.sosMessage(SosMessages.locationUrl(latitude, longitude));
+    }
+
+    @Benchmark
+    public String lastKnownFixMessage() {
+        return SosMessages.approximateSosMessage(SosMessages.locationUrl(latitude, longitude), accuracy, ageMs);
+    }
+}
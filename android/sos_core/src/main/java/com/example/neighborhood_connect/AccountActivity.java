@@ -0,0 +1,24 @@
+package com.example.neighborhood_connect;
+
+/**
+ * When an account still counts as a recipient. Devices refresh
+ * {@code users/{uid}.lastActive} every {@link #REFRESH_INTERVAL_MS} while their
+ * notification listener runs; an account last seen more than
+ * {@link #INACTIVE_AFTER_MS} ago is not sent SOS alerts it would never receive.
+ */
+public final class AccountActivity {
+    public static final long INACTIVE_AFTER_MS = 30L * 24 * 60 * 60 * 1000;
+    public static final long REFRESH_INTERVAL_MS = 12 * 60 * 60 * 1000;
+
+    private AccountActivity() {
+    }
+
+    /**
+     * Whether an account last seen at {@code lastSeenMs} is active at {@code nowMs}.
+     * An unknown last-seen time (zero or less) counts as active, so a missing field
+     * never costs a recipient an alert.
+     */
+    public static boolean isActive(long lastSeenMs, long nowMs) {
+        return lastSeenMs <= 0 || nowMs - lastSeenMs <= INACTIVE_AFTER_MS;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.neighborhood_connect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits fan-out work into Firestore-sized batches.
+ */
+public final class BatchPlanner {
+    /** Firestore rejects a WriteBatch with more than 500 operations. */
+    public static final int MAX_BATCH_OPS = 500;
+    /** Upper bound on batches committed at the same time. */
+    public static final int MAX_IN_FLIGHT_BATCHES = 3;
+
+    private BatchPlanner() {
+    }
+
+    public static <T> List<List<T>> chunk(List<T> items, int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be positive");
+        if (items.isEmpty()) return Collections.emptyList();
+        List<List<T>> chunks = new ArrayList<>((items.size() + chunkSize - 1) / chunkSize);
+        for (int start = 0; start < items.size(); start += chunkSize) {
+            chunks.add(items.subList(start, Math.min(items.size(), start + chunkSize)));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.neighborhood_connect;
+
+import java.util.List;
+
+/**
+ * Where the SOS contact numbers come from.
+ */
+public interface ContactSource {
+    /**
+     * The user's SOS numbers, normalized and deduped.
+     */
+    Stage<List<String>> fetchContacts(String userId);
+}
@@ -0,0 +1,35 @@
+package com.example.neighborhood_connect;
+
+/**
+ * Aggregated outcome of a notification fan-out. {@code written} and {@code failed}
+ * count recipients, whichever document model was used.
+ */
+public final class FanOutResult {
+    public final int recipients;
+    public final int batches;
+    /** Documents created, which is the recipient count for per-recipient copies. */
+    public final int documents;
+    public final int written;
+    public final int failed;
+    public final Throwable firstError;
+
+    public FanOutResult(int recipients, int batches, int documents, int written, int failed,
+                        Throwable firstError) {
+        this.recipients = recipients;
+        this.batches = batches;
+        this.documents = documents;
+        this.written = written;
+        this.failed = failed;
+        this.firstError = firstError;
+    }
+
+    public boolean isComplete() {
+        return failed == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "FanOutResult{recipients=" + recipients + ", batches=" + batches
+                + ", documents=" + documents + ", written=" + written + ", failed=" + failed + "}";
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.neighborhood_connect;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Base-32 geohash encoding plus the cell arithmetic needed to turn "within R metres of
+ * a point" into a handful of prefix range queries.
+ *
+ * {@link #coveringCells} covers a circle of radius R with cells at least R/2 on each
+ * side, keeping only those that reach into the circle: about a dozen prefixes, each
+ * queried as a {@code startAt(prefix).endAt(prefix + "\uf8ff")} range. Cells of a
+ * full R would need at most nine queries but read several times the circle's area.
+ */
+public final class GeoHash {
+    public static final int MAX_PRECISION = 12;
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double METRES_PER_DEGREE = 111_320;
+    private static final double EARTH_RADIUS_M = 6_371_000;
+
+    private GeoHash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be 1.." + MAX_PRECISION);
+        }
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0, ch = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Cell size in degrees for {@code precision}: {latitude span, longitude span}.
+     */
+    public static double[] cellSizeDegrees(int precision) {
+        int bits = 5 * precision;
+        int lonBits = (bits + 1) / 2;
+        int latBits = bits / 2;
+        return new double[]{180.0 / (1L << latBits), 360.0 / (1L << lonBits)};
+    }
+
+    /**
+     * The longest precision whose cells are at least {@code radiusMeters} on each side
+     * at {@code latitude}.
+     */
+    public static int precisionForRadius(double radiusMeters, double latitude) {
+        double cosLat = Math.max(0.01, Math.cos(Math.toRadians(latitude)));
+        for (int precision = MAX_PRECISION; precision > 1; precision--) {
+            double[] size = cellSizeDegrees(precision);
+            if (size[0] * METRES_PER_DEGREE >= radiusMeters
+                    && size[1] * METRES_PER_DEGREE * cosLat >= radiusMeters) {
+                return precision;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * The cells, at the precision for {@code radiusMeters / 2}, that overlap the
+     * circle's bounding box and come within {@code radiusMeters} of the point; centre
+     * first. At most 25 with the default {@link #precisionForRadius} rounding.
+     */
+    public static List<String> coveringCells(double latitude, double longitude, double radiusMeters) {
+        int precision = precisionForRadius(radiusMeters / 2, latitude);
+        double[] size = cellSizeDegrees(precision);
+        double cosLat = Math.max(0.01, Math.cos(Math.toRadians(latitude)));
+        double latSpan = radiusMeters / METRES_PER_DEGREE;
+        double lonSpan = radiusMeters / (METRES_PER_DEGREE * cosLat);
+        long rows = Math.round(180 / size[0]);
+        long columns = Math.round(360 / size[1]);
+
+        Set<String> cells = new LinkedHashSet<>();
+        cells.add(encode(latitude, longitude, precision));
+        long firstRow = Math.max(0, (long) Math.floor((latitude - latSpan + 90) / size[0]));
+        long lastRow = Math.min(rows - 1, (long) Math.floor((latitude + latSpan + 90) / size[0]));
+        long firstColumn = (long) Math.floor((longitude - lonSpan + 180) / size[1]);
+        long lastColumn = Math.min(firstColumn + columns - 1,
+                (long) Math.floor((longitude + lonSpan + 180) / size[1]));
+        for (long row = firstRow; row <= lastRow; row++) {
+            double south = row * size[0] - 90;
+            double nearestLat = Math.max(south, Math.min(south + size[0], latitude));
+            // Columns are left unwrapped so the cell's longitudes stay comparable with
+            // the point's across the antimeridian
+            for (long column = firstColumn; column <= lastColumn; column++) {
+                double west = column * size[1] - 180;
+                double nearestLon = Math.max(west, Math.min(west + size[1], longitude));
+                if (distanceMeters(latitude, longitude, nearestLat, nearestLon) > radiusMeters) continue;
+                cells.add(encode(south + size[0] / 2, wrapLongitude(west + size[1] / 2), precision));
+            }
+        }
+        return new ArrayList<>(cells);
+    }
+
+    /**
+     * Great-circle distance in metres (haversine).
+     */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static double wrapLongitude(double longitude) {
+        if (longitude >= 180) return longitude - 360;
+        if (longitude < -180) return longitude + 360;
+        return longitude;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.neighborhood_connect;
+
+/**
+ * Thresholds for the progressive SOS location mode: a last-known fix is sent right
+ * away if it is recent and accurate enough, and a follow-up is sent once a fresh fix
+ * meets {@link #TARGET_ACCURACY_M} or {@link #REFINE_TIMEOUT_MS} expires.
+ */
+public final class LocationFixPolicy {
+    public static final long MAX_LAST_KNOWN_AGE_MS = 2 * 60 * 1000;
+    public static final float MAX_LAST_KNOWN_ACCURACY_M = 500f;
+    public static final float TARGET_ACCURACY_M = 30f;
+    public static final long REFINE_TIMEOUT_MS = 30 * 1000;
+
+    private LocationFixPolicy() {
+    }
+
+    public static boolean isUsableLastKnown(long ageMs, float accuracyMeters) {
+        return ageMs >= 0 && ageMs <= MAX_LAST_KNOWN_AGE_MS
+                && accuracyMeters > 0 && accuracyMeters <= MAX_LAST_KNOWN_ACCURACY_M;
+    }
+
+    public static boolean isRefined(float accuracyMeters) {
+        return accuracyMeters > 0 && accuracyMeters <= TARGET_ACCURACY_M;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.neighborhood_connect;
+
+/**
+ * Location timings for one SOS, kept so the {@link LocationFixPolicy} thresholds can be
+ * tuned from field data. Negative values mean "did not happen".
+ */
+public final class LocationFixRecord {
+    public long triggeredAtMs;
+    public long lastKnownAgeMs = -1;
+    public float lastKnownAccuracyM = -1;
+    public long timeToFirstFixMs = -1;
+    public long timeToRefinedFixMs = -1;
+    public float refinedAccuracyM = -1;
+    public boolean timedOut;
+
+    /**
+     * Compact single-line form: fields separated by commas, in declaration order.
+     */
+    public String toCompactString() {
+        return triggeredAtMs + "," + lastKnownAgeMs + "," + lastKnownAccuracyM + ","
+                + timeToFirstFixMs + "," + timeToRefinedFixMs + "," + refinedAccuracyM + ","
+                + (timedOut ? 1 : 0);
+    }
+
+    public static LocationFixRecord parse(String line) {
+        String[] parts = line.split(",");
+        if (parts.length != 7) return null;
+        try {
+            LocationFixRecord record = new LocationFixRecord();
+            record.triggeredAtMs = Long.parseLong(parts[0]);
+            record.lastKnownAgeMs = Long.parseLong(parts[1]);
+            record.lastKnownAccuracyM = Float.parseFloat(parts[2]);
+            record.timeToFirstFixMs = Long.parseLong(parts[3]);
+            record.timeToRefinedFixMs = Long.parseLong(parts[4]);
+            record.refinedAccuracyM = Float.parseFloat(parts[5]);
+            record.timedOut = "1".equals(parts[6]);
+            return record;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.neighborhood_connect;
+
+/**
+ * Supplies the location for one SOS.
+ */
+public interface LocationSource {
+    /**
+     * Completes {@code firstFix} with the location for the initial SOS and
+     * {@code refinedFix} with a follow-up, or fails it when none is needed.
+     */
+    void acquireLocation(Stage<SosFix> firstFix, Stage<SosFix> refinedFix);
+}
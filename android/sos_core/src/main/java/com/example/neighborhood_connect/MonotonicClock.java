@@ -0,0 +1,11 @@
+package com.example.neighborhood_connect;
+
+/**
+ * Milliseconds from a clock that never jumps: SystemClock.elapsedRealtime() on
+ * Android, System.nanoTime() based on a plain JVM.
+ */
+public interface MonotonicClock {
+    MonotonicClock SYSTEM_NANO = () -> System.nanoTime() / 1_000_000;
+
+    long nowMs();
+}
@@ -0,0 +1,112 @@
+package com.example.neighborhood_connect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Picks the neighbours to alert from a users-location index read around the SOS fix:
+ * the {@link #MAX_RESPONDERS} nearest users within {@link #RADIUS_M} whose location
+ * was refreshed in the last {@link #MAX_LOCATION_AGE_MS}, excluding the sender.
+ */
+public final class NearbyResponders {
+    public static final double RADIUS_M = 1000;
+    public static final int MAX_RESPONDERS = 20;
+    public static final long MAX_LOCATION_AGE_MS = 24 * 60 * 60 * 1000;
+    /** Per-cell read cap, so a dense cell cannot make one SOS read the whole index. */
+    public static final int MAX_PER_CELL = 50;
+    /**
+     * Precision stored in the index (cells of about 150 m); queries use a shorter prefix
+     * of it. Coordinates are stored rounded to match, not at full fix accuracy.
+     */
+    public static final int INDEX_PRECISION = 7;
+    public static final int INDEX_COORDINATE_DECIMALS = 3;
+    /** Republish a user's own entry only after moving this far or this long. */
+    public static final double REPUBLISH_DISTANCE_M = 100;
+    public static final long REPUBLISH_INTERVAL_MS = 15 * 60 * 1000;
+
+    /**
+     * One entry read from the index.
+     */
+    public static final class Candidate {
+        public final String userId;
+        public final double latitude;
+        public final double longitude;
+        public final long updatedAtWallMs;
+
+        public Candidate(String userId, double latitude, double longitude, long updatedAtWallMs) {
+            this.userId = userId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.updatedAtWallMs = updatedAtWallMs;
+        }
+    }
+
+    /**
+     * Outcome of the nearby stage for one SOS.
+     */
+    public static final class Result {
+        public static final Result NONE = new Result(Collections.<String>emptyList(), 0, 0, 0);
+
+        /** Selected user ids, nearest first. */
+        public final List<String> userIds;
+        public final int queries;
+        public final int candidates;
+        public final long latencyMs;
+
+        public Result(List<String> userIds, int queries, int candidates, long latencyMs) {
+            this.userIds = userIds;
+            this.queries = queries;
+            this.candidates = candidates;
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public String toString() {
+            return userIds.size() + " responders from " + candidates + " candidates in "
+                    + queries + " queries, " + latencyMs + " ms";
+        }
+    }
+
+    private NearbyResponders() {
+    }
+
+    public static List<String> select(List<Candidate> candidates, double latitude, double longitude,
+                                      String senderId, long nowWallMs) {
+        List<Ranked> inRange = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.userId == null || candidate.userId.equals(senderId)) continue;
+            if (nowWallMs - candidate.updatedAtWallMs > MAX_LOCATION_AGE_MS) continue;
+            // Adjacent cells never overlap, but a user can move between two reads
+            if (!seen.add(candidate.userId)) continue;
+            double distance = GeoHash.distanceMeters(latitude, longitude, candidate.latitude, candidate.longitude);
+            if (distance <= RADIUS_M) inRange.add(new Ranked(candidate.userId, distance));
+        }
+        Collections.sort(inRange, Comparator.comparingDouble(ranked -> ranked.distance));
+        List<String> result = new ArrayList<>(Math.min(inRange.size(), MAX_RESPONDERS));
+        for (int i = 0; i < inRange.size() && i < MAX_RESPONDERS; i++) {
+            result.add(inRange.get(i).userId);
+        }
+        return result;
+    }
+
+    public static boolean shouldRepublish(double lastLatitude, double lastLongitude, long lastPublishedAtMs,
+                                          double latitude, double longitude, long nowMs) {
+        if (lastPublishedAtMs <= 0 || nowMs - lastPublishedAtMs >= REPUBLISH_INTERVAL_MS) return true;
+        return GeoHash.distanceMeters(lastLatitude, lastLongitude, latitude, longitude) >= REPUBLISH_DISTANCE_M;
+    }
+
+    private static final class Ranked {
+        final String userId;
+        final double distance;
+
+        Ranked(String userId, double distance) {
+            this.userId = userId;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.neighborhood_connect;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Firestore document bodies for SOS notifications. The timestamp is passed in as an
+ * opaque value (a Firebase Timestamp in the app) so the maps can be built without
+ * Firebase on the classpath. {@code sosId} links a notification to the SOS, and to its
+ * {@code sos_tracks} document when live tracking is on.
+ */
+public final class NotificationPayloads {
+
+    private NotificationPayloads() {
+    }
+
+    /**
+     * One {@code notifications} document for a single recipient.
+     */
+    public static Map<String, Object> sosNotification(String recipientId, String senderId, String sosId,
+                                                      String locationUrl, Object timestamp) {
+        HashMap<String, Object> notificationData = new HashMap<>(16);
+        notificationData.put("senderId", senderId);
+        notificationData.put("sosId", sosId);
+        notificationData.put("read", false);
+        notificationData.put("delivered", false);
+        notificationData.put("message", SosMessages.sosMessage(locationUrl));
+        notificationData.put("timestamp", timestamp);
+        notificationData.put("title", SosMessages.SOS_TITLE);
+        notificationData.put("userId", recipientId);
+        return notificationData;
+    }
+
+    /**
+     * One shared {@code sos_events} document for a group of recipients.
+     */
+    public static Map<String, Object> sosEvent(String senderId, String sosId, List<String> recipients,
+                                               String locationUrl, Object timestamp) {
+        HashMap<String, Object> eventData = new HashMap<>(16);
+        eventData.put("senderId", senderId);
+        eventData.put("sosId", sosId);
+        eventData.put("title", SosMessages.SOS_TITLE);
+        eventData.put("message", SosMessages.sosMessage(locationUrl));
+        eventData.put("locationUrl", locationUrl);
+        eventData.put("timestamp", timestamp);
+        eventData.put("recipients", new ArrayList<>(recipients));
+        eventData.put("readBy", new ArrayList<String>());
+        return eventData;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.neighborhood_connect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded FIFO for events emitted while nobody is listening. When full, the oldest
+ * event is dropped and counted, so a late listener gets the most recent state plus
+ * the number of events it missed.
+ */
+public final class PendingEvents<T> {
+    private final Object[] events;
+    private int head;
+    private int count;
+    private int dropped;
+
+    public PendingEvents(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        events = new Object[capacity];
+    }
+
+    public synchronized void add(T event) {
+        if (count == events.length) dropped++;
+        events[head] = event;
+        head = (head + 1) % events.length;
+        if (count < events.length) count++;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized int getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Removes and returns the buffered events oldest first, and resets the dropped count.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<T> drain() {
+        List<T> result = new ArrayList<>(count);
+        int start = (head - count + events.length) % events.length;
+        for (int i = 0; i < count; i++) {
+            int index = (start + i) % events.length;
+            result.add((T) events[index]);
+            events[index] = null;
+        }
+        count = 0;
+        dropped = 0;
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.neighborhood_connect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Normalization helpers for the SOS contact and recipient lists.
+ * Pure Java so the same rules apply wherever the lists are cached or read.
+ */
+public final class PhoneNumbers {
+    private static final int MIN_DIGITS = 3;
+
+    private PhoneNumbers() {
+    }
+
+    /**
+     * Strips formatting characters, turns a leading "00" into "+" and returns null
+     * for anything that does not look like a dialable number.
+     */
+    public static String normalize(String raw) {
+        if (raw == null) return null;
+        StringBuilder sb = new StringBuilder(raw.length());
+        int digits = 0;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+                digits++;
+            } else if (c == '+' && sb.length() == 0) {
+                sb.append(c);
+            }
+        }
+        if (digits < MIN_DIGITS) return null;
+        if (sb.charAt(0) != '+' && sb.length() > 2 && sb.charAt(0) == '0' && sb.charAt(1) == '0') {
+            sb.replace(0, 2, "+");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Masks all but the last two digits, for logs: {@code +441632960123} becomes
+     * {@code ***23}.
+     */
+    public static String redact(String phoneNumber) {
+        if (phoneNumber == null) return "null";
+        int end = phoneNumber.length();
+        return end <= 2 ? "***" : "***" + phoneNumber.substring(end - 2);
+    }
+
+    /**
+     * Normalizes every number and drops duplicates, keeping the first-seen order.
+     */
+    public static List<String> normalizeAll(List<?> rawNumbers) {
+        if (rawNumbers == null || rawNumbers.isEmpty()) return Collections.emptyList();
+        Set<String> unique = new LinkedHashSet<>();
+        for (Object raw : rawNumbers) {
+            String normalized = raw instanceof String ? normalize((String) raw) : null;
+            if (normalized != null) unique.add(normalized);
+        }
+        return Collections.unmodifiableList(new ArrayList<>(unique));
+    }
+
+    /**
+     * Trims and dedupes a list of user ids, dropping blanks.
+     */
+    public static List<String> dedupeIds(List<?> rawIds) {
+        if (rawIds == null || rawIds.isEmpty()) return Collections.emptyList();
+        Set<String> unique = new LinkedHashSet<>();
+        for (Object raw : rawIds) {
+            if (!(raw instanceof String)) continue;
+            String id = ((String) raw).trim();
+            if (!id.isEmpty()) unique.add(id);
+        }
+        return Collections.unmodifiableList(new ArrayList<>(unique));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.neighborhood_connect;
+
+/**
+ * Describes the button-press gesture that triggers an SOS: {@code presses} presses
+ * within {@code windowMs}. Presses closer together than {@code minGapMs} are treated as
+ * bounce and ignored. A value of 0 disables the corresponding limit.
+ *
+ * Two limits end a sequence in progress, and whichever is shorter wins:
+ * {@code maxGapMs} is the longest allowed gap between two presses of one gesture (a gap
+ * of exactly {@code maxGapMs} still counts), while {@code cancelPauseMs} is how long the
+ * button may stay idle before the gesture counts as abandoned (a pause of exactly
+ * {@code cancelPauseMs} cancels). Either way the press that arrives too late starts a
+ * new sequence, and {@link PressPatternDetector#expire} drops the progress as soon as
+ * the limit has passed without a press.
+ */
+public final class PressPattern {
+    public static final PressPattern DEFAULT = new PressPattern(5, 3000, 0, 0, 0);
+
+    public final int presses;
+    public final long windowMs;
+    public final long minGapMs;
+    /** Longest gap between two presses that continues a sequence; a longer one ends it. */
+    public final long maxGapMs;
+    /** Idle time after the last press at which the sequence is cancelled. */
+    public final long cancelPauseMs;
+
+    public PressPattern(int presses, long windowMs, long minGapMs, long maxGapMs, long cancelPauseMs) {
+        if (presses < 2) throw new IllegalArgumentException("presses must be at least 2");
+        if (windowMs <= 0) throw new IllegalArgumentException("windowMs must be positive");
+        if (minGapMs < 0 || maxGapMs < 0 || cancelPauseMs < 0) {
+            throw new IllegalArgumentException("gaps must not be negative");
+        }
+        if (maxGapMs > 0 && maxGapMs < minGapMs) {
+            throw new IllegalArgumentException("maxGapMs must not be below minGapMs");
+        }
+        this.presses = presses;
+        this.windowMs = windowMs;
+        this.minGapMs = minGapMs;
+        this.maxGapMs = maxGapMs;
+        this.cancelPauseMs = cancelPauseMs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PressPattern)) return false;
+        PressPattern that = (PressPattern) o;
+        return presses == that.presses && windowMs == that.windowMs && minGapMs == that.minGapMs
+                && maxGapMs == that.maxGapMs && cancelPauseMs == that.cancelPauseMs;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = presses;
+        result = 31 * result + (int) (windowMs ^ (windowMs >>> 32));
+        result = 31 * result + (int) (minGapMs ^ (minGapMs >>> 32));
+        result = 31 * result + (int) (maxGapMs ^ (maxGapMs >>> 32));
+        result = 31 * result + (int) (cancelPauseMs ^ (cancelPauseMs >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PressPattern{presses=" + presses + ", windowMs=" + windowMs + ", minGapMs=" + minGapMs
+                + ", maxGapMs=" + maxGapMs + ", cancelPauseMs=" + cancelPauseMs + "}";
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.neighborhood_connect;
+
+/**
+ * Matches button presses against a {@link PressPattern}.
+ *
+ * Timestamps must come from a monotonic clock (SystemClock.elapsedRealtime() on
+ * Android, System.nanoTime() / 1e6 elsewhere); wall-clock time can jump and break the
+ * window check. Press times are kept in a primitive ring buffer sized to the pattern,
+ * so nothing is allocated after construction. Not thread-safe; feed it from one thread.
+ */
+public final class PressPatternDetector {
+    private final PressPattern pattern;
+    private final long[] timestamps;
+    private int head;
+    private int count;
+    private long lastPressMs;
+
+    public PressPatternDetector(PressPattern pattern) {
+        this.pattern = pattern;
+        this.timestamps = new long[pattern.presses];
+    }
+
+    public PressPattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Records a press at {@code nowMs}. Returns true when it completes the pattern, in
+     * which case the detector is reset for the next gesture.
+     */
+    public boolean onPress(long nowMs) {
+        if (count > 0) {
+            long gap = nowMs - lastPressMs;
+            if (gap < 0) {
+                // Clock went backwards; only possible with a non-monotonic source
+                reset();
+            } else if (gap < pattern.minGapMs) {
+                return false;
+            } else if (exceedsPause(gap)) {
+                reset();
+            }
+        }
+
+        timestamps[head] = nowMs;
+        head = head + 1 == timestamps.length ? 0 : head + 1;
+        if (count < timestamps.length) count++;
+        lastPressMs = nowMs;
+
+        // Once full, head points at the oldest press in the ring
+        if (count == timestamps.length && nowMs - timestamps[head] <= pattern.windowMs) {
+            reset();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cancels a partial sequence once the pattern's pause has elapsed without a press.
+     * Returns true if progress was discarded.
+     */
+    public boolean expire(long nowMs) {
+        if (count > 0 && exceedsPause(nowMs - lastPressMs)) {
+            reset();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Number of presses in the current sequence that still fall inside the window.
+     */
+    public int getProgress(long nowMs) {
+        int inWindow = 0;
+        for (int i = 0, index = head; i < count; i++) {
+            index = index == 0 ? timestamps.length - 1 : index - 1;
+            if (nowMs - timestamps[index] > pattern.windowMs) break;
+            inWindow++;
+        }
+        return inWindow;
+    }
+
+    public void reset() {
+        head = 0;
+        count = 0;
+    }
+
+    private boolean exceedsPause(long gap) {
+        return (pattern.maxGapMs > 0 && gap > pattern.maxGapMs)
+                || (pattern.cancelPauseMs > 0 && gap >= pattern.cancelPauseMs);
+    }
+}
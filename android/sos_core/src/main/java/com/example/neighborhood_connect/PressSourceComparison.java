@@ -0,0 +1,184 @@
+package com.example.neighborhood_connect;
+
+import java.util.Arrays;
+
+/**
+ * Compares the two sources of button presses while both run: key events, which carry
+ * the time the key went down, and screen on/off broadcasts, which do not.
+ *
+ * Each press is matched with the other source's report of the same press, the first
+ * unmatched one within {@link #MATCH_WINDOW_MS}. Matched pairs give each source's
+ * detection latency measured from the key event time. A press still unmatched once
+ * the window has passed counts as missed by the other source. Reporting a press says
+ * whether it matched, so a caller feeding both sources to one detector can count each
+ * press once.
+ *
+ * All times are on one monotonic clock. Thread-safe. Unmatched presses and latencies
+ * are kept in fixed primitive rings, so reporting a press allocates nothing.
+ */
+public final class PressSourceComparison {
+    public static final long MATCH_WINDOW_MS = 1500;
+    static final int MAX_UNMATCHED = 32;
+    static final int MAX_SAMPLES = 256;
+
+    // Keys keep {eventMs, receivedMs}; broadcasts only have the time they were received
+    private final Unmatched unmatchedKeys = new Unmatched();
+    private final Unmatched unmatchedBroadcasts = new Unmatched();
+    private final Samples keyLatency = new Samples();
+    private final Samples broadcastLatency = new Samples();
+    private long keyPresses;
+    private long broadcastPresses;
+    private long missedByKeys;
+    private long missedByBroadcasts;
+
+    /**
+     * Adds counts carried over from an earlier process.
+     */
+    public synchronized void restore(long keyPresses, long broadcastPresses, long missedByKeys,
+                                     long missedByBroadcasts) {
+        this.keyPresses += keyPresses;
+        this.broadcastPresses += broadcastPresses;
+        this.missedByKeys += missedByKeys;
+        this.missedByBroadcasts += missedByBroadcasts;
+    }
+
+    /**
+     * A key press that went down at {@code eventMs} and reached the app at
+     * {@code receivedMs}. Returns true if the broadcast source already reported it.
+     */
+    public synchronized boolean onKeyPress(long eventMs, long receivedMs) {
+        expire(receivedMs);
+        keyPresses++;
+        keyLatency.add(receivedMs - eventMs);
+        for (int i = 0; i < unmatchedBroadcasts.size(); i++) {
+            long broadcastMs = unmatchedBroadcasts.eventMs(i);
+            if (broadcastMs >= eventMs && broadcastMs - eventMs <= MATCH_WINDOW_MS) {
+                unmatchedBroadcasts.remove(i);
+                broadcastLatency.add(broadcastMs - eventMs);
+                return true;
+            }
+        }
+        if (unmatchedKeys.size() == MAX_UNMATCHED) {
+            unmatchedKeys.remove(0);
+            missedByBroadcasts++;
+        }
+        unmatchedKeys.add(eventMs, receivedMs);
+        return false;
+    }
+
+    /**
+     * A screen broadcast received at {@code receivedMs}. Returns true if the key source
+     * already reported the press.
+     */
+    public synchronized boolean onBroadcastPress(long receivedMs) {
+        expire(receivedMs);
+        broadcastPresses++;
+        for (int i = 0; i < unmatchedKeys.size(); i++) {
+            long eventMs = unmatchedKeys.eventMs(i);
+            if (receivedMs >= eventMs && receivedMs - eventMs <= MATCH_WINDOW_MS) {
+                unmatchedKeys.remove(i);
+                broadcastLatency.add(receivedMs - eventMs);
+                return true;
+            }
+        }
+        if (unmatchedBroadcasts.size() == MAX_UNMATCHED) {
+            unmatchedBroadcasts.remove(0);
+            missedByKeys++;
+        }
+        unmatchedBroadcasts.add(receivedMs, receivedMs);
+        return false;
+    }
+
+    /**
+     * {keyPresses, broadcastPresses, missedByKeys, missedByBroadcasts, key p50, key p95,
+     * broadcast p50, broadcast p95}, with -1 percentiles before any sample.
+     */
+    public synchronized long[] snapshot(long nowMs) {
+        expire(nowMs);
+        long[] key = keyLatency.percentiles();
+        long[] broadcast = broadcastLatency.percentiles();
+        return new long[]{keyPresses, broadcastPresses, missedByKeys, missedByBroadcasts,
+                key[0], key[1], broadcast[0], broadcast[1]};
+    }
+
+    private void expire(long nowMs) {
+        while (unmatchedKeys.size() > 0 && nowMs - unmatchedKeys.receivedMs(0) > MATCH_WINDOW_MS) {
+            unmatchedKeys.remove(0);
+            missedByBroadcasts++;
+        }
+        while (unmatchedBroadcasts.size() > 0 && nowMs - unmatchedBroadcasts.receivedMs(0) > MATCH_WINDOW_MS) {
+            unmatchedBroadcasts.remove(0);
+            missedByKeys++;
+        }
+    }
+
+    /**
+     * Up to {@link #MAX_UNMATCHED} presses in arrival order, as a ring of two parallel
+     * arrays. Index 0 is the oldest.
+     */
+    private static final class Unmatched {
+        private final long[] eventMs = new long[MAX_UNMATCHED];
+        private final long[] receivedMs = new long[MAX_UNMATCHED];
+        private int head;
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long eventMs(int i) {
+            return eventMs[slot(i)];
+        }
+
+        long receivedMs(int i) {
+            return receivedMs[slot(i)];
+        }
+
+        void add(long event, long received) {
+            int slot = slot(size++);
+            eventMs[slot] = event;
+            receivedMs[slot] = received;
+        }
+
+        // Closes the gap by shifting the newer entries down; there are at most
+        // MAX_UNMATCHED of them
+        void remove(int i) {
+            if (i == 0) {
+                head = slot(1);
+            } else {
+                for (int j = i; j < size - 1; j++) {
+                    eventMs[slot(j)] = eventMs[slot(j + 1)];
+                    receivedMs[slot(j)] = receivedMs[slot(j + 1)];
+                }
+            }
+            size--;
+        }
+
+        private int slot(int i) {
+            return (head + i) % MAX_UNMATCHED;
+        }
+    }
+
+    /**
+     * The last {@link #MAX_SAMPLES} latencies in a ring.
+     */
+    private static final class Samples {
+        private final long[] values = new long[MAX_SAMPLES];
+        private int next;
+        private int count;
+
+        void add(long value) {
+            values[next] = value;
+            next = (next + 1) % values.length;
+            if (count < values.length) count++;
+        }
+
+        long[] percentiles() {
+            if (count == 0) return new long[]{-1, -1};
+            long[] sorted = Arrays.copyOf(values, count);
+            Arrays.sort(sorted);
+            return new long[]{SosTraceBuffer.percentile(sorted, count, 50),
+                    SosTraceBuffer.percentile(sorted, count, 95)};
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.neighborhood_connect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns the recipient ids gathered for an SOS into the set worth writing to: drops
+ * duplicates and the sender, then looks up each remaining account's status and drops
+ * deleted and deactivated ones. Every id dropped is a notification write, and a
+ * listener wake-up on the recipient's side, saved.
+ *
+ * Status lookups go out in chunks of {@link #MAX_IDS_PER_QUERY}, all in parallel.
+ * Statuses are cached for {@link #STATUS_TTL_MS}, so back-to-back SOS runs and
+ * journal replays resolve from memory. A chunk whose lookup fails keeps its ids:
+ * an unnecessary write is better than a missed alert.
+ */
+public final class RecipientResolver {
+    /** Firestore's limit on values in one {@code whereIn}. */
+    public static final int MAX_IDS_PER_QUERY = 30;
+    public static final long STATUS_TTL_MS = 5 * 60 * 1000;
+    static final int MAX_CACHED = 2000;
+
+    /**
+     * Outcome of resolving one SOS's recipients.
+     */
+    public static final class Resolution {
+        /** Ids to notify, in the order they were given. */
+        public final List<String> userIds;
+        public final int requested;
+        public final int duplicates;
+        /** 1 if the sender was among the ids. */
+        public final int self;
+        /** Deleted or deactivated accounts. */
+        public final int inactive;
+        /** Ids kept because their status lookup failed. */
+        public final int unverified;
+        public final int queries;
+        public final int cacheHits;
+        public final long latencyMs;
+
+        public Resolution(List<String> userIds, int requested, int duplicates, int self, int inactive,
+                          int unverified, int queries, int cacheHits, long latencyMs) {
+            this.userIds = userIds;
+            this.requested = requested;
+            this.duplicates = duplicates;
+            this.self = self;
+            this.inactive = inactive;
+            this.unverified = unverified;
+            this.queries = queries;
+            this.cacheHits = cacheHits;
+            this.latencyMs = latencyMs;
+        }
+
+        /**
+         * Notification writes avoided compared to writing to every id given.
+         */
+        public int savedWrites() {
+            return requested - userIds.size();
+        }
+
+        @Override
+        public String toString() {
+            return userIds.size() + " of " + requested + " recipients (" + duplicates + " duplicate, "
+                    + self + " self, " + inactive + " inactive, " + unverified + " unverified) in "
+                    + queries + " queries, " + cacheHits + " cached, " + latencyMs + " ms";
+        }
+    }
+
+    private final RecipientSource source;
+    private final MonotonicClock clock;
+    // Id to {expiresAtMs, active ? 1 : 0}, least recently written first
+    private final LinkedHashMap<String, long[]> statuses = new LinkedHashMap<>();
+
+    public RecipientResolver(RecipientSource source, MonotonicClock clock) {
+        this.source = source;
+        this.clock = clock;
+    }
+
+    /**
+     * The ids without duplicates and without the sender, in their original order.
+     * This is all resolution does when status lookups cannot run.
+     */
+    public static List<String> dedupe(String senderId, List<String> userIds) {
+        Set<String> unique = new LinkedHashSet<>(userIds);
+        unique.remove(senderId);
+        return new ArrayList<>(unique);
+    }
+
+    public Stage<Resolution> resolve(String senderId, List<String> userIds) {
+        long startedAt = clock.nowMs();
+        Set<String> unique = new LinkedHashSet<>(userIds);
+        int duplicates = userIds.size() - unique.size();
+        int self = unique.remove(senderId) ? 1 : 0;
+
+        Map<String, Boolean> known = new HashMap<>();
+        List<String> unknown = new ArrayList<>();
+        synchronized (statuses) {
+            for (String userId : unique) {
+                long[] status = statuses.get(userId);
+                if (status != null && status[0] > startedAt) {
+                    known.put(userId, status[1] == 1);
+                } else {
+                    unknown.add(userId);
+                }
+            }
+        }
+        int cacheHits = known.size();
+
+        List<List<String>> chunks = BatchPlanner.chunk(unknown, MAX_IDS_PER_QUERY);
+        List<Stage<Map<String, Boolean>>> queries = new ArrayList<>(chunks.size());
+        for (List<String> chunk : chunks) {
+            queries.add(source.lookupStatus(chunk));
+        }
+        Stage<Resolution> result = new Stage<>();
+        Stage.whenAll(queries.toArray(new Stage<?>[0])).addListener(done -> {
+            long now = clock.nowMs();
+            int unverified = 0;
+            Map<String, Boolean> found = new HashMap<>();
+            for (int i = 0; i < chunks.size(); i++) {
+                Stage<Map<String, Boolean>> query = queries.get(i);
+                for (String userId : chunks.get(i)) {
+                    if (!query.isSuccessful()) {
+                        known.put(userId, true);
+                        unverified++;
+                        continue;
+                    }
+                    Boolean active = query.getValue().get(userId);
+                    boolean isActive = active != null && active;
+                    known.put(userId, isActive);
+                    found.put(userId, isActive);
+                }
+            }
+            cache(found, now);
+
+            List<String> resolved = new ArrayList<>(unique.size());
+            for (String userId : unique) {
+                if (known.get(userId)) resolved.add(userId);
+            }
+            int inactive = unique.size() - resolved.size();
+            result.complete(new Resolution(Collections.unmodifiableList(resolved), userIds.size(), duplicates,
+                    self, inactive, unverified, chunks.size(), cacheHits, now - startedAt));
+        });
+        return result;
+    }
+
+    private void cache(Map<String, Boolean> found, long nowMs) {
+        synchronized (statuses) {
+            for (Map.Entry<String, Boolean> status : found.entrySet()) {
+                // Re-insert so the map stays ordered by write time
+                statuses.remove(status.getKey());
+                statuses.put(status.getKey(), new long[]{nowMs + STATUS_TTL_MS, status.getValue() ? 1 : 0});
+            }
+            Iterator<long[]> oldest = statuses.values().iterator();
+            while (statuses.size() > MAX_CACHED && oldest.hasNext()) {
+                oldest.next();
+                oldest.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.neighborhood_connect;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where the in-app recipients of an SOS come from: the user's chosen app_notify list
+ * and the active neighbours near the fix.
+ */
+public interface RecipientSource {
+    Stage<List<String>> fetchRecipients(String userId);
+
+    /**
+     * Looks up active neighbours around {@code fix}, which has coordinates.
+     */
+    Stage<NearbyResponders.Result> findNearby(String userId, SosFix fix);
+
+    /**
+     * Reads the status of up to {@link RecipientResolver#MAX_IDS_PER_QUERY} accounts:
+     * whether each existing one is active. Ids missing from the map have no account.
+     */
+    Stage<Map<String, Boolean>> lookupStatus(List<String> userIds);
+}
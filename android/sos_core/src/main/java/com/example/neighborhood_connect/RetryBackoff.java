@@ -0,0 +1,62 @@
+package com.example.neighborhood_connect;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Retry budget per key with exponential backoff: after its n-th failure a key is due
+ * again {@code baseDelayMs * 2^(n-1)} later, capped at {@code maxDelayMs}, and after
+ * {@code maxAttempts} failures it is given up. A key with no recorded failure is
+ * always due. Times are monotonic milliseconds. Thread-safe.
+ */
+public final class RetryBackoff {
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    // key -> {failures, dueAtMs}
+    private final Map<String, long[]> failures = new HashMap<>();
+
+    public RetryBackoff(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts must be at least 1: " + maxAttempts);
+        if (baseDelayMs < 0 || maxDelayMs < baseDelayMs) {
+            throw new IllegalArgumentException("invalid delays: " + baseDelayMs + ", " + maxDelayMs);
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * How long until {@code key} should be tried again; 0 if it is due now.
+     */
+    public synchronized long msUntilDue(String key, long nowMs) {
+        long[] state = failures.get(key);
+        return state == null ? 0 : Math.max(0, state[1] - nowMs);
+    }
+
+    /**
+     * Records a failed attempt. Returns the delay before the next one, or -1 once the
+     * key has used up its attempts, in which case it is forgotten.
+     */
+    public synchronized long recordFailure(String key, long nowMs) {
+        long[] state = failures.get(key);
+        if (state == null) {
+            state = new long[2];
+            failures.put(key, state);
+        }
+        if (++state[0] >= maxAttempts) {
+            failures.remove(key);
+            return -1;
+        }
+        long delayMs = Math.min(maxDelayMs, baseDelayMs << Math.min(state[0] - 1, 30));
+        state[1] = nowMs + delayMs;
+        return delayMs;
+    }
+
+    /**
+     * Forgets {@code key}, after it succeeded or was abandoned.
+     */
+    public synchronized void clear(String key) {
+        failures.remove(key);
+    }
+}
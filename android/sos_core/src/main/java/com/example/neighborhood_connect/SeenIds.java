@@ -0,0 +1,58 @@
+package com.example.neighborhood_connect;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Bounded set of document ids that were already surfaced, evicting the oldest once
+ * {@code capacity} is reached. Encodes to one newline-separated string so it can be
+ * persisted in a single preference.
+ */
+public final class SeenIds {
+    private final int capacity;
+    private final LinkedHashSet<String> ids = new LinkedHashSet<>();
+
+    public SeenIds(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds {@code id}; returns false if it was already present.
+     */
+    public synchronized boolean add(String id) {
+        if (!ids.add(id)) return false;
+        if (ids.size() > capacity) {
+            Iterator<String> oldest = ids.iterator();
+            oldest.next();
+            oldest.remove();
+        }
+        return true;
+    }
+
+    public synchronized boolean contains(String id) {
+        return ids.contains(id);
+    }
+
+    public synchronized int size() {
+        return ids.size();
+    }
+
+    public synchronized String encode() {
+        StringBuilder sb = new StringBuilder(ids.size() * 24);
+        for (String id : ids) {
+            if (sb.length() > 0) sb.append('\n');
+            sb.append(id);
+        }
+        return sb.toString();
+    }
+
+    public static SeenIds decode(String encoded, int capacity) {
+        SeenIds seen = new SeenIds(capacity);
+        if (encoded == null || encoded.isEmpty()) return seen;
+        for (String id : encoded.split("\n")) {
+            if (!id.isEmpty()) seen.add(id);
+        }
+        return seen;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.neighborhood_connect;
+
+/**
+ * Pacing, retry and delivery-status rules for SOS texts.
+ *
+ * Android itself asks the user to confirm once an app sends more than 30 texts in
+ * 30 minutes, and carriers throttle bursts, so sends are spaced out rather than
+ * fired in a tight loop. Failed sends back off exponentially.
+ */
+public final class SmsSendPolicy {
+    public static final int MAX_ATTEMPTS = 4;
+    public static final long SEND_SPACING_MS = 400;
+    public static final long BASE_BACKOFF_MS = 2000;
+    public static final long MAX_BACKOFF_MS = 30 * 1000;
+    // Carriers that never send status reports would otherwise leave sends tracked forever
+    public static final long DELIVERY_REPORT_TIMEOUT_MS = 10 * 60 * 1000;
+
+    // GSM TP-Status ranges (3GPP TS 23.040): below 0x20 delivered, 0x20-0x3F still
+    // being tried by the SMSC, 0x40 and above permanently failed
+    private static final int STATUS_PENDING = 0x20;
+    private static final int STATUS_FAILED = 0x40;
+
+    private SmsSendPolicy() {
+    }
+
+    /**
+     * Delay before the next attempt after {@code failedAttempts} failures.
+     */
+    public static long backoffMs(int failedAttempts) {
+        if (failedAttempts <= 0) return 0;
+        long delay = BASE_BACKOFF_MS << Math.min(failedAttempts - 1, 16);
+        return Math.min(delay, MAX_BACKOFF_MS);
+    }
+
+    public static boolean shouldRetry(int attempts) {
+        return attempts < MAX_ATTEMPTS;
+    }
+
+    /**
+     * Earliest time the next text may go out, given when the previous one was sent.
+     */
+    public static long nextSendAt(long nowMs, long lastSendAtMs) {
+        return Math.max(nowMs, lastSendAtMs + SEND_SPACING_MS);
+    }
+
+    public static boolean isDelivered(int status) {
+        return status >= 0 && status < STATUS_PENDING;
+    }
+
+    public static boolean isDeliveryFailed(int status) {
+        return status >= STATUS_FAILED;
+    }
+}
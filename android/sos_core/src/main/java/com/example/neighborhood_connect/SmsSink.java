@@ -0,0 +1,28 @@
+package com.example.neighborhood_connect;
+
+/**
+ * Sends SOS texts, reporting each recipient's outcome.
+ */
+public interface SmsSink {
+    /**
+     * Outcome of one recipient. Latencies are measured from {@link #dispatch}.
+     */
+    interface Callback {
+        /** Every part was accepted by the radio. */
+        void onSent(long latencyMs, int attempts);
+
+        /** Every part was reported delivered by the SMSC. */
+        void onDelivered(long latencyMs);
+
+        /** The send failed on its last attempt; {@code resultCode} is an SmsManager error. */
+        void onFailed(int resultCode, int attempts);
+
+        /** The message was sent but the SMSC reported it undeliverable. */
+        void onDeliveryFailed(int status);
+    }
+
+    /**
+     * Queues a text; the sink decides when it goes out and how often it is retried.
+     */
+    void dispatch(String phoneNumber, String message, Callback callback);
+}
@@ -0,0 +1,69 @@
+package com.example.neighborhood_connect;
+
+/**
+ * Decides what an SOS trigger does. The first trigger starts a run. Triggers while
+ * that run is in flight attach to it instead of starting another, so a user who keeps
+ * pressing gets one set of SMS and one fan-out. Outside a run, new runs draw from a
+ * {@link TokenBucket}: a short burst is allowed, then one run per cooldown.
+ *
+ * Time is passed in so it works with any monotonic clock.
+ */
+public final class SosAdmission {
+    public static final int DEFAULT_BURST = 3;
+    public static final long DEFAULT_COOLDOWN_MS = 60 * 1000;
+
+    public enum Decision {
+        /** Start a new run. */
+        START,
+        /** A run is in flight; the trigger joins it. */
+        ATTACH,
+        /** No run in flight and the bucket is empty. */
+        THROTTLE
+    }
+
+    private final TokenBucket bucket;
+    private final int burst;
+    private final long cooldownMs;
+    private boolean inFlight;
+    private int attachedToRun;
+
+    public SosAdmission(int burst, long cooldownMs) {
+        this.bucket = new TokenBucket(burst, cooldownMs);
+        this.burst = burst;
+        this.cooldownMs = cooldownMs;
+    }
+
+    public synchronized Decision admit(long nowMs) {
+        if (inFlight) {
+            attachedToRun++;
+            return Decision.ATTACH;
+        }
+        if (!bucket.tryAcquire(nowMs)) return Decision.THROTTLE;
+        inFlight = true;
+        attachedToRun = 0;
+        return Decision.START;
+    }
+
+    /**
+     * Ends the in-flight run, returning how many triggers attached to it.
+     */
+    public synchronized int finish() {
+        inFlight = false;
+        return attachedToRun;
+    }
+
+    /**
+     * How long until a trigger outside a run would start one; 0 if it would now.
+     */
+    public synchronized long msUntilAdmitted(long nowMs) {
+        return inFlight ? 0 : bucket.msUntilAvailable(nowMs);
+    }
+
+    public synchronized boolean isInFlight() {
+        return inFlight;
+    }
+
+    public boolean hasSettings(int burst, long cooldownMs) {
+        return this.burst == burst && this.cooldownMs == cooldownMs;
+    }
+}
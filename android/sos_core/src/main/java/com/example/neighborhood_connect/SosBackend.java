@@ -0,0 +1,23 @@
+package com.example.neighborhood_connect;
+
+/**
+ * The services the SOS run talks to, one narrow interface each. The app wires in
+ * Firestore, fused location and SmsManager; {@code android/benchmarks} wires in an
+ * in-memory stand-in so the pipeline can be load-tested on the JVM.
+ */
+public final class SosBackend {
+    public final ContactSource contacts;
+    public final RecipientSource recipients;
+    public final LocationSource location;
+    public final SmsSink sms;
+    public final SosNotificationWriter notifications;
+
+    public SosBackend(ContactSource contacts, RecipientSource recipients, LocationSource location,
+                      SmsSink sms, SosNotificationWriter notifications) {
+        this.contacts = contacts;
+        this.recipients = recipients;
+        this.location = location;
+        this.sms = sms;
+        this.notifications = notifications;
+    }
+}
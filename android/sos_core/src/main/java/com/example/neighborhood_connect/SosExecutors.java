@@ -0,0 +1,43 @@
+package com.example.neighborhood_connect;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for SOS work that must stay off the main thread.
+ */
+public final class SosExecutors {
+    private static final long KEEP_ALIVE_S = 30;
+
+    private SosExecutors() {
+    }
+
+    /**
+     * Daemon threads named {@code prefix-1}, {@code prefix-2}, ... so they are easy to
+     * spot in traces and ANR dumps.
+     */
+    public static ThreadFactory named(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A pool of at most {@code threads} threads with a queue of {@code queueCapacity}.
+     * Idle threads exit after a short keep-alive. When the queue is full the submitting
+     * thread runs the task itself: callbacks are never dropped, and the backpressure
+     * lands on whoever is flooding the pool.
+     */
+    public static ThreadPoolExecutor bounded(String name, int threads, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_S, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), named(name), new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
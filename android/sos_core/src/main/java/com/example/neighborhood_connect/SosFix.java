@@ -0,0 +1,29 @@
+package com.example.neighborhood_connect;
+
+/**
+ * A location ready to be sent: the maps URL (null when no fix was available), the
+ * SMS text describing it and the coordinates (NaN without a fix).
+ */
+public final class SosFix {
+    public static final SosFix NO_LOCATION = new SosFix(null, SosMessages.sosMessage(null));
+
+    public final String locationUrl;
+    public final String message;
+    public final double latitude;
+    public final double longitude;
+
+    public SosFix(String locationUrl, String message) {
+        this(locationUrl, message, Double.NaN, Double.NaN);
+    }
+
+    public SosFix(String locationUrl, String message, double latitude, double longitude) {
+        this.locationUrl = locationUrl;
+        this.message = message;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public boolean hasCoordinates() {
+        return !Double.isNaN(latitude) && !Double.isNaN(longitude);
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.neighborhood_connect;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only, fsync-ed log of SOS work so a run interrupted by a process kill can be
+ * resumed on restart.
+ *
+ * Each SOS is opened with {@link #begin}, its steps are recorded as pending (with the
+ * payload needed to redo them) and then done, and it is closed with {@link #end}.
+ * Every append is written and synced before the call returns. The file is truncated
+ * once no SOS is open, so it stays small.
+ *
+ * Record format, one per line with fields escaped: {@code B|sosId|userId|startedAtWallMs},
+ * {@code P|sosId|step|payload}, {@code D|sosId|step}, {@code E|sosId}.
+ *
+ * Journal failures never fail the SOS itself: I/O errors are kept in memory and
+ * exposed through {@link #getLastError()}.
+ */
+public final class SosJournal {
+    public static final String STEP_LOCATION = "location";
+    /** Reading the SOS numbers; the payload is the SMS text once the first fix is in. */
+    public static final String STEP_CONTACTS = "contacts";
+    public static final String STEP_FAN_OUT = "fanout";
+    private static final String SMS_PREFIX = "sms:";
+    private static final String FOLLOW_UP_SMS_PREFIX = "sms+:";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * An SOS that was begun but not ended.
+     */
+    public static final class OpenSos {
+        public final String sosId;
+        public final String userId;
+        public final long startedAtWallMs;
+        /** Pending steps in the order they were recorded, mapped to their payloads. */
+        public final Map<String, String> pendingSteps = new LinkedHashMap<>();
+
+        OpenSos(String sosId, String userId, long startedAtWallMs) {
+            this.sosId = sosId;
+            this.userId = userId;
+            this.startedAtWallMs = startedAtWallMs;
+        }
+    }
+
+    private final File file;
+    private final Map<String, OpenSos> open = new LinkedHashMap<>();
+    private IOException lastError;
+
+    public SosJournal(File file) {
+        this.file = file;
+        load();
+    }
+
+    /**
+     * Step key for the SMS to {@code phoneNumber} at position {@code index}.
+     */
+    public static String smsStep(int index, String phoneNumber, boolean followUp) {
+        return (followUp ? FOLLOW_UP_SMS_PREFIX : SMS_PREFIX) + index + ":" + phoneNumber;
+    }
+
+    public static boolean isSmsStep(String step) {
+        return step.startsWith(SMS_PREFIX) || step.startsWith(FOLLOW_UP_SMS_PREFIX);
+    }
+
+    public static String phoneNumberOf(String smsStep) {
+        return smsStep.substring(smsStep.indexOf(':', smsStep.indexOf(':') + 1) + 1);
+    }
+
+    public synchronized void begin(String sosId, String userId, long startedAtWallMs, String... pendingSteps) {
+        OpenSos sos = new OpenSos(sosId, userId, startedAtWallMs);
+        open.put(sosId, sos);
+        List<String> records = new ArrayList<>(1 + pendingSteps.length);
+        records.add(record('B', sosId, userId, Long.toString(startedAtWallMs)));
+        for (String step : pendingSteps) {
+            sos.pendingSteps.put(step, "");
+            records.add(record('P', sosId, step, ""));
+        }
+        append(records);
+    }
+
+    public synchronized void pending(String sosId, String step, String payload) {
+        Map<String, String> steps = new LinkedHashMap<>();
+        steps.put(step, payload);
+        pendingAll(sosId, steps);
+    }
+
+    /**
+     * Records several pending steps with a single sync.
+     */
+    public synchronized void pendingAll(String sosId, Map<String, String> steps) {
+        OpenSos sos = open.get(sosId);
+        if (sos == null) return;
+        List<String> records = new ArrayList<>(steps.size());
+        for (Map.Entry<String, String> step : steps.entrySet()) {
+            String payload = step.getValue() != null ? step.getValue() : "";
+            sos.pendingSteps.put(step.getKey(), payload);
+            records.add(record('P', sosId, step.getKey(), payload));
+        }
+        append(records);
+    }
+
+    /**
+     * Replaces the payload of a step that is still pending; a no-op once it is done.
+     */
+    public synchronized void updatePayload(String sosId, String step, String payload) {
+        OpenSos sos = open.get(sosId);
+        if (sos == null || !sos.pendingSteps.containsKey(step)) return;
+        pendingAll(sosId, Collections.singletonMap(step, payload));
+    }
+
+    public synchronized void done(String sosId, String step) {
+        OpenSos sos = open.get(sosId);
+        if (sos == null || sos.pendingSteps.remove(step) == null) return;
+        append(Collections.singletonList(record('D', sosId, step, null)));
+    }
+
+    public synchronized boolean isPending(String sosId, String step) {
+        OpenSos sos = open.get(sosId);
+        return sos != null && sos.pendingSteps.containsKey(step);
+    }
+
+    public synchronized boolean hasPending(String sosId) {
+        OpenSos sos = open.get(sosId);
+        return sos != null && !sos.pendingSteps.isEmpty();
+    }
+
+    public synchronized void end(String sosId) {
+        if (open.remove(sosId) == null) return;
+        if (open.isEmpty()) {
+            truncate();
+        } else {
+            append(Collections.singletonList(record('E', sosId, null, null)));
+        }
+    }
+
+    /**
+     * Snapshot of every SOS that has not been ended, oldest first.
+     */
+    public synchronized List<OpenSos> getOpen() {
+        List<OpenSos> result = new ArrayList<>(open.size());
+        for (OpenSos sos : open.values()) {
+            OpenSos copy = new OpenSos(sos.sosId, sos.userId, sos.startedAtWallMs);
+            copy.pendingSteps.putAll(sos.pendingSteps);
+            result.add(copy);
+        }
+        return result;
+    }
+
+    public synchronized IOException getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Replays the file into {@link #open}. Every record is written with its newline, so
+     * a last line without one was torn by a kill mid-append: it is skipped whatever its
+     * type, and cut off so the next append starts on a line of its own.
+     */
+    private void load() {
+        if (!file.exists()) return;
+        byte[] bytes;
+        try (FileInputStream in = new FileInputStream(file)) {
+            bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+            if (read < bytes.length) bytes = Arrays.copyOf(bytes, read);
+        } catch (IOException e) {
+            lastError = e;
+            return;
+        }
+        int complete = bytes.length;
+        while (complete > 0 && bytes[complete - 1] != '\n') complete--;
+        if (complete < bytes.length) {
+            try (FileOutputStream out = new FileOutputStream(file, true)) {
+                out.getChannel().truncate(complete);
+                out.getFD().sync();
+            } catch (IOException e) {
+                lastError = e;
+            }
+        }
+        for (String line : new String(bytes, 0, complete, UTF_8).split("\n")) {
+            apply(line);
+        }
+    }
+
+    /**
+     * Applies one record, skipping any that does not have the shape of its type.
+     */
+    private void apply(String line) {
+        String[] fields = line.split("\\|", -1);
+        if (fields.length < 2 || fields[0].length() != 1) return;
+        String sosId = unescape(fields[1]);
+        switch (fields[0].charAt(0)) {
+            case 'B':
+                if (fields.length != 4) return;
+                long startedAtWallMs;
+                try {
+                    startedAtWallMs = Long.parseLong(fields[3]);
+                } catch (NumberFormatException e) {
+                    return;
+                }
+                open.put(sosId, new OpenSos(sosId, unescape(fields[2]), startedAtWallMs));
+                break;
+            case 'P':
+                if (fields.length == 4 && open.containsKey(sosId)) {
+                    open.get(sosId).pendingSteps.put(unescape(fields[2]), unescape(fields[3]));
+                }
+                break;
+            case 'D':
+                if (fields.length == 3 && open.containsKey(sosId)) {
+                    open.get(sosId).pendingSteps.remove(unescape(fields[2]));
+                }
+                break;
+            case 'E':
+                if (fields.length == 2) open.remove(sosId);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void append(List<String> records) {
+        StringBuilder sb = new StringBuilder();
+        for (String record : records) {
+            sb.append(record).append('\n');
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(sb.toString().getBytes(UTF_8));
+            out.getFD().sync();
+        } catch (IOException e) {
+            lastError = e;
+        }
+    }
+
+    private void truncate() {
+        try (FileOutputStream out = new FileOutputStream(file, false)) {
+            out.getFD().sync();
+        } catch (IOException e) {
+            lastError = e;
+        }
+    }
+
+    private static String record(char type, String sosId, String field2, String field3) {
+        StringBuilder sb = new StringBuilder().append(type).append('|').append(escape(sosId));
+        if (field2 != null) sb.append('|').append(escape(field2));
+        if (field3 != null) sb.append('|').append(escape(field3));
+        return sb.toString();
+    }
+
+    static String escape(String value) {
+        if (value.indexOf('\\') < 0 && value.indexOf('|') < 0 && value.indexOf('\n') < 0) return value;
+        StringBuilder sb = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') sb.append("\\\\");
+            else if (c == '|') sb.append("\\p");
+            else if (c == '\n') sb.append("\\n");
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) return value;
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 'p' ? '|' : next == 'n' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
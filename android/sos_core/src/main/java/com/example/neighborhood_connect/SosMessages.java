@@ -0,0 +1,42 @@
+package com.example.neighborhood_connect;
+
+import java.util.Locale;
+
+/**
+ * Text for the SOS SMS and notification payloads.
+ */
+public final class SosMessages {
+    public static final String SOS_TITLE = "SOS Alert!";
+    private static final String SOS_PREFIX = "SOS Alert! Please help. ";
+
+    private SosMessages() {
+    }
+
+    public static String locationUrl(double latitude, double longitude) {
+        return "https://www.google.com/maps?q=" + latitude + "," + longitude;
+    }
+
+    /**
+     * Message for a fresh fix, or for a missing one when {@code locationUrl} is null.
+     */
+    public static String sosMessage(String locationUrl) {
+        if (locationUrl == null) {
+            return SOS_PREFIX + "Location unavailable.";
+        }
+        return SOS_PREFIX + "Current location: " + locationUrl;
+    }
+
+    /**
+     * Message for a last-known fix sent before a fresh one is available, labeled with
+     * its accuracy and age so the recipient knows how far to trust it.
+     */
+    public static String approximateSosMessage(String locationUrl, float accuracyMeters, long ageMs) {
+        return String.format(Locale.US, "%sApproximate location (+/-%d m, %d s old): %s",
+                SOS_PREFIX, Math.round(accuracyMeters), ageMs / 1000, locationUrl);
+    }
+
+    public static String refinedLocationMessage(String locationUrl, float accuracyMeters) {
+        return String.format(Locale.US, "SOS update: more accurate location (+/-%d m): %s",
+                Math.round(accuracyMeters), locationUrl);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.neighborhood_connect;
+
+import java.util.List;
+
+/**
+ * The notification sink of an SOS: persists it for its recipients, marking each
+ * acknowledged commit on the trace.
+ */
+public interface SosNotificationWriter {
+    Stage<FanOutResult> write(String senderId, List<String> recipientIds, String locationUrl, SosTrace trace);
+}
@@ -0,0 +1,199 @@
+package com.example.neighborhood_connect;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * The SOS run as a small dependency graph instead of a callback chain.
+ *
+ * Contact lookup, recipient lookup and location acquisition start together. The SMS
+ * sink runs as soon as contacts and the first fix are ready, and the notification
+ * fan-out as soon as recipients and the first fix are ready, so a slow Firestore read
+ * on one branch never delays the other. Every input has its own timeout; a missing
+ * location degrades to a "location unavailable" message rather than blocking.
+ *
+ * With a fix, the fan-out also alerts the nearest neighbours found through the
+ * location index, merged after the explicit recipients. That lookup is best-effort:
+ * if it fails or times out the explicit recipients are still notified.
+ *
+ * Before the fan-out writes anything, the merged ids are resolved: duplicates, the
+ * sender and inactive accounts are dropped. If resolution fails or times out the
+ * fan-out goes ahead with the deduplicated ids.
+ */
+public final class SosPipeline {
+    public static final long CONTACTS_TIMEOUT_MS = 10 * 1000;
+    public static final long RECIPIENTS_TIMEOUT_MS = 15 * 1000;
+    public static final long LOCATION_TIMEOUT_MS = LocationFixPolicy.REFINE_TIMEOUT_MS + 5 * 1000;
+    public static final long FAN_OUT_TIMEOUT_MS = 60 * 1000;
+    public static final long SMS_TIMEOUT_MS = 60 * 1000;
+    public static final long NEARBY_TIMEOUT_MS = 5 * 1000;
+    public static final long RESOLVE_TIMEOUT_MS = 5 * 1000;
+
+    /**
+     * The side-effecting parts of the pipeline, supplied by the host; usually built
+     * on a {@link SosBackend}.
+     */
+    public interface Stages extends ContactSource, RecipientSource, LocationSource {
+
+        /**
+         * Sends the SOS text to every number. The returned stage completes once each
+         * message has either left the device or run out of retries; delivery reports
+         * may still arrive after it.
+         */
+        Stage<Void> sendSms(List<String> phoneNumbers, SosFix fix, boolean followUp);
+
+        /**
+         * Narrows the merged recipient ids to the ones worth a notification, usually
+         * through a long-lived {@link RecipientResolver}.
+         */
+        Stage<RecipientResolver.Resolution> resolveRecipients(String userId, List<String> recipientIds);
+
+        Stage<Void> saveNotifications(String userId, List<String> recipientIds, String locationUrl);
+
+        void onStageFailed(String stage, Throwable error);
+    }
+
+    private final Stages stages;
+    private final ScheduledExecutorService scheduler;
+
+    public SosPipeline(Stages stages, ScheduledExecutorService scheduler) {
+        this.stages = stages;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Starts one SOS run, marking resolved inputs on {@code trace}. The returned stage
+     * completes when every sink has finished, successfully or not.
+     */
+    public Stage<Void> run(String userId, SosTrace trace) {
+        Stage<SosFix> firstFix = new Stage<SosFix>().withTimeout(scheduler, LOCATION_TIMEOUT_MS, "location");
+        Stage<SosFix> refinedFix = new Stage<SosFix>().withTimeout(scheduler, LOCATION_TIMEOUT_MS, "refined location");
+        stages.acquireLocation(firstFix, refinedFix);
+        Stage<List<String>> contacts = stages.fetchContacts(userId)
+                .withTimeout(scheduler, CONTACTS_TIMEOUT_MS, "contacts");
+        Stage<List<String>> recipients = stages.fetchRecipients(userId)
+                .withTimeout(scheduler, RECIPIENTS_TIMEOUT_MS, "recipients");
+        markOnSuccess(contacts, trace, TracePoint.CONTACTS_RESOLVED);
+        markOnSuccess(recipients, trace, TracePoint.RECIPIENTS_RESOLVED);
+        markOnSuccess(firstFix, trace, TracePoint.LOCATION_FIX);
+
+        Stage<Void> sms = new Stage<>();
+        Stage.whenAll(contacts, firstFix).addListener(ready -> {
+            if (!contacts.isSuccessful()) {
+                stages.onStageFailed("contacts", contacts.getError());
+                sms.fail(contacts.getError());
+                return;
+            }
+            if (!firstFix.isSuccessful()) {
+                stages.onStageFailed("location", firstFix.getError());
+            }
+            sendAndComplete(contacts.getValue(), fixOrNone(firstFix), false, sms);
+        });
+
+        Stage<Void> followUp = new Stage<>();
+        Stage.whenAll(contacts, refinedFix).addListener(ready -> {
+            if (contacts.isSuccessful() && refinedFix.isSuccessful()) {
+                sendAndComplete(contacts.getValue(), refinedFix.getValue(), true, followUp);
+                return;
+            }
+            if (!(refinedFix.getError() instanceof CancellationException) && refinedFix.getError() != null) {
+                stages.onStageFailed("refined location", refinedFix.getError());
+            }
+            followUp.complete(null);
+        });
+
+        Stage<Void> fanOut = new Stage<>();
+        Stage.whenAll(recipients, firstFix).addListener(ready -> {
+            if (!recipients.isSuccessful()) {
+                stages.onStageFailed("recipients", recipients.getError());
+                fanOut.fail(recipients.getError());
+                return;
+            }
+            SosFix fix = fixOrNone(firstFix);
+            findNearby(userId, fix, trace).addListener(nearby -> {
+                List<String> all = new ArrayList<>(recipients.getValue());
+                all.addAll(nearby.getValue().userIds);
+                resolveRecipients(userId, all, trace).addListener(resolved ->
+                        stages.saveNotifications(userId, resolved.getValue(), fix.locationUrl)
+                                .withTimeout(scheduler, FAN_OUT_TIMEOUT_MS, "fan-out")
+                                .addListener(saved -> {
+                                    if (saved.isSuccessful()) {
+                                        fanOut.complete(null);
+                                    } else {
+                                        stages.onStageFailed("fan-out", saved.getError());
+                                        fanOut.fail(saved.getError());
+                                    }
+                                }));
+            });
+        });
+
+        Stage<Void> all = Stage.whenAll(sms, followUp, fanOut);
+        all.addListener(done -> trace.mark(TracePoint.FINISHED));
+        return all;
+    }
+
+    /**
+     * The nearby stage, or {@link NearbyResponders.Result#NONE} without a fix or when
+     * it fails; never fails itself.
+     */
+    private Stage<NearbyResponders.Result> findNearby(String userId, SosFix fix, SosTrace trace) {
+        if (!fix.hasCoordinates()) return Stage.completed(NearbyResponders.Result.NONE);
+        Stage<NearbyResponders.Result> result = new Stage<>();
+        stages.findNearby(userId, fix)
+                .withTimeout(scheduler, NEARBY_TIMEOUT_MS, "nearby")
+                .addListener(nearby -> {
+                    if (nearby.isSuccessful()) {
+                        trace.mark(TracePoint.NEARBY_RESOLVED, nearby.getValue().queries);
+                        result.complete(nearby.getValue());
+                    } else {
+                        stages.onStageFailed("nearby", nearby.getError());
+                        result.complete(NearbyResponders.Result.NONE);
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * The resolved recipients, or just the deduplicated ones when resolution fails;
+     * never fails itself.
+     */
+    private Stage<List<String>> resolveRecipients(String userId, List<String> recipientIds, SosTrace trace) {
+        if (recipientIds.isEmpty()) return Stage.completed(recipientIds);
+        Stage<List<String>> result = new Stage<>();
+        stages.resolveRecipients(userId, recipientIds)
+                .withTimeout(scheduler, RESOLVE_TIMEOUT_MS, "resolve")
+                .addListener(resolved -> {
+                    if (resolved.isSuccessful()) {
+                        trace.mark(TracePoint.RECIPIENTS_FILTERED, resolved.getValue().savedWrites());
+                        result.complete(resolved.getValue().userIds);
+                    } else {
+                        stages.onStageFailed("resolve", resolved.getError());
+                        result.complete(RecipientResolver.dedupe(userId, recipientIds));
+                    }
+                });
+        return result;
+    }
+
+    private void sendAndComplete(List<String> phoneNumbers, SosFix fix, boolean followUp, Stage<Void> done) {
+        stages.sendSms(phoneNumbers, fix, followUp)
+                .withTimeout(scheduler, SMS_TIMEOUT_MS, followUp ? "follow-up sms" : "sms")
+                .addListener(sent -> {
+                    if (!sent.isSuccessful()) {
+                        stages.onStageFailed(followUp ? "follow-up sms" : "sms", sent.getError());
+                    }
+                    done.complete(null);
+                });
+    }
+
+    private static <T> void markOnSuccess(Stage<T> stage, SosTrace trace, TracePoint point) {
+        stage.addListener(done -> {
+            if (done.isSuccessful()) trace.mark(point);
+        });
+    }
+
+    private static SosFix fixOrNone(Stage<SosFix> fix) {
+        return fix.isSuccessful() && fix.getValue() != null ? fix.getValue() : SosFix.NO_LOCATION;
+    }
+}
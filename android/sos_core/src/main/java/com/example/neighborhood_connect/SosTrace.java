@@ -0,0 +1,142 @@
+package com.example.neighborhood_connect;
+
+/**
+ * Stage-level timeline of one SOS run. Each mark stores the point, its offset from
+ * the trigger on a monotonic clock and an optional detail (a recipient index, a batch
+ * size), in primitive arrays capped at {@link #MAX_MARKS}; marks beyond the cap are
+ * counted but not stored.
+ *
+ * Compact form: {@code id;startedAtWallMs;dropped;T0.0,S120.0,S124.1,...}
+ */
+public final class SosTrace {
+    public static final int MAX_MARKS = 64;
+
+    /**
+     * Observer for marks as they are recorded, called on the marking thread.
+     */
+    public interface Listener {
+        void onMark(SosTrace trace, TracePoint point, long offsetMs, int detail);
+    }
+
+    private final String id;
+    private final long startedAtWallMs;
+    private final long startedAtMs;
+    private final MonotonicClock clock;
+    private final char[] codes = new char[MAX_MARKS];
+    private final long[] offsetsMs = new long[MAX_MARKS];
+    private final int[] details = new int[MAX_MARKS];
+    private int size;
+    private int dropped;
+    private volatile Listener listener;
+
+    public SosTrace(String id, long startedAtWallMs, MonotonicClock clock) {
+        this(id, startedAtWallMs, clock, clock.nowMs());
+    }
+
+    private SosTrace(String id, long startedAtWallMs, MonotonicClock clock, long startedAtMs) {
+        this.id = id;
+        this.startedAtWallMs = startedAtWallMs;
+        this.clock = clock;
+        this.startedAtMs = startedAtMs;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getStartedAtWallMs() {
+        return startedAtWallMs;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void mark(TracePoint point) {
+        mark(point, 0);
+    }
+
+    public void mark(TracePoint point, int detail) {
+        long offsetMs;
+        synchronized (this) {
+            offsetMs = (clock != null ? clock.nowMs() : startedAtMs) - startedAtMs;
+            if (size == MAX_MARKS) {
+                dropped++;
+            } else {
+                codes[size] = point.code;
+                offsetsMs[size] = offsetMs;
+                details[size] = detail;
+                size++;
+            }
+        }
+        // Outside the lock, so a listener can read the trace
+        Listener current = listener;
+        if (current != null) current.onMark(this, point, offsetMs, detail);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized TracePoint pointAt(int index) {
+        return TracePoint.fromCode(codes[index]);
+    }
+
+    public synchronized long offsetAt(int index) {
+        return offsetsMs[index];
+    }
+
+    public synchronized int detailAt(int index) {
+        return details[index];
+    }
+
+    /**
+     * Offset of the first mark of {@code point}, or -1 if it was never reached.
+     */
+    public synchronized long firstOffset(TracePoint point) {
+        for (int i = 0; i < size; i++) {
+            if (codes[i] == point.code) return offsetsMs[i];
+        }
+        return -1;
+    }
+
+    public synchronized String encode() {
+        StringBuilder sb = new StringBuilder(32 + size * 8);
+        sb.append(id).append(';').append(startedAtWallMs).append(';').append(dropped).append(';');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(codes[i]).append(offsetsMs[i]).append('.').append(details[i]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Rebuilds a finished trace from {@link #encode()}; returns null for malformed input.
+     */
+    public static SosTrace decode(String encoded) {
+        String[] parts = encoded.split(";", -1);
+        if (parts.length != 4) return null;
+        try {
+            SosTrace trace = new SosTrace(parts[0], Long.parseLong(parts[1]), null, 0);
+            trace.dropped = Integer.parseInt(parts[2]);
+            if (!parts[3].isEmpty()) {
+                for (String mark : parts[3].split(",")) {
+                    if (trace.size == MAX_MARKS) break;
+                    int dot = mark.indexOf('.');
+                    trace.codes[trace.size] = mark.charAt(0);
+                    trace.offsetsMs[trace.size] = Long.parseLong(mark.substring(1, dot));
+                    trace.details[trace.size] = Integer.parseInt(mark.substring(dot + 1));
+                    trace.size++;
+                }
+            }
+            return trace;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
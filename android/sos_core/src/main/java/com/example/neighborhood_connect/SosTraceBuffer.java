@@ -0,0 +1,58 @@
+package com.example.neighborhood_connect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounded ring of the most recent finished {@link SosTrace}s.
+ */
+public final class SosTraceBuffer {
+    private final SosTrace[] traces;
+    private int head;
+    private int count;
+
+    public SosTraceBuffer(int capacity) {
+        traces = new SosTrace[capacity];
+    }
+
+    public synchronized void add(SosTrace trace) {
+        traces[head] = trace;
+        head = (head + 1) % traces.length;
+        if (count < traces.length) count++;
+    }
+
+    /**
+     * Traces oldest first.
+     */
+    public synchronized List<SosTrace> snapshot() {
+        List<SosTrace> result = new ArrayList<>(count);
+        int start = (head - count + traces.length) % traces.length;
+        for (int i = 0; i < count; i++) {
+            result.add(traces[(start + i) % traces.length]);
+        }
+        return result;
+    }
+
+    /**
+     * Nearest-rank percentiles of the time from the trigger to the first mark of
+     * {@code point}, over the traces that reached it. Returns {count, p50, p95}, with
+     * -1 percentiles when no trace qualifies.
+     */
+    public synchronized long[] latencyPercentiles(TracePoint point) {
+        long[] samples = new long[count];
+        int n = 0;
+        for (SosTrace trace : snapshot()) {
+            long offset = trace.firstOffset(point);
+            if (offset >= 0) samples[n++] = offset;
+        }
+        if (n == 0) return new long[]{0, -1, -1};
+        Arrays.sort(samples, 0, n);
+        return new long[]{n, percentile(samples, n, 50), percentile(samples, n, 95)};
+    }
+
+    static long percentile(long[] sorted, int n, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * n);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.neighborhood_connect;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal completable result for the SOS pipeline. CompletableFuture is not available
+ * on API 23 (and is not covered by core library desugaring), and Play Services Tasks
+ * tie us to Android, so the pipeline uses this instead.
+ *
+ * A stage completes once; later calls to {@link #complete} or {@link #fail} are ignored.
+ * Listeners run on the thread that completes the stage, or immediately if it is done.
+ */
+public final class Stage<T> {
+
+    public interface Listener<T> {
+        void onComplete(Stage<T> stage);
+    }
+
+    private final Object lock = new Object();
+    private List<Listener<T>> listeners = new ArrayList<>(2);
+    private boolean done;
+    private T value;
+    private Throwable error;
+
+    public static <T> Stage<T> completed(T value) {
+        Stage<T> stage = new Stage<>();
+        stage.complete(value);
+        return stage;
+    }
+
+    public static <T> Stage<T> failed(Throwable error) {
+        Stage<T> stage = new Stage<>();
+        stage.fail(error);
+        return stage;
+    }
+
+    /**
+     * Returns a stage that completes once every input is done, whether it succeeded or not.
+     */
+    public static Stage<Void> whenAll(Stage<?>... stages) {
+        Stage<Void> all = new Stage<>();
+        if (stages.length == 0) {
+            all.complete(null);
+            return all;
+        }
+        AtomicInteger remaining = new AtomicInteger(stages.length);
+        for (Stage<?> stage : stages) {
+            stage.addAnyListener(() -> {
+                if (remaining.decrementAndGet() == 0) all.complete(null);
+            });
+        }
+        return all;
+    }
+
+    public boolean complete(T value) {
+        return finish(value, null);
+    }
+
+    public boolean fail(Throwable error) {
+        return finish(null, error);
+    }
+
+    private boolean finish(T result, Throwable failure) {
+        List<Listener<T>> toNotify;
+        synchronized (lock) {
+            if (done) return false;
+            done = true;
+            value = result;
+            error = failure;
+            toNotify = listeners;
+            listeners = null;
+        }
+        for (Listener<T> listener : toNotify) {
+            listener.onComplete(this);
+        }
+        return true;
+    }
+
+    public Stage<T> addListener(Listener<T> listener) {
+        synchronized (lock) {
+            if (!done) {
+                listeners.add(listener);
+                return this;
+            }
+        }
+        listener.onComplete(this);
+        return this;
+    }
+
+    private void addAnyListener(Runnable runnable) {
+        addListener(stage -> runnable.run());
+    }
+
+    /**
+     * Fails this stage with a {@link TimeoutException} if it is not done within
+     * {@code timeoutMs}. A result that arrives afterwards is dropped.
+     */
+    public Stage<T> withTimeout(ScheduledExecutorService scheduler, long timeoutMs, String name) {
+        ScheduledFuture<?> timer = scheduler.schedule(
+                () -> fail(new TimeoutException(name + " timed out after " + timeoutMs + " ms")),
+                timeoutMs, TimeUnit.MILLISECONDS);
+        addListener(stage -> timer.cancel(false));
+        return this;
+    }
+
+    public boolean isDone() {
+        synchronized (lock) {
+            return done;
+        }
+    }
+
+    public boolean isSuccessful() {
+        synchronized (lock) {
+            return done && error == null;
+        }
+    }
+
+    public T getValue() {
+        synchronized (lock) {
+            return value;
+        }
+    }
+
+    public Throwable getError() {
+        synchronized (lock) {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.neighborhood_connect;
+
+/**
+ * Token bucket rate limiter: bursts of up to {@code capacity}, refilled one token
+ * every {@code refillIntervalMs}. Time is passed in so it works with any clock.
+ */
+public final class TokenBucket {
+    private final int capacity;
+    private final long refillIntervalMs;
+    private int tokens;
+    private long lastRefillMs;
+    private boolean started;
+
+    public TokenBucket(int capacity, long refillIntervalMs) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        if (refillIntervalMs < 1) throw new IllegalArgumentException("refill interval must be positive: " + refillIntervalMs);
+        this.capacity = capacity;
+        this.refillIntervalMs = refillIntervalMs;
+        this.tokens = capacity;
+    }
+
+    public synchronized boolean tryAcquire(long nowMs) {
+        refill(nowMs);
+        if (tokens == 0) return false;
+        tokens--;
+        return true;
+    }
+
+    /**
+     * How long until {@link #tryAcquire} can succeed; 0 if it can now.
+     */
+    public synchronized long msUntilAvailable(long nowMs) {
+        refill(nowMs);
+        return tokens > 0 ? 0 : lastRefillMs + refillIntervalMs - nowMs;
+    }
+
+    public synchronized int available(long nowMs) {
+        refill(nowMs);
+        return tokens;
+    }
+
+    private void refill(long nowMs) {
+        if (!started) {
+            started = true;
+            lastRefillMs = nowMs;
+            return;
+        }
+        long elapsed = nowMs - lastRefillMs;
+        if (elapsed < refillIntervalMs) return;
+        long refills = elapsed / refillIntervalMs;
+        if (tokens + refills >= capacity) {
+            tokens = capacity;
+            lastRefillMs = nowMs;
+        } else {
+            tokens += (int) refills;
+            lastRefillMs += refills * refillIntervalMs;
+        }
+    }
+}
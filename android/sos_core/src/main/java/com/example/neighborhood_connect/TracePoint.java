@@ -0,0 +1,40 @@
+package com.example.neighborhood_connect;
+
+/**
+ * Points recorded in an {@link SosTrace}. Codes are persisted, so never reuse one.
+ */
+public enum TracePoint {
+    TRIGGER_RECEIVED('T'),
+    /** Detail: triggers attached to this run so far, counting this one. */
+    TRIGGER_COALESCED('A'),
+    /** Detail: ms from process start to the trigger, in a process with no Flutter engine. */
+    HEADLESS_START('H'),
+    /** Detail: {@code SosReadiness} mask of the permissions the run went without. */
+    PERMISSIONS_MISSING('M'),
+    CONTACTS_RESOLVED('C'),
+    RECIPIENTS_RESOLVED('R'),
+    /** Detail: geohash range queries issued. */
+    NEARBY_RESOLVED('G'),
+    /** Detail: notification writes saved by recipient resolution. */
+    RECIPIENTS_FILTERED('V'),
+    LOCATION_FIX('L'),
+    SMS_SENT('S'),
+    SMS_DELIVERED('D'),
+    SMS_FAILED('E'),
+    FIRESTORE_COMMIT('F'),
+    LOCAL_NOTIFICATION('N'),
+    FINISHED('X');
+
+    public final char code;
+
+    TracePoint(char code) {
+        this.code = code;
+    }
+
+    public static TracePoint fromCode(char code) {
+        for (TracePoint point : values()) {
+            if (point.code == code) return point;
+        }
+        return null;
+    }
+}
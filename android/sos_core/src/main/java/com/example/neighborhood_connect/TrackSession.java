@@ -0,0 +1,133 @@
+package com.example.neighborhood_connect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Upload policy for a live location track after an SOS, kept free of Android so the
+ * limits can be reasoned about (and benchmarked) on their own.
+ *
+ * A fix is kept only if it is accurate enough and has moved {@link #MIN_DISTANCE_M}
+ * from the last kept one, or if {@link #HEARTBEAT_MS} has passed without one, so a
+ * stationary phone still shows it is alive. Kept points are batched and flushed once
+ * {@link #BATCH_SIZE} are pending or the oldest has waited {@link #MAX_BATCH_DELAY_MS},
+ * but never sooner than {@link #MIN_WRITE_INTERVAL_MS} after the previous write. The
+ * session expires after its duration, and stops accepting points once
+ * {@link #MAX_POINTS} have been written so the track document stays bounded.
+ *
+ * Times are monotonic milliseconds. Not thread-safe; confine to one thread.
+ */
+public final class TrackSession {
+    public static final long DEFAULT_DURATION_MS = 15 * 60 * 1000;
+    public static final long MAX_DURATION_MS = 2 * 60 * 60 * 1000;
+    public static final double MIN_DISTANCE_M = 25;
+    public static final long HEARTBEAT_MS = 60 * 1000;
+    public static final float MAX_ACCURACY_M = 100f;
+    public static final int BATCH_SIZE = 5;
+    public static final long MAX_BATCH_DELAY_MS = 20 * 1000;
+    public static final long MIN_WRITE_INTERVAL_MS = 10 * 1000;
+    public static final int MAX_POINTS = 500;
+
+    /**
+     * One kept fix.
+     */
+    public static final class Sample {
+        public final double latitude;
+        public final double longitude;
+        public final float accuracyM;
+        public final long atWallMs;
+        final long atMs;
+
+        public Sample(double latitude, double longitude, float accuracyM, long atWallMs, long atMs) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.accuracyM = accuracyM;
+            this.atWallMs = atWallMs;
+            this.atMs = atMs;
+        }
+    }
+
+    private final long startedAtMs;
+    private final long durationMs;
+    private final List<Sample> pending = new ArrayList<>();
+    private Sample lastKept;
+    private long lastWriteAtMs = Long.MIN_VALUE / 2;
+    private int written;
+    private int offered;
+
+    public TrackSession(long startedAtMs, long durationMs) {
+        this.startedAtMs = startedAtMs;
+        this.durationMs = Math.max(0, Math.min(durationMs, MAX_DURATION_MS));
+    }
+
+    /**
+     * Offers a fix; returns whether it was kept for upload.
+     */
+    public boolean offer(Sample sample) {
+        offered++;
+        if (isFinished(sample.atMs)) return false;
+        if (sample.accuracyM < 0 || sample.accuracyM > MAX_ACCURACY_M) return false;
+        if (lastKept != null && sample.atMs - lastKept.atMs < HEARTBEAT_MS
+                && GeoHash.distanceMeters(lastKept.latitude, lastKept.longitude,
+                sample.latitude, sample.longitude) < MIN_DISTANCE_M) {
+            return false;
+        }
+        lastKept = sample;
+        pending.add(sample);
+        return true;
+    }
+
+    /**
+     * Milliseconds until the pending points should be written: 0 if now, -1 if there
+     * is nothing to write.
+     */
+    public long msUntilFlush(long nowMs) {
+        if (pending.isEmpty()) return -1;
+        long due = pending.size() >= BATCH_SIZE || isExpired(nowMs)
+                ? nowMs : pending.get(0).atMs + MAX_BATCH_DELAY_MS;
+        long allowed = lastWriteAtMs + MIN_WRITE_INTERVAL_MS;
+        return Math.max(0, Math.max(due, allowed) - nowMs);
+    }
+
+    /**
+     * Removes the pending points for one write and records the write time.
+     */
+    public List<Sample> drain(long nowMs) {
+        List<Sample> batch = new ArrayList<>(pending);
+        pending.clear();
+        lastWriteAtMs = nowMs;
+        written += batch.size();
+        return batch;
+    }
+
+    /**
+     * Puts a batch whose write failed back in front of the queue.
+     */
+    public void requeue(List<Sample> batch) {
+        written -= batch.size();
+        pending.addAll(0, batch);
+    }
+
+    public boolean isExpired(long nowMs) {
+        return nowMs - startedAtMs >= durationMs;
+    }
+
+    /**
+     * Expired or out of point budget: no more fixes are kept.
+     */
+    public boolean isFinished(long nowMs) {
+        return isExpired(nowMs) || written + pending.size() >= MAX_POINTS;
+    }
+
+    public long msUntilExpiry(long nowMs) {
+        return Math.max(0, startedAtMs + durationMs - nowMs);
+    }
+
+    public int getOffered() {
+        return offered;
+    }
+
+    public int getWritten() {
+        return written;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AccountActivityTest {
+
+    private static final long NOW = 100L * 24 * 60 * 60 * 1000;
+
+    @Test
+    public void activeUntilThreshold() {
+        assertTrue(AccountActivity.isActive(NOW, NOW));
+        assertTrue(AccountActivity.isActive(NOW - AccountActivity.INACTIVE_AFTER_MS, NOW));
+        assertFalse(AccountActivity.isActive(NOW - AccountActivity.INACTIVE_AFTER_MS - 1, NOW));
+    }
+
+    @Test
+    public void unknownOrFutureLastSeenCountsAsActive() {
+        assertTrue(AccountActivity.isActive(0, NOW));
+        assertTrue(AccountActivity.isActive(-1, NOW));
+        // Another device's clock ahead of ours
+        assertTrue(AccountActivity.isActive(NOW + 60_000, NOW));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BatchPlannerTest {
+
+    @Test
+    public void noRecipientsMeansNoBatches() {
+        assertTrue(BatchPlanner.chunk(Collections.emptyList(), BatchPlanner.MAX_BATCH_OPS).isEmpty());
+    }
+
+    @Test
+    public void exactlyOneFullBatch() {
+        List<List<Integer>> chunks = BatchPlanner.chunk(recipients(500), BatchPlanner.MAX_BATCH_OPS);
+        assertEquals(1, chunks.size());
+        assertEquals(500, chunks.get(0).size());
+    }
+
+    @Test
+    public void oneOverSpillsIntoSecondBatch() {
+        List<List<Integer>> chunks = BatchPlanner.chunk(recipients(501), BatchPlanner.MAX_BATCH_OPS);
+        assertEquals(2, chunks.size());
+        assertEquals(500, chunks.get(0).size());
+        assertEquals(1, chunks.get(1).size());
+        assertEquals(Integer.valueOf(499), chunks.get(0).get(499));
+        assertEquals(Integer.valueOf(500), chunks.get(1).get(0));
+    }
+
+    @Test
+    public void everyItemLandsInExactlyOneBatch() {
+        List<Integer> items = recipients(1234);
+        List<Integer> flattened = new ArrayList<>();
+        for (List<Integer> chunk : BatchPlanner.chunk(items, BatchPlanner.MAX_BATCH_OPS)) {
+            assertTrue(chunk.size() <= BatchPlanner.MAX_BATCH_OPS);
+            flattened.addAll(chunk);
+        }
+        assertEquals(items, flattened);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveChunkSize() {
+        BatchPlanner.chunk(recipients(1), 0);
+    }
+
+    private static List<Integer> recipients(int count) {
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) ids.add(i);
+        return ids;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class GeoHashTest {
+    private static final double EARTH_RADIUS_M = 6_371_000;
+
+    @Test
+    public void encodesKnownHash() {
+        assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+        assertEquals("u4pru", GeoHash.encode(57.64911, 10.40744, 5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsPrecisionAboveMax() {
+        GeoHash.encode(0, 0, GeoHash.MAX_PRECISION + 1);
+    }
+
+    @Test
+    public void measuresGreatCircleDistance() {
+        // London to Paris
+        assertEquals(343_500, GeoHash.distanceMeters(51.5074, -0.1278, 48.8566, 2.3522), 1000);
+        assertEquals(0, GeoHash.distanceMeters(10, 10, 10, 10), 1e-9);
+    }
+
+    @Test
+    public void coveringCellsContainWholeCircle() {
+        double[][] centres = {
+                {0, 0},
+                {51.5074, -0.1278},
+                {57.64911, 10.40744},
+                {64.1466, -21.9426},
+                {-33.8688, 151.2093},
+                // On cell edges and across the antimeridian
+                {45.0, 0.0},
+                {-0.0001, 179.9999},
+        };
+        for (double[] centre : centres) {
+            List<String> cells = GeoHash.coveringCells(centre[0], centre[1], NearbyResponders.RADIUS_M);
+            assertTrue(cells.size() <= 25);
+            int precision = cells.get(0).length();
+            assertEquals(GeoHash.encode(centre[0], centre[1], precision), cells.get(0));
+            for (int bearing = 0; bearing < 360; bearing += 5) {
+                for (double fraction : new double[]{0.5, 0.999}) {
+                    double[] point = destination(centre[0], centre[1], bearing,
+                            NearbyResponders.RADIUS_M * fraction);
+                    String cell = GeoHash.encode(point[0], point[1], precision);
+                    assertTrue(cell + " at " + bearing + " deg from " + centre[0] + "," + centre[1],
+                            cells.contains(cell));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void coveringCellsAreFinerThanRadius() {
+        List<String> cells = GeoHash.coveringCells(51.5074, -0.1278, NearbyResponders.RADIUS_M);
+        // Precision 6 is about 610 x 760 m here; precision 5 would read 4.9 x 3 km per cell
+        assertEquals(6, cells.get(0).length());
+        assertTrue(String.valueOf(cells.size()), cells.size() >= 9 && cells.size() <= 20);
+        double[] size = GeoHash.cellSizeDegrees(6);
+        double coveredM2 = cells.size() * size[0] * size[1] * 111_320 * 111_320 * Math.cos(Math.toRadians(51.5));
+        assertTrue(coveredM2 < 4 * Math.PI * NearbyResponders.RADIUS_M * NearbyResponders.RADIUS_M);
+    }
+
+    private static double[] destination(double latitude, double longitude, double bearingDegrees, double meters) {
+        double angular = meters / EARTH_RADIUS_M;
+        double bearing = Math.toRadians(bearingDegrees);
+        double lat1 = Math.toRadians(latitude);
+        double lon1 = Math.toRadians(longitude);
+        double lat2 = Math.asin(Math.sin(lat1) * Math.cos(angular)
+                + Math.cos(lat1) * Math.sin(angular) * Math.cos(bearing));
+        double lon2 = lon1 + Math.atan2(Math.sin(bearing) * Math.sin(angular) * Math.cos(lat1),
+                Math.cos(angular) - Math.sin(lat1) * Math.sin(lat2));
+        double lon = Math.toDegrees(lon2);
+        if (lon >= 180) lon -= 360;
+        if (lon < -180) lon += 360;
+        return new double[]{Math.toDegrees(lat2), lon};
+    }
+}
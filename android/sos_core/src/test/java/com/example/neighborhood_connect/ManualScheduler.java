@@ -0,0 +1,89 @@
+package com.example.neighborhood_connect;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler whose delayed tasks only run when a test calls {@link #advance}, so
+ * timeouts can be exercised without waiting for them.
+ */
+final class ManualScheduler extends ScheduledThreadPoolExecutor {
+
+    private static final class Task {
+        final long dueMs;
+        final Runnable command;
+        final ScheduledFuture<?> handle;
+
+        Task(long dueMs, Runnable command, ScheduledFuture<?> handle) {
+            this.dueMs = dueMs;
+            this.command = command;
+            this.handle = handle;
+        }
+    }
+
+    private final List<Task> tasks = new ArrayList<>();
+    private long nowMs;
+
+    ManualScheduler() {
+        super(1);
+    }
+
+    @Override
+    public synchronized ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        // Never fires on its own; only used so callers can cancel the task.
+        ScheduledFuture<?> handle = super.schedule(() -> { }, 1, TimeUnit.DAYS);
+        tasks.add(new Task(nowMs + unit.toMillis(delay), command, handle));
+        return handle;
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        ScheduledFuture<V> handle = super.schedule(() -> null, 1, TimeUnit.DAYS);
+        synchronized (this) {
+            tasks.add(new Task(nowMs + unit.toMillis(delay), () -> {
+                try {
+                    callable.call();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }, handle));
+        }
+        return handle;
+    }
+
+    /**
+     * Moves the clock forward and runs every task that fell due and was not cancelled.
+     */
+    void advance(long ms) {
+        List<Runnable> due = new ArrayList<>();
+        synchronized (this) {
+            nowMs += ms;
+            for (Iterator<Task> it = tasks.iterator(); it.hasNext(); ) {
+                Task task = it.next();
+                if (task.handle.isCancelled()) {
+                    it.remove();
+                } else if (task.dueMs <= nowMs) {
+                    it.remove();
+                    task.handle.cancel(false);
+                    due.add(task.command);
+                }
+            }
+        }
+        for (Runnable command : due) {
+            command.run();
+        }
+    }
+
+    synchronized int pendingCount() {
+        int count = 0;
+        for (Task task : tasks) {
+            if (!task.handle.isCancelled()) count++;
+        }
+        return count;
+    }
+}
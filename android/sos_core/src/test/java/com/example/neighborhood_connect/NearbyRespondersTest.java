@@ -0,0 +1,58 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class NearbyRespondersTest {
+    private static final double LAT = 51.5;
+    private static final double LON = -0.12;
+    private static final long NOW = 1_700_000_000_000L;
+    // About 111 m of latitude
+    private static final double STEP = 0.001;
+
+    @Test
+    public void selectsFreshNeighboursInRangeNearestFirst() {
+        List<NearbyResponders.Candidate> candidates = Arrays.asList(
+                candidate("far", 3 * STEP, NOW),
+                candidate("me", 0, NOW),
+                candidate("near", STEP, NOW),
+                candidate("stale", STEP, NOW - NearbyResponders.MAX_LOCATION_AGE_MS - 1),
+                candidate("outside", 10 * STEP, NOW),
+                candidate("near", 2 * STEP, NOW));
+
+        assertEquals(Arrays.asList("near", "far"),
+                NearbyResponders.select(candidates, LAT, LON, "me", NOW));
+    }
+
+    @Test
+    public void capsSelection() {
+        List<NearbyResponders.Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            candidates.add(candidate("user-" + i, (30 - i) * STEP / 10, NOW));
+        }
+        List<String> selected = NearbyResponders.select(candidates, LAT, LON, "me", NOW);
+        assertEquals(NearbyResponders.MAX_RESPONDERS, selected.size());
+        assertEquals("user-29", selected.get(0));
+    }
+
+    @Test
+    public void republishesAfterIntervalOrDistance() {
+        long published = 1000;
+        assertTrue(NearbyResponders.shouldRepublish(0, 0, 0, LAT, LON, published));
+        assertFalse(NearbyResponders.shouldRepublish(LAT, LON, published, LAT + STEP / 2, LON, published + 1000));
+        assertTrue(NearbyResponders.shouldRepublish(LAT, LON, published, LAT + STEP, LON, published + 1000));
+        assertTrue(NearbyResponders.shouldRepublish(LAT, LON, published, LAT, LON,
+                published + NearbyResponders.REPUBLISH_INTERVAL_MS));
+    }
+
+    private static NearbyResponders.Candidate candidate(String userId, double latitudeOffset, long updatedAt) {
+        return new NearbyResponders.Candidate(userId, LAT + latitudeOffset, LON, updatedAt);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PhoneNumbersTest {
+
+    @Test
+    public void keepsLeadingPlusAndStripsFormatting() {
+        assertEquals("+441632960123", PhoneNumbers.normalize("+44 (1632) 960-123"));
+        assertEquals("+15551234", PhoneNumbers.normalize(" +1 555.1234 "));
+    }
+
+    @Test
+    public void turnsDoubleZeroPrefixIntoPlus() {
+        assertEquals("+441632960123", PhoneNumbers.normalize("0044 1632 960123"));
+        assertEquals("+441632960123", PhoneNumbers.normalize("00-44-1632-960123"));
+    }
+
+    @Test
+    public void leavesNationalNumbersAlone() {
+        assertEquals("01632960123", PhoneNumbers.normalize("01632 960123"));
+        assertEquals("5551234", PhoneNumbers.normalize("555-1234"));
+    }
+
+    @Test
+    public void plusOnlyCountsAtTheStart() {
+        assertEquals("15551234", PhoneNumbers.normalize("1+555+1234"));
+        assertEquals("+15551234", PhoneNumbers.normalize("++1 555 1234"));
+        assertEquals("+0044123", PhoneNumbers.normalize("+0044123"));
+    }
+
+    @Test
+    public void rejectsJunk() {
+        assertNull(PhoneNumbers.normalize(null));
+        assertNull(PhoneNumbers.normalize(""));
+        assertNull(PhoneNumbers.normalize("call me"));
+        assertNull(PhoneNumbers.normalize("+"));
+        assertNull(PhoneNumbers.normalize("+12"));
+        assertNull(PhoneNumbers.normalize("00"));
+    }
+
+    @Test
+    public void redactKeepsOnlyLastTwoDigits() {
+        assertEquals("***23", PhoneNumbers.redact("+441632960123"));
+        assertEquals("***", PhoneNumbers.redact("12"));
+        assertEquals("null", PhoneNumbers.redact(null));
+    }
+
+    @Test
+    public void normalizeAllDedupesAcrossFormatsAndKeepsOrder() {
+        assertEquals(
+                Arrays.asList("+441632960123", "5551234"),
+                PhoneNumbers.normalizeAll(Arrays.asList(
+                        "0044 1632 960123", "555-1234", "+44 1632 960123", "n/a", 42, null)));
+        assertTrue(PhoneNumbers.normalizeAll(null).isEmpty());
+    }
+
+    @Test
+    public void dedupeIdsTrimsAndDropsBlanks() {
+        assertEquals(
+                Arrays.asList("a", "b"),
+                PhoneNumbers.dedupeIds(Arrays.asList(" a", "b ", "a", "  ", 7, null)));
+    }
+}
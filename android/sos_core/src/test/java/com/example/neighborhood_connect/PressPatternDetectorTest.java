@@ -0,0 +1,133 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PressPatternDetectorTest {
+
+    @Test
+    public void matchesPressesInsideWindow() {
+        PressPatternDetector detector = new PressPatternDetector(PressPattern.DEFAULT);
+        for (long t = 0; t < 2000; t += 500) {
+            assertFalse(detector.onPress(t));
+        }
+        assertTrue(detector.onPress(2000));
+    }
+
+    @Test
+    public void slidesWindowOverOlderPresses() {
+        PressPatternDetector detector = new PressPatternDetector(PressPattern.DEFAULT);
+        // One press a second never fits five in 3 s
+        for (long t = 0; t <= 4000; t += 1000) {
+            assertFalse(detector.onPress(t));
+        }
+        assertFalse(detector.onPress(4500));
+        // 2000, 3000, 4000, 4500, 4600 span 2.6 s
+        assertTrue(detector.onPress(4600));
+    }
+
+    @Test
+    public void ringWrapsWithoutFalseMatches() {
+        PressPatternDetector detector = new PressPatternDetector(PressPattern.DEFAULT);
+        long t = 0;
+        for (int i = 0; i < 23; i++, t += 1000) {
+            assertFalse(detector.onPress(t));
+        }
+        // The ring has wrapped several times; a fresh quick burst still matches on its fifth press
+        t += PressPattern.DEFAULT.windowMs;
+        for (int i = 0; i < 4; i++, t += 100) {
+            assertFalse(detector.onPress(t));
+        }
+        assertTrue(detector.onPress(t));
+    }
+
+    @Test
+    public void ignoresBounceBelowMinGap() {
+        PressPatternDetector detector = new PressPatternDetector(new PressPattern(3, 1000, 100, 0, 0));
+        assertFalse(detector.onPress(0));
+        assertFalse(detector.onPress(50));
+        assertEquals(1, detector.getProgress(50));
+        assertFalse(detector.onPress(200));
+        assertTrue(detector.onPress(400));
+    }
+
+    @Test
+    public void gapAboveMaxGapRestartsSequence() {
+        PressPatternDetector detector = new PressPatternDetector(new PressPattern(3, 5000, 0, 500, 0));
+        assertFalse(detector.onPress(0));
+        assertFalse(detector.onPress(400));
+        assertFalse(detector.onPress(1000));
+        assertEquals(1, detector.getProgress(1000));
+        assertFalse(detector.onPress(1400));
+        assertTrue(detector.onPress(1800));
+    }
+
+    @Test
+    public void longPauseCancelsSequence() {
+        PressPatternDetector detector = new PressPatternDetector(new PressPattern(3, 5000, 0, 0, 800));
+        assertFalse(detector.onPress(0));
+        assertFalse(detector.onPress(300));
+        assertFalse(detector.onPress(1200));
+        assertEquals(1, detector.getProgress(1200));
+        assertFalse(detector.onPress(1500));
+        assertTrue(detector.onPress(1800));
+    }
+
+    @Test
+    public void expireDropsProgressOnlyAfterPause() {
+        PressPatternDetector detector = new PressPatternDetector(new PressPattern(3, 5000, 0, 0, 800));
+        detector.onPress(0);
+        detector.onPress(300);
+        assertFalse(detector.expire(1000));
+        assertEquals(2, detector.getProgress(1000));
+        assertTrue(detector.expire(1100));
+        assertEquals(0, detector.getProgress(1100));
+        assertFalse(detector.expire(2000));
+    }
+
+    @Test
+    public void shorterLimitEndsSequenceAtItsBoundary() {
+        // A gap of exactly maxGapMs continues; a pause of exactly cancelPauseMs cancels.
+        PressPatternDetector detector = new PressPatternDetector(new PressPattern(3, 5000, 0, 500, 800));
+        detector.onPress(0);
+        assertFalse(detector.onPress(500));
+        assertEquals(2, detector.getProgress(500));
+        assertTrue(detector.expire(1001));
+
+        detector = new PressPatternDetector(new PressPattern(3, 5000, 0, 900, 600));
+        detector.onPress(0);
+        assertFalse(detector.expire(599));
+        assertTrue(detector.expire(600));
+    }
+
+    @Test
+    public void resetsAfterMatch() {
+        PressPatternDetector detector = new PressPatternDetector(new PressPattern(2, 1000, 0, 0, 0));
+        assertFalse(detector.onPress(0));
+        assertTrue(detector.onPress(100));
+        assertFalse(detector.onPress(200));
+        assertTrue(detector.onPress(300));
+    }
+
+    @Test
+    public void clockGoingBackwardsRestartsSequence() {
+        PressPatternDetector detector = new PressPatternDetector(new PressPattern(3, 1000, 0, 0, 0));
+        detector.onPress(5000);
+        detector.onPress(5100);
+        assertFalse(detector.onPress(100));
+        assertEquals(1, detector.getProgress(100));
+    }
+
+    @Test
+    public void progressCountsOnlyPressesInsideWindow() {
+        PressPatternDetector detector = new PressPatternDetector(PressPattern.DEFAULT);
+        detector.onPress(0);
+        detector.onPress(1000);
+        detector.onPress(2000);
+        assertEquals(3, detector.getProgress(2000));
+        assertEquals(2, detector.getProgress(3500));
+    }
+}
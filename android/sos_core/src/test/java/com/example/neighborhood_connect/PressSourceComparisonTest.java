@@ -0,0 +1,72 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PressSourceComparisonTest {
+
+    @Test
+    public void matchesPressesAcrossSourcesAndCountsMisses() {
+        PressSourceComparison comparison = new PressSourceComparison();
+        // Key first, broadcast 200 ms after the key went down
+        assertFalse(comparison.onKeyPress(1000, 1010));
+        assertTrue(comparison.onBroadcastPress(1200));
+        // Only the key source saw this one
+        assertFalse(comparison.onKeyPress(3000, 3005));
+        // Only the broadcast source saw this one
+        assertFalse(comparison.onBroadcastPress(6000));
+        // Broadcast first, key delivered late
+        assertFalse(comparison.onBroadcastPress(9000));
+        assertTrue(comparison.onKeyPress(8950, 9020));
+
+        // {key, broadcast, missedByKeys, missedByBroadcasts, key p50, p95, broadcast p50, p95}
+        assertArrayEquals(new long[]{3, 3, 1, 1, 10, 70, 50, 200}, comparison.snapshot(20_000));
+    }
+
+    @Test
+    public void unmatchedPressesCountOnlyOnceWindowHasPassed() {
+        PressSourceComparison comparison = new PressSourceComparison();
+        comparison.onKeyPress(1000, 1000);
+        assertArrayEquals(new long[]{1, 0, 0, 0, 0, 0, -1, -1}, comparison.snapshot(1000 + PressSourceComparison.MATCH_WINDOW_MS));
+        assertArrayEquals(new long[]{1, 0, 0, 1, 0, 0, -1, -1}, comparison.snapshot(1001 + PressSourceComparison.MATCH_WINDOW_MS));
+    }
+
+    @Test
+    public void broadcastOutsideWindowIsNotMatched() {
+        PressSourceComparison comparison = new PressSourceComparison();
+        comparison.onKeyPress(1000, 1000);
+        assertFalse(comparison.onBroadcastPress(1000 + PressSourceComparison.MATCH_WINDOW_MS + 1));
+        assertArrayEquals(new long[]{1, 1, 1, 1, 0, 0, -1, -1}, comparison.snapshot(10_000));
+    }
+
+    @Test
+    public void fullRingDropsOldestAndMatchesFromTheMiddle() {
+        PressSourceComparison comparison = new PressSourceComparison();
+        int presses = PressSourceComparison.MAX_UNMATCHED + 3;
+        for (int t = 0; t < presses; t++) {
+            assertFalse(comparison.onBroadcastPress(t));
+        }
+        // 0..2 fell out of the ring; 20 and 21 sit past where it wrapped
+        assertTrue(comparison.onKeyPress(20, 40));
+        assertTrue(comparison.onKeyPress(20, 41));
+        // Order survives the removals: the oldest left is 3
+        assertTrue(comparison.onKeyPress(0, 42));
+        assertArrayEquals(new long[]{3, presses, 3, 0},
+                Arrays.copyOf(comparison.snapshot(42), 4));
+        assertArrayEquals(new long[]{3, presses, presses - 3, 0},
+                Arrays.copyOf(comparison.snapshot(10_000), 4));
+    }
+
+    @Test
+    public void restoredCountsAddToNewOnes() {
+        PressSourceComparison comparison = new PressSourceComparison();
+        comparison.restore(10, 12, 2, 1);
+        comparison.onBroadcastPress(1000);
+        assertArrayEquals(new long[]{10, 13, 3, 1, -1, -1, -1, -1}, comparison.snapshot(10_000));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class RecipientResolverTest {
+    private final long[] now = {0};
+    private final Statuses source = new Statuses();
+    private final RecipientResolver resolver = new RecipientResolver(source, () -> now[0]);
+
+    @Test
+    public void dropsDuplicatesSenderAndInactiveKeepingOrder() {
+        source.inactive.add("b");
+        source.deleted.add("d");
+        RecipientResolver.Resolution resolution =
+                resolve("me", "c", "a", "b", "me", "a", "d", "e");
+
+        assertEquals(Arrays.asList("c", "a", "e"), resolution.userIds);
+        assertEquals(7, resolution.requested);
+        assertEquals(1, resolution.duplicates);
+        assertEquals(1, resolution.self);
+        assertEquals(2, resolution.inactive);
+        assertEquals(0, resolution.unverified);
+        assertEquals(4, resolution.savedWrites());
+    }
+
+    @Test
+    public void chunksLookupsToQueryLimit() {
+        List<String> ids = ids(65);
+        RecipientResolver.Resolution resolution = resolver.resolve("me", ids).getValue();
+
+        assertEquals(3, resolution.queries);
+        assertEquals(3, source.queries.size());
+        for (List<String> query : source.queries) {
+            assertTrue(query.size() <= RecipientResolver.MAX_IDS_PER_QUERY);
+        }
+        assertEquals(ids, resolution.userIds);
+    }
+
+    @Test
+    public void cachesStatusesUntilTtl() {
+        source.inactive.add("b");
+        resolve("me", "a", "b");
+        RecipientResolver.Resolution cached = resolve("me", "a", "b");
+        assertEquals(1, source.queries.size());
+        assertEquals(2, cached.cacheHits);
+        assertEquals(0, cached.queries);
+        assertEquals(Arrays.asList("a"), cached.userIds);
+
+        now[0] = RecipientResolver.STATUS_TTL_MS + 1;
+        resolve("me", "a", "b");
+        assertEquals(2, source.queries.size());
+    }
+
+    @Test
+    public void failedLookupKeepsIdsWithoutCachingThem() {
+        source.inactive.add("b");
+        source.failing = true;
+        RecipientResolver.Resolution resolution = resolve("me", "a", "b");
+        assertEquals(Arrays.asList("a", "b"), resolution.userIds);
+        assertEquals(2, resolution.unverified);
+
+        source.failing = false;
+        RecipientResolver.Resolution retried = resolve("me", "a", "b");
+        assertEquals(0, retried.cacheHits);
+        assertEquals(Arrays.asList("a"), retried.userIds);
+    }
+
+    @Test
+    public void dedupeDropsSenderAndRepeats() {
+        assertEquals(Arrays.asList("a", "b"),
+                RecipientResolver.dedupe("me", Arrays.asList("a", "me", "b", "a")));
+    }
+
+    private RecipientResolver.Resolution resolve(String senderId, String... ids) {
+        Stage<RecipientResolver.Resolution> stage = resolver.resolve(senderId, Arrays.asList(ids));
+        assertTrue(stage.isSuccessful());
+        return stage.getValue();
+    }
+
+    private static List<String> ids(int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add("user-" + i);
+        }
+        return ids;
+    }
+
+    /**
+     * Completes status lookups synchronously from fixed sets.
+     */
+    private static final class Statuses implements RecipientSource {
+        final Set<String> inactive = new HashSet<>();
+        final Set<String> deleted = new HashSet<>();
+        final List<List<String>> queries = new ArrayList<>();
+        boolean failing;
+
+        @Override
+        public Stage<List<String>> fetchRecipients(String userId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Stage<NearbyResponders.Result> findNearby(String userId, SosFix fix) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Stage<Map<String, Boolean>> lookupStatus(List<String> userIds) {
+            queries.add(new ArrayList<>(userIds));
+            if (failing) return Stage.failed(new IOException("offline"));
+            Map<String, Boolean> statuses = new HashMap<>();
+            for (String userId : userIds) {
+                if (!deleted.contains(userId)) statuses.put(userId, !inactive.contains(userId));
+            }
+            return Stage.completed(statuses);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class RetryBackoffTest {
+
+    @Test
+    public void unknownKeyIsDue() {
+        assertEquals(0, new RetryBackoff(3, 1000, 10_000).msUntilDue("sms", 0));
+    }
+
+    @Test
+    public void delayDoublesUpToCap() {
+        RetryBackoff backoff = new RetryBackoff(10, 1000, 5000);
+        assertEquals(1000, backoff.recordFailure("sms", 0));
+        assertEquals(2000, backoff.recordFailure("sms", 0));
+        assertEquals(4000, backoff.recordFailure("sms", 0));
+        assertEquals(5000, backoff.recordFailure("sms", 0));
+        assertEquals(5000, backoff.recordFailure("sms", 100));
+        assertEquals(4000, backoff.msUntilDue("sms", 1100));
+        assertEquals(0, backoff.msUntilDue("sms", 5100));
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() {
+        RetryBackoff backoff = new RetryBackoff(3, 1000, 10_000);
+        backoff.recordFailure("sms", 0);
+        backoff.recordFailure("sms", 0);
+        assertEquals(-1, backoff.recordFailure("sms", 0));
+        assertEquals(0, backoff.msUntilDue("sms", 0));
+    }
+
+    @Test
+    public void keysAreIndependentAndClearable() {
+        RetryBackoff backoff = new RetryBackoff(3, 1000, 10_000);
+        backoff.recordFailure("a", 0);
+        assertEquals(0, backoff.msUntilDue("b", 0));
+        backoff.clear("a");
+        assertEquals(0, backoff.msUntilDue("a", 0));
+        assertEquals(1000, backoff.recordFailure("a", 0));
+    }
+}
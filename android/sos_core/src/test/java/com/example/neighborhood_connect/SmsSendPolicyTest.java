@@ -0,0 +1,57 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SmsSendPolicyTest {
+
+    @Test
+    public void backoffDoublesFromBaseAndCaps() {
+        assertEquals(0, SmsSendPolicy.backoffMs(0));
+        assertEquals(0, SmsSendPolicy.backoffMs(-1));
+        assertEquals(2000, SmsSendPolicy.backoffMs(1));
+        assertEquals(4000, SmsSendPolicy.backoffMs(2));
+        assertEquals(8000, SmsSendPolicy.backoffMs(3));
+        assertEquals(16000, SmsSendPolicy.backoffMs(4));
+        assertEquals(SmsSendPolicy.MAX_BACKOFF_MS, SmsSendPolicy.backoffMs(5));
+        // Large counts must not overflow the shift
+        assertEquals(SmsSendPolicy.MAX_BACKOFF_MS, SmsSendPolicy.backoffMs(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void retriesUntilMaxAttempts() {
+        assertTrue(SmsSendPolicy.shouldRetry(SmsSendPolicy.MAX_ATTEMPTS - 1));
+        assertFalse(SmsSendPolicy.shouldRetry(SmsSendPolicy.MAX_ATTEMPTS));
+    }
+
+    @Test
+    public void nextSendAtKeepsSpacing() {
+        assertEquals(1400, SmsSendPolicy.nextSendAt(1000, 1000));
+        assertEquals(1400, SmsSendPolicy.nextSendAt(1200, 1000));
+        assertEquals(1400, SmsSendPolicy.nextSendAt(1400, 1000));
+        assertEquals(5000, SmsSendPolicy.nextSendAt(5000, 1000));
+    }
+
+    @Test
+    public void classifiesTpStatus() {
+        assertTrue(SmsSendPolicy.isDelivered(0x00));
+        assertTrue(SmsSendPolicy.isDelivered(0x1F));
+        assertFalse(SmsSendPolicy.isDeliveryFailed(0x1F));
+
+        // Still being tried by the SMSC: neither delivered nor failed
+        assertFalse(SmsSendPolicy.isDelivered(0x20));
+        assertFalse(SmsSendPolicy.isDeliveryFailed(0x20));
+        assertFalse(SmsSendPolicy.isDelivered(0x3F));
+        assertFalse(SmsSendPolicy.isDeliveryFailed(0x3F));
+
+        assertTrue(SmsSendPolicy.isDeliveryFailed(0x40));
+        assertTrue(SmsSendPolicy.isDeliveryFailed(0x7F));
+        assertFalse(SmsSendPolicy.isDelivered(0x40));
+
+        assertFalse(SmsSendPolicy.isDelivered(-1));
+        assertFalse(SmsSendPolicy.isDeliveryFailed(-1));
+    }
+}
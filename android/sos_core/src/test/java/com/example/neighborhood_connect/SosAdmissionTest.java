@@ -0,0 +1,60 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SosAdmissionTest {
+
+    @Test
+    public void triggersDuringRunAttachToIt() {
+        SosAdmission admission = new SosAdmission(3, 60_000);
+        assertEquals(SosAdmission.Decision.START, admission.admit(0));
+        assertTrue(admission.isInFlight());
+        assertEquals(SosAdmission.Decision.ATTACH, admission.admit(100));
+        assertEquals(SosAdmission.Decision.ATTACH, admission.admit(200));
+        assertEquals(2, admission.finish());
+        assertFalse(admission.isInFlight());
+    }
+
+    @Test
+    public void attachedTriggersDoNotSpendTokens() {
+        SosAdmission admission = new SosAdmission(1, 60_000);
+        admission.admit(0);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(SosAdmission.Decision.ATTACH, admission.admit(i));
+        }
+        assertEquals(10, admission.finish());
+        assertEquals(SosAdmission.Decision.THROTTLE, admission.admit(1000));
+    }
+
+    @Test
+    public void throttlesAfterBurstUntilCooldown() {
+        SosAdmission admission = new SosAdmission(2, 60_000);
+        for (int i = 0; i < 2; i++) {
+            assertEquals(SosAdmission.Decision.START, admission.admit(0));
+            admission.finish();
+        }
+        assertEquals(SosAdmission.Decision.THROTTLE, admission.admit(1000));
+        assertEquals(59_000, admission.msUntilAdmitted(1000));
+        assertEquals(SosAdmission.Decision.START, admission.admit(60_000));
+        assertEquals(0, admission.finish());
+    }
+
+    @Test
+    public void inFlightRunIsAlwaysAdmittedImmediately() {
+        SosAdmission admission = new SosAdmission(1, 60_000);
+        admission.admit(0);
+        assertEquals(0, admission.msUntilAdmitted(10));
+    }
+
+    @Test
+    public void reportsItsSettings() {
+        SosAdmission admission = new SosAdmission(3, 60_000);
+        assertTrue(admission.hasSettings(3, 60_000));
+        assertFalse(admission.hasSettings(2, 60_000));
+        assertFalse(admission.hasSettings(3, 1000));
+    }
+}
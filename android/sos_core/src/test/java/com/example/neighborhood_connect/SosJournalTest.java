@@ -0,0 +1,137 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SosJournalTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reloadKeepsOnlyStepsStillPending() throws IOException {
+        File file = folder.newFile();
+        SosJournal journal = new SosJournal(file);
+        journal.begin("s1", "u1", 1000, SosJournal.STEP_LOCATION, SosJournal.STEP_CONTACTS,
+                SosJournal.STEP_FAN_OUT);
+        journal.updatePayload("s1", SosJournal.STEP_FAN_OUT, "https://maps/?q=1,2");
+        journal.done("s1", SosJournal.STEP_LOCATION);
+        String sms0 = SosJournal.smsStep(0, "+15550001", false);
+        String sms1 = SosJournal.smsStep(1, "+15550002", false);
+        journal.pending("s1", sms0, "SOS");
+        journal.pending("s1", sms1, "SOS");
+        journal.done("s1", SosJournal.STEP_CONTACTS);
+        journal.done("s1", sms0);
+
+        List<SosJournal.OpenSos> open = new SosJournal(file).getOpen();
+        assertEquals(1, open.size());
+        SosJournal.OpenSos sos = open.get(0);
+        assertEquals("u1", sos.userId);
+        assertEquals(1000, sos.startedAtWallMs);
+        assertEquals(Arrays.asList(SosJournal.STEP_FAN_OUT, sms1), Arrays.asList(sos.pendingSteps.keySet().toArray()));
+        assertEquals("https://maps/?q=1,2", sos.pendingSteps.get(SosJournal.STEP_FAN_OUT));
+        assertEquals("+15550002", SosJournal.phoneNumberOf(sms1));
+        assertNull(journal.getLastError());
+    }
+
+    @Test
+    public void endedSosIsGoneAndFileTruncatedWhenNoneOpen() throws IOException {
+        File file = folder.newFile();
+        SosJournal journal = new SosJournal(file);
+        journal.begin("s1", "u1", 1, SosJournal.STEP_FAN_OUT);
+        journal.begin("s2", "u1", 2, SosJournal.STEP_FAN_OUT);
+        journal.end("s1");
+        assertEquals(1, new SosJournal(file).getOpen().size());
+        journal.end("s2");
+        assertEquals(0, file.length());
+        assertTrue(new SosJournal(file).getOpen().isEmpty());
+    }
+
+    @Test
+    public void escapedPayloadsRoundTrip() throws IOException {
+        File file = folder.newFile();
+        String payload = "SOS | at a\\b\nline two|";
+        String userId = "user|with\\odd\nid";
+        SosJournal journal = new SosJournal(file);
+        journal.begin("s|1", userId, 5, SosJournal.STEP_CONTACTS);
+        journal.updatePayload("s|1", SosJournal.STEP_CONTACTS, payload);
+
+        assertEquals(3, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size());
+        SosJournal.OpenSos sos = new SosJournal(file).getOpen().get(0);
+        assertEquals("s|1", sos.sosId);
+        assertEquals(userId, sos.userId);
+        assertEquals(payload, sos.pendingSteps.get(SosJournal.STEP_CONTACTS));
+    }
+
+    @Test
+    public void tornBeginIsSkipped() throws IOException {
+        File file = journalWith("B|s1|u1|100\n", "B|s2|u1|1");
+        List<SosJournal.OpenSos> open = new SosJournal(file).getOpen();
+        assertEquals(1, open.size());
+        assertEquals("s1", open.get(0).sosId);
+    }
+
+    @Test
+    public void tornPendingDoesNotKeepTruncatedPayload() throws IOException {
+        File file = journalWith("B|s1|u1|100\nP|s1|fanout|\n", "P|s1|fanout|https://ma");
+        assertEquals("", new SosJournal(file).getOpen().get(0).pendingSteps.get(SosJournal.STEP_FAN_OUT));
+    }
+
+    @Test
+    public void tornDoneLeavesStepPending() throws IOException {
+        String sms = SosJournal.smsStep(0, "+15550001", false);
+        String sms10 = SosJournal.smsStep(0, "+155500010", false);
+        // The torn done record for sms10 reads like a complete one for sms
+        File file = journalWith("B|s1|u1|100\nP|s1|" + sms + "|SOS\nP|s1|" + sms10 + "|SOS\n",
+                "D|s1|" + sms);
+        SosJournal.OpenSos sos = new SosJournal(file).getOpen().get(0);
+        assertTrue(sos.pendingSteps.containsKey(sms));
+        assertTrue(sos.pendingSteps.containsKey(sms10));
+    }
+
+    @Test
+    public void tornEndKeepsSosOpen() throws IOException {
+        File file = journalWith("B|s1|u1|100\nB|s12|u1|200\n", "E|s1");
+        assertEquals(2, new SosJournal(file).getOpen().size());
+    }
+
+    @Test
+    public void appendAfterTornTailStartsOnItsOwnLine() throws IOException {
+        File file = journalWith("B|s1|u1|100\nP|s1|fanout|\n", "D|s1|fan");
+        SosJournal journal = new SosJournal(file);
+        journal.done("s1", SosJournal.STEP_FAN_OUT);
+        assertFalse(new SosJournal(file).hasPending("s1"));
+        assertEquals(Arrays.asList("B|s1|u1|100", "P|s1|fanout|", "D|s1|fanout"),
+                Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void malformedLinesAreIgnored() throws IOException {
+        File file = journalWith("garbage\nB|s1|u1|not-a-number\nX|s1\n\nB|s2|u1|7\nP|s2|a|b|c\n", "");
+        List<SosJournal.OpenSos> open = new SosJournal(file).getOpen();
+        assertEquals(1, open.size());
+        assertTrue(open.get(0).pendingSteps.isEmpty());
+    }
+
+    private File journalWith(String complete, String tornTail) throws IOException {
+        File file = folder.newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write((complete + tornTail).getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+}
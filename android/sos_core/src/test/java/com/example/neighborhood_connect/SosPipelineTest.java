@@ -0,0 +1,159 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class SosPipelineTest {
+
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private final FakeStages stages = new FakeStages();
+    private final SosTrace trace = new SosTrace("test", 0, () -> 0);
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void sendsSmsAndSavesNotifications() {
+        Stage<Void> run = new SosPipeline(stages, scheduler).run("me", trace);
+        assertTrue(run.isSuccessful());
+        assertEquals(Arrays.asList("+15550001"), stages.smsSentTo);
+        assertEquals(Arrays.asList("friend"), stages.notified);
+        assertTrue(stages.failures.isEmpty());
+        assertTrue(trace.firstOffset(TracePoint.FINISHED) >= 0);
+    }
+
+    @Test
+    public void fanOutTimeoutIsReportedAndDoesNotHoldUpSms() {
+        stages.save = new Stage<>();
+        Stage<Void> run = new SosPipeline(stages, scheduler).run("me", trace);
+        assertEquals(Arrays.asList("+15550001"), stages.smsSentTo);
+        assertFalse(run.isDone());
+
+        scheduler.advance(SosPipeline.FAN_OUT_TIMEOUT_MS);
+        assertTrue(run.isDone());
+        assertEquals(1, stages.failures.size());
+        assertEquals("fan-out", stages.failures.get(0));
+        assertTrue(stages.save.getError() instanceof TimeoutException);
+    }
+
+    @Test
+    public void timeoutFailsTheStageTheHostReturned() {
+        stages.save = new Stage<>();
+        new SosPipeline(stages, scheduler).run("me", trace);
+        scheduler.advance(SosPipeline.FAN_OUT_TIMEOUT_MS);
+        // withTimeout fails the host's own stage, so a write that lands late is dropped
+        // and the host must read the outcome from the stage rather than its own result.
+        assertFalse(stages.save.complete(null));
+        assertFalse(stages.save.isSuccessful());
+    }
+
+    @Test
+    public void recipientFailurePropagatesToFanOutOnly() {
+        stages.recipients = Stage.failed(new IllegalStateException("offline"));
+        Stage<Void> run = new SosPipeline(stages, scheduler).run("me", trace);
+        assertTrue(run.isDone());
+        assertEquals(Arrays.asList("recipients"), stages.failures);
+        assertEquals(Arrays.asList("+15550001"), stages.smsSentTo);
+        assertTrue(stages.notified.isEmpty());
+    }
+
+    @Test
+    public void contactFailureSkipsSmsButStillNotifies() {
+        stages.contacts = Stage.failed(new SecurityException("no SEND_SMS"));
+        Stage<Void> run = new SosPipeline(stages, scheduler).run("me", trace);
+        assertTrue(run.isDone());
+        assertEquals(Arrays.asList("contacts"), stages.failures);
+        assertTrue(stages.smsSentTo.isEmpty());
+        assertEquals(Arrays.asList("friend"), stages.notified);
+    }
+
+    @Test
+    public void missingLocationTimesOutIntoNoLocationMessage() {
+        stages.resolveLocation = false;
+        Stage<Void> run = new SosPipeline(stages, scheduler).run("me", trace);
+        assertTrue(stages.smsSentTo.isEmpty());
+
+        scheduler.advance(SosPipeline.LOCATION_TIMEOUT_MS);
+        assertTrue(run.isDone());
+        assertEquals(Arrays.asList("+15550001"), stages.smsSentTo);
+        assertEquals(Arrays.asList((String) null), stages.notifiedUrls);
+        assertTrue(stages.failures.contains("location"));
+    }
+
+    private static final class FakeStages implements SosPipeline.Stages {
+        Stage<List<String>> contacts = Stage.completed(Collections.singletonList("+15550001"));
+        Stage<List<String>> recipients = Stage.completed(Collections.singletonList("friend"));
+        Stage<Void> save = Stage.completed(null);
+        boolean resolveLocation = true;
+
+        final List<String> smsSentTo = new ArrayList<>();
+        final List<String> notified = new ArrayList<>();
+        final List<String> notifiedUrls = new ArrayList<>();
+        final List<String> failures = new ArrayList<>();
+
+        @Override
+        public Stage<List<String>> fetchContacts(String userId) {
+            return contacts;
+        }
+
+        @Override
+        public Stage<List<String>> fetchRecipients(String userId) {
+            return recipients;
+        }
+
+        @Override
+        public Stage<NearbyResponders.Result> findNearby(String userId, SosFix fix) {
+            return Stage.completed(NearbyResponders.Result.NONE);
+        }
+
+        @Override
+        public Stage<Map<String, Boolean>> lookupStatus(List<String> userIds) {
+            return Stage.completed(Collections.<String, Boolean>emptyMap());
+        }
+
+        @Override
+        public void acquireLocation(Stage<SosFix> firstFix, Stage<SosFix> refinedFix) {
+            if (!resolveLocation) return;
+            firstFix.complete(new SosFix("https://maps.example/?q=1,2", "SOS at 1,2"));
+            refinedFix.fail(new CancellationException());
+        }
+
+        @Override
+        public Stage<Void> sendSms(List<String> phoneNumbers, SosFix fix, boolean followUp) {
+            smsSentTo.addAll(phoneNumbers);
+            return Stage.completed(null);
+        }
+
+        @Override
+        public Stage<RecipientResolver.Resolution> resolveRecipients(String userId, List<String> recipientIds) {
+            return Stage.completed(new RecipientResolver.Resolution(recipientIds, recipientIds.size(),
+                    0, 0, 0, 0, 0, 0, 0));
+        }
+
+        @Override
+        public Stage<Void> saveNotifications(String userId, List<String> recipientIds, String locationUrl) {
+            notified.addAll(recipientIds);
+            notifiedUrls.add(locationUrl);
+            return save;
+        }
+
+        @Override
+        public void onStageFailed(String stage, Throwable error) {
+            failures.add(stage);
+        }
+    }
+}
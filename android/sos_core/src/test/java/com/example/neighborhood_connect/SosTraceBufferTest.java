@@ -0,0 +1,88 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class SosTraceBufferTest {
+
+    private long nowMs;
+    private final MonotonicClock clock = () -> nowMs;
+
+    @Test
+    public void snapshotIsOldestFirstBeforeWrapping() {
+        SosTraceBuffer buffer = new SosTraceBuffer(3);
+        buffer.add(trace("a", 10));
+        buffer.add(trace("b", 20));
+        assertEquals("[a, b]", ids(buffer.snapshot()));
+    }
+
+    @Test
+    public void wrapsAroundDroppingTheOldest() {
+        SosTraceBuffer buffer = new SosTraceBuffer(3);
+        for (String id : new String[]{"a", "b", "c", "d", "e"}) {
+            buffer.add(trace(id, 10));
+        }
+        assertEquals("[c, d, e]", ids(buffer.snapshot()));
+        buffer.add(trace("f", 10));
+        assertEquals("[d, e, f]", ids(buffer.snapshot()));
+    }
+
+    @Test
+    public void percentilesOnlyCoverRetainedTraces() {
+        SosTraceBuffer buffer = new SosTraceBuffer(4);
+        // The first two fall out of the ring, so their huge latencies must not count.
+        buffer.add(trace("old1", 90_000));
+        buffer.add(trace("old2", 80_000));
+        for (int i = 1; i <= 4; i++) {
+            buffer.add(trace("t" + i, i * 100));
+        }
+        assertArrayEquals(new long[]{4, 200, 400}, buffer.latencyPercentiles(TracePoint.SMS_SENT));
+    }
+
+    @Test
+    public void percentilesSkipTracesThatNeverReachedThePoint() {
+        SosTraceBuffer buffer = new SosTraceBuffer(4);
+        assertArrayEquals(new long[]{0, -1, -1}, buffer.latencyPercentiles(TracePoint.SMS_SENT));
+        buffer.add(trace("a", 100));
+        buffer.add(new SosTrace("b", 0, clock));
+        assertArrayEquals(new long[]{1, 100, 100}, buffer.latencyPercentiles(TracePoint.SMS_SENT));
+    }
+
+    @Test
+    public void traceCountsMarksPastTheCapWithoutStoringThem() {
+        SosTrace trace = new SosTrace("busy", 0, clock);
+        for (int i = 0; i < SosTrace.MAX_MARKS + 5; i++) {
+            trace.mark(TracePoint.SMS_SENT, i);
+        }
+        assertEquals(SosTrace.MAX_MARKS, trace.size());
+        assertEquals(SosTrace.MAX_MARKS - 1, trace.detailAt(SosTrace.MAX_MARKS - 1));
+        assertTrue(trace.encode().startsWith("busy;0;5;"));
+
+        SosTrace decoded = SosTrace.decode(trace.encode());
+        assertEquals(SosTrace.MAX_MARKS, decoded.size());
+        assertEquals(trace.encode(), decoded.encode());
+    }
+
+    private SosTrace trace(String id, long smsLatencyMs) {
+        SosTrace trace = new SosTrace(id, 0, clock);
+        long start = nowMs;
+        nowMs = start + smsLatencyMs;
+        trace.mark(TracePoint.SMS_SENT);
+        nowMs = start;
+        return trace;
+    }
+
+    private static String ids(List<SosTrace> traces) {
+        StringBuilder sb = new StringBuilder("[");
+        for (SosTrace trace : traces) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(trace.getId());
+        }
+        return sb.append(']').toString();
+    }
+}
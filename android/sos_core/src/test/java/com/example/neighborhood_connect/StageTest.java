@@ -0,0 +1,98 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class StageTest {
+
+    private final ManualScheduler scheduler = new ManualScheduler();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void completesOnceAndNotifiesEveryListener() {
+        Stage<String> stage = new Stage<>();
+        List<String> seen = new ArrayList<>();
+        stage.addListener(done -> seen.add("early:" + done.getValue()));
+        assertTrue(stage.complete("a"));
+        assertFalse(stage.complete("b"));
+        assertFalse(stage.fail(new IllegalStateException()));
+        stage.addListener(done -> seen.add("late:" + done.getValue()));
+        assertEquals("[early:a, late:a]", seen.toString());
+        assertTrue(stage.isSuccessful());
+        assertNull(stage.getError());
+    }
+
+    @Test
+    public void whenAllCompletesEvenWhenInputsFail() {
+        Stage<String> ok = new Stage<>();
+        Stage<String> broken = new Stage<>();
+        Stage<Void> all = Stage.whenAll(ok, broken);
+        IllegalStateException error = new IllegalStateException("boom");
+        broken.fail(error);
+        assertFalse(all.isDone());
+        ok.complete("fine");
+        assertTrue(all.isSuccessful());
+        // The failure is not propagated; callers read it from the inputs.
+        assertSame(error, broken.getError());
+        assertEquals("fine", ok.getValue());
+    }
+
+    @Test
+    public void whenAllOfNothingIsDone() {
+        assertTrue(Stage.whenAll().isSuccessful());
+    }
+
+    @Test
+    public void timeoutFailsStageThatNeverCompletes() {
+        Stage<String> stage = new Stage<String>().withTimeout(scheduler, 1000, "lookup");
+        scheduler.advance(999);
+        assertFalse(stage.isDone());
+        scheduler.advance(1);
+        assertFalse(stage.isSuccessful());
+        assertTrue(stage.getError() instanceof TimeoutException);
+        assertEquals("lookup timed out after 1000 ms", stage.getError().getMessage());
+        assertFalse(stage.complete("too late"));
+        assertNull(stage.getValue());
+    }
+
+    @Test
+    public void completionCancelsTheTimer() {
+        Stage<String> stage = new Stage<String>().withTimeout(scheduler, 1000, "lookup");
+        stage.complete("a");
+        assertEquals(0, scheduler.pendingCount());
+        scheduler.advance(1000);
+        assertTrue(stage.isSuccessful());
+    }
+
+    @Test
+    public void withTimeoutMutatesTheSharedStage() {
+        Stage<String> shared = new Stage<>();
+        List<Throwable> seenByOtherHolder = new ArrayList<>();
+        shared.addListener(done -> seenByOtherHolder.add(done.getError()));
+
+        Stage<String> timed = shared.withTimeout(scheduler, 100, "short");
+        shared.withTimeout(scheduler, 5000, "long");
+        assertSame(shared, timed);
+
+        scheduler.advance(100);
+        // The shortest timeout wins for every holder of the stage, not just the caller.
+        assertEquals(1, seenByOtherHolder.size());
+        assertTrue(seenByOtherHolder.get(0) instanceof TimeoutException);
+        assertEquals("short timed out after 100 ms", shared.getError().getMessage());
+        assertEquals(0, scheduler.pendingCount());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TokenBucketTest {
+
+    @Test
+    public void allowsBurstThenRefillsOnePerInterval() {
+        TokenBucket bucket = new TokenBucket(3, 100);
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(50));
+        assertEquals(50, bucket.msUntilAvailable(50));
+        assertTrue(bucket.tryAcquire(100));
+        assertFalse(bucket.tryAcquire(150));
+    }
+
+    @Test
+    public void refillStopsAtCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 100);
+        bucket.tryAcquire(0);
+        assertEquals(2, bucket.available(10_000));
+        assertTrue(bucket.tryAcquire(10_000));
+        assertTrue(bucket.tryAcquire(10_000));
+        assertFalse(bucket.tryAcquire(10_000));
+    }
+
+    @Test
+    public void partialIntervalsCarryOver() {
+        TokenBucket bucket = new TokenBucket(1, 100);
+        bucket.tryAcquire(0);
+        assertFalse(bucket.tryAcquire(99));
+        assertEquals(1, bucket.msUntilAvailable(99));
+        assertTrue(bucket.tryAcquire(100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyCapacity() {
+        new TokenBucket(0, 100);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.neighborhood_connect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class TrackSessionTest {
+    private static final double LAT = 51.5;
+    private static final double LON = -0.12;
+    // About 55 m of latitude
+    private static final double MOVE = 0.0005;
+
+    @Test
+    public void dropsInaccurateFixes() {
+        TrackSession session = new TrackSession(0, TrackSession.DEFAULT_DURATION_MS);
+        assertFalse(session.offer(sample(LAT, TrackSession.MAX_ACCURACY_M + 1, 0)));
+        assertFalse(session.offer(sample(LAT, -1, 0)));
+        assertTrue(session.offer(sample(LAT, 10, 0)));
+        assertEquals(3, session.getOffered());
+    }
+
+    @Test
+    public void suppressesStationaryFixesUntilHeartbeat() {
+        TrackSession session = new TrackSession(0, TrackSession.DEFAULT_DURATION_MS);
+        assertTrue(session.offer(sample(LAT, 10, 0)));
+        assertFalse(session.offer(sample(LAT, 10, 5_000)));
+        assertTrue(session.offer(sample(LAT + MOVE, 10, 10_000)));
+        assertFalse(session.offer(sample(LAT + MOVE, 10, 10_000 + TrackSession.HEARTBEAT_MS - 1)));
+        assertTrue(session.offer(sample(LAT + MOVE, 10, 10_000 + TrackSession.HEARTBEAT_MS)));
+    }
+
+    @Test
+    public void flushesOnBatchSizeOrDelayButNotTooOften() {
+        TrackSession session = new TrackSession(0, TrackSession.DEFAULT_DURATION_MS);
+        assertEquals(-1, session.msUntilFlush(0));
+        session.offer(sample(LAT, 10, 0));
+        assertEquals(TrackSession.MAX_BATCH_DELAY_MS, session.msUntilFlush(0));
+        for (int i = 1; i < TrackSession.BATCH_SIZE; i++) {
+            session.offer(sample(LAT + i * MOVE, 10, i * 1000));
+        }
+        assertEquals(0, session.msUntilFlush(4000));
+        assertEquals(TrackSession.BATCH_SIZE, session.drain(4000).size());
+        assertEquals(TrackSession.BATCH_SIZE, session.getWritten());
+
+        for (int i = 0; i < TrackSession.BATCH_SIZE; i++) {
+            session.offer(sample(LAT - (i + 1) * MOVE, 10, 5000 + i * 100));
+        }
+        assertEquals(TrackSession.MIN_WRITE_INTERVAL_MS - 1000, session.msUntilFlush(5000));
+    }
+
+    @Test
+    public void requeuedBatchIsWrittenFirst() {
+        TrackSession session = new TrackSession(0, TrackSession.DEFAULT_DURATION_MS);
+        session.offer(sample(LAT, 10, 0));
+        List<TrackSession.Sample> failed = session.drain(TrackSession.MAX_BATCH_DELAY_MS);
+        session.offer(sample(LAT + MOVE, 10, 21_000));
+        session.requeue(failed);
+        assertEquals(0, session.getWritten());
+
+        List<TrackSession.Sample> retried = session.drain(40_000);
+        assertEquals(2, retried.size());
+        assertEquals(LAT, retried.get(0).latitude, 0);
+    }
+
+    @Test
+    public void stopsKeepingFixesOnceExpired() {
+        TrackSession session = new TrackSession(1000, 60_000);
+        assertTrue(session.offer(sample(LAT, 10, 1000)));
+        assertFalse(session.isExpired(60_999));
+        assertTrue(session.isExpired(61_000));
+        assertFalse(session.offer(sample(LAT + MOVE, 10, 61_000)));
+        // The last points are still flushed right away
+        assertEquals(0, session.msUntilFlush(61_000));
+        assertEquals(0, session.msUntilExpiry(70_000));
+    }
+
+    @Test
+    public void durationIsCapped() {
+        TrackSession session = new TrackSession(0, Long.MAX_VALUE);
+        assertEquals(TrackSession.MAX_DURATION_MS, session.msUntilExpiry(0));
+    }
+
+    @Test
+    public void stopsAtPointBudget() {
+        TrackSession session = new TrackSession(0, TrackSession.MAX_DURATION_MS);
+        long now = 0;
+        for (int i = 0; i < TrackSession.MAX_POINTS; i++, now += TrackSession.HEARTBEAT_MS / 10) {
+            assertTrue(session.offer(sample(LAT + (i % 2) * MOVE, 10, now)));
+        }
+        assertTrue(session.isFinished(now));
+        assertFalse(session.offer(sample(LAT + MOVE * 3, 10, now)));
+    }
+
+    private static TrackSession.Sample sample(double latitude, float accuracy, long atMs) {
+        return new TrackSession.Sample(latitude, LON, accuracy, 1_700_000_000_000L + atMs, atMs);
+    }
+}
@@ -9,6 +9,7 @@ import 'package:neighborhood_connect/screens/logout/logout.dart';
 import 'package:neighborhood_connect/screens/marketplace_home_screen.dart';
 import 'package:neighborhood_connect/screens/notification/notification_screen.dart';
 import 'package:neighborhood_connect/screens/settings/settings.dart';
+import 'package:neighborhood_connect/services/screen_event_service.dart';
 import 'screens/welcome/welcome_screen.dart';
 import 'firebase_options.dart';
 import 'screens/home/home_screen.dart';
@@ -37,16 +38,9 @@ Future<void> main() async {
 
   await SystemChrome.setPreferredOrientations([DeviceOrientation.portraitUp]);
 
-  bool hasLocationPermission = await requestLocationPermission();
-  bool hasContactsPermission = await requestContactsPermission();
-  bool hasTelephonyPermission = await requestTelephonyPermission();
-
-  if (!hasLocationPermission ||
-      !hasContactsPermission ||
-      !hasTelephonyPermission) {
-    return;
-  }
-
+  // main() may run in an engine pre-warmed before any Activity exists, where
+  // permission prompts cannot be shown, so it must always reach runApp. The
+  // prompts are shown by PermissionGate once the first screen is resumed.
   await initializeNotifications();
 
   SharedPreferences prefs = await SharedPreferences.getInstance();
@@ -57,6 +51,11 @@ Future<void> main() async {
     await connectStreamChat(currentUser.uid);
   }
 
+  // Native notifications (SOS setup, neighbour alerts) open a route when tapped
+  ScreenEventService.nativeEvents.listen((event) {
+    if (event['type'] == 'open') openRoute(event['route'] as String);
+  });
+
   runApp(MyApp(
     hasSeenWelcome: hasSeenWelcome,
     currentUser: currentUser,
@@ -66,6 +65,17 @@ Future<void> main() async {
 
 final GlobalKey<NavigatorState> navigatorKey = GlobalKey<NavigatorState>();
 
+// Pushes [route] once the navigator exists; on a cold start that is after the
+// first frame
+void openRoute(String route) {
+  final navigator = navigatorKey.currentState;
+  if (navigator != null) {
+    navigator.pushNamed(route);
+  } else {
+    WidgetsBinding.instance.addPostFrameCallback((_) => openRoute(route));
+  }
+}
+
 Future<void> initializeNotifications() async {
   const AndroidInitializationSettings initializationSettingsAndroid =
       AndroidInitializationSettings('@mipmap/ic_launcher');
@@ -80,8 +90,9 @@ Future<void> initializeNotifications() async {
       navigatorKey.currentState?.pushNamed('/notifications');
     },
   );
+}
 
-  // Request notification permission.
+Future<void> requestNotificationPermission() async {
   PermissionStatus status = await Permission.notification.request();
   if (status.isGranted) {
     debugPrint("Notification permission granted");
@@ -185,6 +196,7 @@ class MyApp extends StatelessWidget {
     final theme = ThemeData(primarySwatch: Colors.blue);
 
     return MaterialApp(
+      navigatorKey: navigatorKey,
       title: 'Neighborhood Connect',
       theme: theme,
       builder: (context, child) {
@@ -196,9 +208,11 @@ class MyApp extends StatelessWidget {
       },
       initialRoute: '/',
       routes: {
-        '/': (context) => hasSeenWelcome
-            ? (currentUser != null ? MainScreen() : LoginScreen())
-            : WelcomeScreen(),
+        '/': (context) => PermissionGate(
+              child: hasSeenWelcome
+                  ? (currentUser != null ? MainScreen() : LoginScreen())
+                  : WelcomeScreen(),
+            ),
         '/home': (context) => MainScreen(),
         '/login': (context) => LoginScreen(),
         '/logout': (context) => Logout(),
@@ -208,12 +222,105 @@ class MyApp extends StatelessWidget {
         '/goToHome': (context) => GoToHomeScreen(),
         '/refreshScreens': (context) => MainScreen(),
         '/notifications': (context) => NotificationScreen(),
+        '/sos_settings': (context) => SOSSettingsScreen(),
+        // Opened from the "SOS is not fully set up" notification
+        '/sos_setup': (context) => SOSSettingsScreen(requestPermissions: true),
       },
       debugShowCheckedModeBanner: false,
     );
   }
 }
 
+// Asks for the permissions the app cannot work without before showing [child].
+// Waits for the app to be resumed, since the engine may have been started before
+// an Activity existed to show the prompts.
+class PermissionGate extends StatefulWidget {
+  final Widget child;
+
+  const PermissionGate({Key? key, required this.child}) : super(key: key);
+
+  @override
+  _PermissionGateState createState() => _PermissionGateState();
+}
+
+class _PermissionGateState extends State<PermissionGate>
+    with WidgetsBindingObserver {
+  bool? _granted;
+  bool _requested = false;
+
+  @override
+  void initState() {
+    super.initState();
+    WidgetsBinding.instance.addObserver(this);
+    if (WidgetsBinding.instance.lifecycleState == AppLifecycleState.resumed) {
+      _requestPermissions();
+    }
+  }
+
+  @override
+  void dispose() {
+    WidgetsBinding.instance.removeObserver(this);
+    super.dispose();
+  }
+
+  @override
+  void didChangeAppLifecycleState(AppLifecycleState state) {
+    if (state != AppLifecycleState.resumed || _granted == true) return;
+    // Prompt once on its own; after that only pick up access granted in the
+    // system settings, so coming back from them does not prompt again
+    if (_requested) {
+      _checkPermissions();
+    } else {
+      _requestPermissions();
+    }
+  }
+
+  Future<void> _requestPermissions() async {
+    _requested = true;
+    bool granted = await requestLocationPermission() &&
+        await requestContactsPermission() &&
+        await requestTelephonyPermission();
+    await requestNotificationPermission();
+    if (mounted) setState(() => _granted = granted);
+  }
+
+  Future<void> _checkPermissions() async {
+    bool granted = await Permission.location.isGranted &&
+        await Permission.contacts.isGranted &&
+        await Permission.sms.isGranted;
+    if (mounted) setState(() => _granted = granted);
+  }
+
+  @override
+  Widget build(BuildContext context) {
+    if (_granted == true) return widget.child;
+    return Scaffold(
+      body: Center(
+        child: _granted == null
+            ? CircularProgressIndicator()
+            : Padding(
+                padding: EdgeInsets.all(24),
+                child: Column(
+                  mainAxisSize: MainAxisSize.min,
+                  children: [
+                    Text(
+                      'Neighborhood Connect needs access to your location, '
+                      'contacts and SMS to work.',
+                      textAlign: TextAlign.center,
+                    ),
+                    SizedBox(height: 16),
+                    ElevatedButton(
+                      onPressed: _requestPermissions,
+                      child: Text('Grant access'),
+                    ),
+                  ],
+                ),
+              ),
+      ),
+    );
+  }
+}
+
 class GoToHomeScreen extends StatefulWidget {
   @override
   _GoToHomeScreenState createState() => _GoToHomeScreenState();
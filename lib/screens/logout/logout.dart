@@ -1,6 +1,7 @@
 import 'package:flutter/material.dart';
 import 'package:firebase_auth/firebase_auth.dart' as fb;
 import 'package:google_sign_in/google_sign_in.dart';
+import 'package:neighborhood_connect/services/screen_event_service.dart';
 import 'package:neighborhood_connect/main.dart'; // Adjust import if needed for streamClient
 
 class Logout extends StatefulWidget {
@@ -28,6 +29,10 @@ class _LogoutState extends State<Logout> {
         await Future.delayed(Duration(seconds: 2));
       }
 
+      // Stop being listed as a nearby responder; the entry can only be
+      // deleted while still signed in.
+      await ScreenEventService.setAvailableAsResponder(false);
+
       // Sign out from Firebase Auth.
       await fb.FirebaseAuth.instance.signOut();
       // Small delay to allow Firebase to clear the session.
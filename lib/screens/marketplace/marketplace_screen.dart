@@ -12,6 +12,7 @@ import 'package:flutter/services.dart';
 import 'package:neighborhood_connect/screens/search/search_screen.dart';
 import 'package:neighborhood_connect/screens/createPost/post_creation_screen.dart';
 import 'package:neighborhood_connect/screens/notification/notification_screen.dart';
+import 'package:neighborhood_connect/services/screen_event_service.dart';
 
 class MarketplaceScreen extends StatefulWidget {
   @override
@@ -214,6 +215,7 @@ class _MarketplaceScreenState extends State<MarketplaceScreen> {
   }
 
   Future<void> _signOut() async {
+    await ScreenEventService.setAvailableAsResponder(false);
     await FirebaseAuth.instance.signOut();
     await GoogleSignIn().signOut();
     Navigator.pushReplacementNamed(context, '/login');
@@ -35,7 +35,14 @@ class _NotificationScreenState extends State<NotificationScreen> {
           .orderBy('timestamp', descending: true)
           .get();
 
-      if (notificationsSnapshot.docs.isEmpty) {
+      // Shared SOS events (fan-out-on-read): one document for all recipients,
+      // with per-user read state kept in 'readBy'.
+      final sosEventsSnapshot = await FirebaseFirestore.instance
+          .collection('sos_events')
+          .where('recipients', arrayContains: user.uid)
+          .get();
+
+      if (notificationsSnapshot.docs.isEmpty && sosEventsSnapshot.docs.isEmpty) {
         setState(() {
           notifications = [];
           isLoading = false;
@@ -47,6 +54,7 @@ class _NotificationScreenState extends State<NotificationScreen> {
         final data = doc.data();
         return {
           'id': doc.id,
+          'source': 'notification',
           'title': data['title'] ?? '',
           'message': data['message'] ?? '',
           'isRead': data['isRead'] ?? false,
@@ -54,6 +62,22 @@ class _NotificationScreenState extends State<NotificationScreen> {
         };
       }).toList();
 
+      fetchedNotifications.addAll(sosEventsSnapshot.docs.map((doc) {
+        final data = doc.data();
+        final readBy = List<String>.from(data['readBy'] ?? []);
+        return {
+          'id': doc.id,
+          'source': 'sos_event',
+          'title': data['title'] ?? '',
+          'message': data['message'] ?? '',
+          'isRead': readBy.contains(user.uid),
+          'timestamp': data['timestamp']?.toDate() ?? DateTime.now(),
+        };
+      }));
+
+      fetchedNotifications.sort((a, b) =>
+          (b['timestamp'] as DateTime).compareTo(a['timestamp'] as DateTime));
+
       setState(() {
         notifications = fetchedNotifications;
         isLoading = false;
@@ -66,10 +90,17 @@ class _NotificationScreenState extends State<NotificationScreen> {
     }
   }
 
+  bool _isSosEvent(String notificationId) {
+    return notifications.any((notification) =>
+        notification['id'] == notificationId &&
+        notification['source'] == 'sos_event');
+  }
+
   Future<void> markAsRead(String notificationId) async {
     try {
       final user = FirebaseAuth.instance.currentUser;
       if (user != null) {
+        final isSosEvent = _isSosEvent(notificationId);
         setState(() {
           notifications = notifications.map((notification) {
             if (notification['id'] == notificationId) {
@@ -79,6 +110,16 @@ class _NotificationScreenState extends State<NotificationScreen> {
           }).toList();
         });
 
+        if (isSosEvent) {
+          await FirebaseFirestore.instance
+              .collection('sos_events')
+              .doc(notificationId)
+              .update({
+            'readBy': FieldValue.arrayUnion([user.uid])
+          });
+          return;
+        }
+
         await FirebaseFirestore.instance
             .collection('notification')
             .doc(user.uid)
@@ -95,11 +136,23 @@ class _NotificationScreenState extends State<NotificationScreen> {
     try {
       final user = FirebaseAuth.instance.currentUser;
       if (user != null) {
+        final isSosEvent = _isSosEvent(notificationId);
         setState(() {
           notifications.removeWhere(
               (notification) => notification['id'] == notificationId);
         });
 
+        if (isSosEvent) {
+          // The event is shared, so only drop this user from its recipients
+          await FirebaseFirestore.instance
+              .collection('sos_events')
+              .doc(notificationId)
+              .update({
+            'recipients': FieldValue.arrayRemove([user.uid])
+          });
+          return;
+        }
+
         await FirebaseFirestore.instance
             .collection('notification')
             .doc(user.uid)
@@ -133,6 +186,16 @@ class _NotificationScreenState extends State<NotificationScreen> {
         for (var doc in notificationsSnapshot.docs) {
           batch.update(doc.reference, {'isRead': true});
         }
+
+        final sosEventsSnapshot = await FirebaseFirestore.instance
+            .collection('sos_events')
+            .where('recipients', arrayContains: user.uid)
+            .get();
+        for (var doc in sosEventsSnapshot.docs) {
+          batch.update(doc.reference, {
+            'readBy': FieldValue.arrayUnion([user.uid])
+          });
+        }
         await batch.commit();
       }
     } catch (e) {
@@ -158,6 +221,16 @@ class _NotificationScreenState extends State<NotificationScreen> {
         for (var doc in notificationsSnapshot.docs) {
           batch.delete(doc.reference);
         }
+
+        final sosEventsSnapshot = await FirebaseFirestore.instance
+            .collection('sos_events')
+            .where('recipients', arrayContains: user.uid)
+            .get();
+        for (var doc in sosEventsSnapshot.docs) {
+          batch.update(doc.reference, {
+            'recipients': FieldValue.arrayRemove([user.uid])
+          });
+        }
         await batch.commit();
       }
     } catch (e) {
@@ -9,6 +9,7 @@ import 'package:flutter/services.dart';
 import '../createPost/post_creation_screen.dart';
 import '../marketplace/marketplace_screen.dart';
 import '../notification/notification_screen.dart';
+import 'package:neighborhood_connect/services/screen_event_service.dart';
 
 class SearchScreen extends StatefulWidget {
   @override
@@ -139,6 +140,7 @@ class _SearchScreenState extends State<SearchScreen> {
   }
 
   Future<void> _signOut() async {
+    await ScreenEventService.setAvailableAsResponder(false);
     await FirebaseAuth.instance.signOut();
     await GoogleSignIn().signOut();
     Navigator.pushReplacementNamed(context, '/login');
@@ -1,3 +1,5 @@
+import 'dart:async';
+
 import 'package:cloud_firestore/cloud_firestore.dart';
 import 'package:firebase_auth/firebase_auth.dart';
 import 'package:flutter/material.dart';
@@ -5,6 +7,8 @@ import 'package:flutter/services.dart';
 import 'package:flutter_contacts/flutter_contacts.dart';
 import 'package:shared_preferences/shared_preferences.dart';
 import 'package:flutter_switch/flutter_switch.dart';
+import 'package:permission_handler/permission_handler.dart';
+import 'package:neighborhood_connect/services/screen_event_service.dart';
 
 class ScreenEventSettingsScreen extends StatefulWidget {
   @override
@@ -201,16 +205,30 @@ class DataStorageScreen extends StatelessWidget {
 }
 
 class SOSSettingsScreen extends StatefulWidget {
+  // Ask for what SOS is missing on open; only when reached from the setup
+  // notification, since some prompts leave the app for the system settings
+  final bool requestPermissions;
+
+  const SOSSettingsScreen({Key? key, this.requestPermissions = false})
+      : super(key: key);
+
   @override
   _SOSSettingsScreenState createState() => _SOSSettingsScreenState();
 }
 
 class _SOSSettingsScreenState extends State<SOSSettingsScreen> {
   bool isSOSEnabled = false;
+  bool isLiveTrackingEnabled = false;
+  // Native default and cap are TrackSession.DEFAULT_DURATION_MS / MAX_DURATION_MS
+  int liveTrackingMinutes = 15;
+  bool isFastButtonEnabled = false;
+  bool isAvailableAsResponder = false;
   List<Contact> contacts = [];
   List<String> selectedNumbers = [];
   final String currentUserId = FirebaseAuth.instance.currentUser!.uid;
   bool isLoading = true; // Track loading state
+  Map<String, dynamic> sosLatency = {};
+  StreamSubscription<Map<String, dynamic>>? _nativeEvents;
 
   String searchQuery = '';
 
@@ -218,7 +236,40 @@ class _SOSSettingsScreenState extends State<SOSSettingsScreen> {
   void initState() {
     super.initState();
     _loadSOSStatus();
+    _loadSOSLatency();
     _fetchData();
+    _nativeEvents = ScreenEventService.nativeEvents.listen(_onNativeEvent);
+  }
+
+  @override
+  void dispose() {
+    _nativeEvents?.cancel();
+    super.dispose();
+  }
+
+  // The SOS trigger runs without the UI and cannot ask for permissions, so ask
+  // for the missing ones while SOS is being armed
+  Future<void> _requestSosPermissions() async {
+    final missing = await ScreenEventService.getSosReadiness();
+    if (missing.contains('sms')) await Permission.sms.request();
+    if (missing.contains('location')) await Permission.location.request();
+    // Android only offers "Allow all the time" once foreground location is granted
+    if (missing.contains('backgroundLocation') &&
+        await Permission.location.isGranted) {
+      await Permission.locationAlways.request();
+    }
+    if (missing.contains('notifications')) {
+      await Permission.notification.request();
+    }
+  }
+
+  void _onNativeEvent(Map<String, dynamic> event) {
+    if (!mounted) return;
+    if (event['type'] == 'monitoring') {
+      setState(() => isSOSEnabled = event['enabled'] == true);
+    } else if (event['type'] == 'sos' && event['point'] == 'FINISHED') {
+      _loadSOSLatency();
+    }
   }
 
   // Fetch both contacts and Firebase data together
@@ -239,6 +290,21 @@ class _SOSSettingsScreenState extends State<SOSSettingsScreen> {
     SharedPreferences prefs = await SharedPreferences.getInstance();
     setState(() {
       isSOSEnabled = prefs.getBool('isSOSEnabled') ?? false;
+      isLiveTrackingEnabled = prefs.getBool('sosLiveTracking') ?? false;
+      liveTrackingMinutes =
+          (prefs.getInt('sosTrackingMinutes') ?? 15).clamp(0, 120).toInt();
+      isFastButtonEnabled = prefs.getString('sosPressSource') == 'accessibility';
+      isAvailableAsResponder = prefs.getBool('sosAvailableAsResponder') ?? false;
+    });
+    // Reached from the "SOS is not fully set up" notification: ask again here
+    if (isSOSEnabled && widget.requestPermissions) await _requestSosPermissions();
+  }
+
+  Future<void> _loadSOSLatency() async {
+    final stats = await ScreenEventService.getSosLatencyStats();
+    if (!mounted) return;
+    setState(() {
+      sosLatency = stats;
     });
   }
 
@@ -383,6 +449,7 @@ class _SOSSettingsScreenState extends State<SOSSettingsScreen> {
                     inactiveColor: Colors.redAccent,
                     onToggle: (bool value) async {
                       try {
+                        if (value) await _requestSosPermissions();
                         const channel = MethodChannel(
                             'com.example.neighborhood_connect/screen_events');
                         await channel.invokeMethod(
@@ -397,6 +464,73 @@ class _SOSSettingsScreenState extends State<SOSSettingsScreen> {
                 ),
               ),
             ),
+            if (isSOSEnabled && (sosLatency['count'] ?? 0) > 0)
+              Padding(
+                padding: EdgeInsets.symmetric(horizontal: 16, vertical: 8),
+                child: Text(
+                  'Trigger to SMS: p50 ${sosLatency['p50Ms']} ms · '
+                  'p95 ${sosLatency['p95Ms']} ms '
+                  '(last ${sosLatency['count']} alerts)' +
+                  ((sosLatency['deliveredCount'] ?? 0) > 0
+                      ? '\nTrigger to delivery: p50 ${sosLatency['deliveredP50Ms']} ms · '
+                          'p95 ${sosLatency['deliveredP95Ms']} ms'
+                      : ''),
+                  style: TextStyle(color: Colors.grey[600], fontSize: 13),
+                ),
+              ),
+            if (isSOSEnabled)
+              SwitchListTile(
+                title: Text('Share live location after SOS'),
+                subtitle: Text(
+                  'Keeps updating your location for responders for '
+                  '$liveTrackingMinutes minutes.',
+                  style: TextStyle(color: Colors.grey[600]),
+                ),
+                value: isLiveTrackingEnabled,
+                activeColor: Colors.green,
+                onChanged: (bool value) async {
+                  SharedPreferences prefs =
+                      await SharedPreferences.getInstance();
+                  await prefs.setBool('sosLiveTracking', value);
+                  setState(() => isLiveTrackingEnabled = value);
+                },
+              ),
+            if (isSOSEnabled)
+              SwitchListTile(
+                title: Text('Fast button detection'),
+                subtitle: Text(
+                  'Also reads power button presses directly. Needs the accessibility service turned on.',
+                  style: TextStyle(color: Colors.grey[600]),
+                ),
+                value: isFastButtonEnabled,
+                activeColor: Colors.green,
+                onChanged: (bool value) async {
+                  SharedPreferences prefs =
+                      await SharedPreferences.getInstance();
+                  await prefs.setString(
+                      'sosPressSource', value ? 'accessibility' : 'broadcast');
+                  setState(() => isFastButtonEnabled = value);
+                  if (!value) return;
+                  final stats = await ScreenEventService.getPressSourceStats();
+                  if (stats['accessibilityConnected'] != true) {
+                    await ScreenEventService.openAccessibilitySettings();
+                  }
+                },
+              ),
+            SwitchListTile(
+              title: Text('Available as a nearby responder'),
+              subtitle: Text(
+                'Lets people near you who send an SOS find you. Shares your '
+                'approximate location while turned on.',
+                style: TextStyle(color: Colors.grey[600]),
+              ),
+              value: isAvailableAsResponder,
+              activeColor: Colors.green,
+              onChanged: (bool value) async {
+                await ScreenEventService.setAvailableAsResponder(value);
+                setState(() => isAvailableAsResponder = value);
+              },
+            ),
             SizedBox(height: 16),
 
             if (isSOSEnabled) ...[
@@ -1,8 +1,21 @@
 import 'package:flutter/services.dart';
+import 'package:shared_preferences/shared_preferences.dart';
 
 class ScreenEventService {
   static const MethodChannel _channel =
       MethodChannel('com.example.neighborhood_connect/screen_events');
+  static const EventChannel _events =
+      EventChannel('com.example.neighborhood_connect/native_events');
+
+  // Events pushed by the native layer, each a map with a 'type':
+  //   monitoring: {enabled, modules}         SOS monitoring turned on or off
+  //   gesture:    {presses, required}        press-gesture progress
+  //   sos:        {sosId, point, offsetMs, detail}  SOS pipeline stage reached
+  //   open:       {route}                    a tapped notification's route
+  //   dropped:    {count}                    events lost while nobody listened
+  static final Stream<Map<String, dynamic>> nativeEvents = _events
+      .receiveBroadcastStream()
+      .map((event) => Map<String, dynamic>.from(event as Map));
 
   // Check if screen event monitoring is enabled
   static Future<bool> isScreenEventEnabled() async {
@@ -25,4 +38,150 @@ class ScreenEventService {
       print("Failed to toggle screen event: ${e.message}");
     }
   }
+
+  // Opt in to or out of being found by SOS senders nearby. Opting out deletes
+  // this user's location index entry, so call it before signing out.
+  static Future<void> setAvailableAsResponder(bool available) async {
+    SharedPreferences prefs = await SharedPreferences.getInstance();
+    await prefs.setBool('sosAvailableAsResponder', available);
+    try {
+      await _channel.invokeMethod(
+          'setAvailableAsResponder', {"available": available});
+    } on PlatformException catch (e) {
+      print("Failed to update responder availability: ${e.message}");
+    }
+  }
+
+  // Permissions the headless SOS path is missing: any of 'sms', 'location',
+  // 'backgroundLocation' and 'notifications'. A trigger still runs without them,
+  // skipping what they gate.
+  static Future<List<String>> getSosReadiness() async {
+    try {
+      final List<dynamic> missing =
+          await _channel.invokeMethod('getSosReadiness') ?? [];
+      return missing.cast<String>();
+    } on PlatformException catch (e) {
+      print("Failed to get SOS readiness: ${e.message}");
+      return [];
+    }
+  }
+
+  // Recent SOS traces: stage-level timings recorded by the native service
+  static Future<List<Map<String, dynamic>>> getSosTraces() async {
+    try {
+      final List<dynamic> traces =
+          await _channel.invokeMethod('getSosTraces') ?? [];
+      return traces
+          .map((trace) => Map<String, dynamic>.from(trace as Map))
+          .toList();
+    } on PlatformException catch (e) {
+      print("Failed to get SOS traces: ${e.message}");
+      return [];
+    }
+  }
+
+  // Trigger-to-first-SMS latency percentiles ({count, p50Ms, p95Ms}), plus
+  // trigger-to-delivery ({deliveredCount, deliveredP50Ms, deliveredP95Ms})
+  static Future<Map<String, dynamic>> getSosLatencyStats() async {
+    try {
+      final Map<dynamic, dynamic> stats =
+          await _channel.invokeMethod('getSosLatencyStats') ?? {};
+      return Map<String, dynamic>.from(stats);
+    } on PlatformException catch (e) {
+      print("Failed to get SOS latency stats: ${e.message}");
+      return {};
+    }
+  }
+
+  // SOS triggers by outcome: {started, attached, throttled}, plus suppressed for
+  // triggers that did not start a run of their own
+  static Future<Map<String, dynamic>> getSosAdmissionStats() async {
+    try {
+      final Map<dynamic, dynamic> stats =
+          await _channel.invokeMethod('getSosAdmissionStats') ?? {};
+      return Map<String, dynamic>.from(stats);
+    } on PlatformException catch (e) {
+      print("Failed to get SOS admission stats: ${e.message}");
+      return {};
+    }
+  }
+
+  // SOS press sources compared while both deliver: {source, accessibilityConnected,
+  // keyPresses, broadcastPresses, missedByKeys, missedByBroadcasts, keyP50Ms,
+  // keyP95Ms, broadcastP50Ms, broadcastP95Ms}; latencies are from the key going down
+  static Future<Map<String, dynamic>> getPressSourceStats() async {
+    try {
+      final Map<dynamic, dynamic> stats =
+          await _channel.invokeMethod('getPressSourceStats') ?? {};
+      return Map<String, dynamic>.from(stats);
+    } on PlatformException catch (e) {
+      print("Failed to get press source stats: ${e.message}");
+      return {};
+    }
+  }
+
+  // The accessibility press source can only be switched on by the user
+  static Future<void> openAccessibilitySettings() async {
+    try {
+      await _channel.invokeMethod('openAccessibilitySettings');
+    } on PlatformException catch (e) {
+      print("Failed to open accessibility settings: ${e.message}");
+    }
+  }
+
+  // Footprint of the background service host: running modules, total PSS in KB
+  // and live thread count of the app process
+  static Future<Map<String, dynamic>> getServiceHostStats() async {
+    try {
+      final Map<dynamic, dynamic> stats =
+          await _channel.invokeMethod('getServiceHostStats') ?? {};
+      return Map<String, dynamic>.from(stats);
+    } on PlatformException catch (e) {
+      print("Failed to get service host stats: ${e.message}");
+      return {};
+    }
+  }
+
+  // Time to first frame: {coldCount, coldP50Ms} from process start with the
+  // pre-warmed engine, {warmProcessCount, warmProcessP50Ms} when the process was
+  // already running, and lastMs
+  static Future<Map<String, dynamic>> getStartupStats() async {
+    try {
+      final Map<dynamic, dynamic> stats =
+          await _channel.invokeMethod('getStartupStats') ?? {};
+      return Map<String, dynamic>.from(stats);
+    } on PlatformException catch (e) {
+      print("Failed to get startup stats: ${e.message}");
+      return {};
+    }
+  }
+
+  // Registers deferred Android plugins now instead of after the first frame; call
+  // before first use of a plugin that may be needed that early. Returns the names
+  // the registrant does not know.
+  static Future<List<String>> ensurePlugins(List<String> names) async {
+    try {
+      final List<dynamic> unknown =
+          await _channel.invokeMethod('ensurePlugins', {'names': names}) ?? [];
+      return unknown.cast<String>();
+    } on PlatformException catch (e) {
+      print("Failed to ensure plugins: ${e.message}");
+      return names;
+    }
+  }
+
+  // Registration cost per Android plugin, most expensive first:
+  // [{name, tier, phase, micros}]
+  static Future<List<Map<String, dynamic>>> getPluginRegistrationReport() async {
+    try {
+      final List<dynamic> report =
+          await _channel.invokeMethod('getPluginRegistrationReport') ?? [];
+      return report
+          .map((row) => Map<String, dynamic>.from(row as Map))
+          .toList();
+    } on PlatformException catch (e) {
+      print("Failed to get plugin registration report: ${e.message}");
+      return [];
+    }
+  }
 }
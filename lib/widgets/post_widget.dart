@@ -7,6 +7,7 @@ import 'package:shimmer/shimmer.dart';
 import 'package:audioplayers/audioplayers.dart';
 import 'package:shared_preferences/shared_preferences.dart';
 
+import 'package:neighborhood_connect/services/screen_event_service.dart';
 import 'package:neighborhood_connect/widgets/comment_sheet.dart';
 
 class PostWidget extends StatefulWidget {
@@ -138,6 +139,8 @@ class _PostWidgetState extends State<PostWidget>
   }
 
   Future<void> _toggleLike() async {
+    // audioplayers is registered after the first frame; a quick tap can beat it
+    await ScreenEventService.ensurePlugins(['audioplayers_android']);
     final player = AudioPlayer(); // Create an instance of AudioPlayer
 
     try {